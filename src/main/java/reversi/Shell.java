@@ -5,6 +5,9 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import reversi.model.AiReversi;
 import reversi.model.Cell;
@@ -15,6 +18,7 @@ import reversi.model.Model;
 import reversi.model.Phase;
 import reversi.model.Player;
 import reversi.model.Reversi;
+import reversi.model.ai.Difficulty;
 
 /** This class provides a shell to play reversi. Includes a main method to run the shell. */
 public class Shell {
@@ -85,6 +89,7 @@ public class Shell {
           handleCmdHelp();
           break;
         case "QUIT":
+          closeGame();
           quit = true;
           break;
         default:
@@ -95,30 +100,67 @@ public class Shell {
   }
 
   /**
-   * Creates a new instance of the reversi-application.
+   * Creates a new instance of the reversi-application. A single player game takes the level of the
+   * ai as an optional third argument.
    *
    * @param tokens The passed arguments from the user.
    */
   private void handleCmdNew(String[] tokens) {
-    if (!checkArgumentNumberValid(tokens, 2)) {
+    if (tokens.length != 3 && !checkArgumentNumberValid(tokens, 2)) {
       return;
     }
     String gameType = tokens[1].toUpperCase();
+    if (tokens.length == 3 && !gameType.equals(SINGLE)) {
+      printErrorMsg("Only single player games have a level.");
+      return;
+    }
+
     switch (gameType) {
       case HOTSEAT:
+        closeGame();
         reversi = new Reversi();
         isHotseatGame = true;
         break;
       case SINGLE:
-        reversi = new AiReversi();
+        Optional<Difficulty> difficulty =
+            tokens.length == 3 ? parseDifficulty(tokens[2]) : Optional.of(Difficulty.MEDIUM);
+        if (difficulty.isEmpty()) {
+          return;
+        }
+        closeGame();
+        reversi = new AiReversi(difficulty.get());
         isHotseatGame = false;
-        printErrorMsg("Gamemode not available yet");
         break;
       default:
         printErrorMsg("Unknown game type: " + gameType);
     }
   }
 
+  /**
+   * Closes the current game against the ai, if there is one, which ends the threads of the ai. The
+   * game must not be played anymore afterwards.
+   */
+  private void closeGame() {
+    if (reversi instanceof AiReversi) {
+      ((AiReversi) reversi).close();
+    }
+  }
+
+  /**
+   * Parses the level of the ai. In case of failure, an error message is printed.
+   *
+   * @param token The name of the level, in any case.
+   * @return the level, or an empty {@link Optional} if there is no level with the given name.
+   */
+  private Optional<Difficulty> parseDifficulty(String token) {
+    try {
+      return Optional.of(Difficulty.valueOf(token.toUpperCase()));
+    } catch (IllegalArgumentException e) {
+      printErrorMsg("Unknown level: " + token);
+      return Optional.empty();
+    }
+  }
+
   /**
    * Process the user input and attempt to make a move. In case of success, the application
    * additionally determines whether a player has now won the game.
@@ -135,11 +177,12 @@ public class Shell {
 
     String targetCellToken = tokens[1];
 
-    Cell targetCell = new Cell(parseColumnValue(targetCellToken), parseRowValue(targetCellToken));
+    Cell targetCell = Cell.of(parseColumnValue(targetCellToken), parseRowValue(targetCellToken));
 
     // Get the current player before executing the move, because afterwards the opponent is already
     // set as the active player.
     Player currentPlayer = reversi.getState().getCurrentPlayer();
+    CompletableFuture<Cell> lastAiMove = isHotseatGame ? null : ((AiReversi) reversi).getAiMove();
     if (!reversi.move(targetCell)) {
       printErrorMsg("Could not move disk to " + formatCell(targetCell) + ".");
       return;
@@ -148,6 +191,35 @@ public class Shell {
     System.out.println(currentPlayer + " moved disk to " + formatCell(targetCell));
 
     checkNextTurn(currentPlayer);
+    if (!isHotseatGame) {
+      awaitAiMove(lastAiMove, getOpponentOfPlayer(currentPlayer));
+    }
+  }
+
+  /**
+   * Waits until the ai made its move in reply to the move of the human player, so that it is
+   * printed before the next prompt.
+   *
+   * @param lastAiMove The move of the ai before the move of the human player.
+   * @param aiPlayer The player of the ai.
+   */
+  private void awaitAiMove(CompletableFuture<Cell> lastAiMove, Player aiPlayer) {
+    CompletableFuture<Cell> aiMove = ((AiReversi) reversi).getAiMove();
+    if (aiMove == lastAiMove) {
+      // the move of the human player ended the game, so the ai doesn't move
+      return;
+    }
+
+    Cell aiCell;
+    try {
+      aiCell = aiMove.join();
+    } catch (CompletionException | CancellationException e) {
+      printErrorMsg("The ai could not move.");
+      return;
+    }
+    System.out.println(aiPlayer + " moved disk to " + formatCell(aiCell));
+
+    checkNextTurn(aiPlayer);
   }
 
   /**
@@ -264,7 +336,7 @@ public class Shell {
       // we go from left to right, so we start with the left-most column (i.e., the first)
       sb.append(row + 1).append(" ");
       for (int column = 0; column <= GameField.SIZE - 1; column++) {
-        Cell currentCell = new Cell(column, row);
+        Cell currentCell = Cell.of(column, row);
         Optional<Disk> currentContent = field.get(currentCell);
         if (currentContent.isEmpty()) {
           sb.append(CELL_NO_CONTENT);
@@ -299,6 +371,8 @@ public class Shell {
     System.out.println("Reversi!");
     System.out.println("Accepted commands:");
     System.out.println("NEW" + "\t\t" + "initialize a new reversi game with field size '8x8'");
+    System.out.println(
+        "NEW SINGLE l" + "\t" + "play against the ai at level 'l' (EASY, MEDIUM, HARD or EXPERT)");
     System.out.println("MOVE t" + "\t" + "move a disk to 't'");
     System.out.println("PRINT" + "\t\t" + "print the current state of board");
     System.out.println("HELP" + "\t\t" + "show this dialog");
@@ -1,33 +1,128 @@
 package reversi.model;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import reversi.model.ai.Difficulty;
+import reversi.model.ai.Engine;
 import reversi.model.ai.MinimaxAlgorithm;
 
 /**
  * Extension of a {@link Reversi}-class, in which a human player plays against an ai-player.
- * The logic used for computing the moves of the ai-player is done by an implementation
- * of a {@link MinimaxAlgorithm minimax}-algorithm.
+ * The logic used for computing the moves of the ai-player is done by an {@link Engine}, by default
+ * an implementation of a {@link MinimaxAlgorithm minimax}-algorithm.
+ *
+ * <p>The moves of the ai-player are computed on a separate thread, so that the move of the human
+ * player returns immediately. As soon as the ai has decided, its move is executed on this model,
+ * which notifies the listeners like every other move. Starting a new game, taking back a move,
+ * setting another state or stopping the game cancels the computation. A model that isn't needed
+ * anymore should be {@link #close() closed}, which ends the threads of the ai.
+ *
+ * <p>With pondering enabled, the ai keeps searching while the human player thinks. It predicts the
+ * reply of the human player from the principal variation of its last search and searches the
+ * position after that reply in advance. If the human player actually plays the predicted move, the
+ * result of that search is taken; otherwise it is abandoned.
  *
  * @see Reversi
  */
-public class AiReversi extends Reversi {
+public class AiReversi extends Reversi implements AutoCloseable {
 
-  private final MinimaxAlgorithm minMax;
+  /** How long the thread of the ai is kept alive while it has nothing to compute. */
+  private static final long IDLE_THREAD_TIMEOUT = 30;
+
+  private final Engine engine;
   private final Player aiPlayer;
+  private final ExecutorService aiExecutor;
+  private final boolean pondering;
+
+  // the ai move that is currently computed and the task computing it, guarded by this
+  private CompletableFuture<Cell> aiMove = CompletableFuture.completedFuture(null);
+  private Future<?> aiSearch;
+
+  /** Increased with every computation that is started or cancelled, guarded by this. */
+  private int aiMoveGeneration;
+
+  // the predicted move of the human player and the search of the position after it, guarded by
+  // this
+  private Cell ponderMove;
+  private long ponderKey;
+  private CompletableFuture<Cell> ponderResult;
+  private Future<?> ponderSearch;
+  private int ponderHits;
 
   /**
    * Initializes an ai-reversi, in which everything is set up such that a human player can play
    * against an ai. The human player always draws the {@link Player#BLACK black} disks and makes the
-   * first move in the game.
+   * first move in the game. The ai plays at the {@link Difficulty#MEDIUM medium} level.
    */
   public AiReversi() {
+    this(Difficulty.MEDIUM);
+  }
+
+  /**
+   * Initializes an ai-reversi, in which the ai plays at the given level.
+   *
+   * @param difficulty The level of the ai-player.
+   */
+  public AiReversi(Difficulty difficulty) {
+    this(difficulty.createEngine());
+  }
+
+  /**
+   * Initializes an ai-reversi, in which the ai computes its moves with the given engine, e.g. one
+   * that searches within a time budget per move.
+   *
+   * @param engine The engine that computes the moves of the ai-player.
+   */
+  public AiReversi(Engine engine) {
+    this(engine, false);
+  }
+
+  /**
+   * Initializes an ai-reversi, in which the ai computes its moves with the given engine and may
+   * search on the time of the human player.
+   *
+   * @param engine The engine that computes the moves of the ai-player.
+   * @param pondering Whether the ai searches the predicted position while the human player thinks.
+   */
+  public AiReversi(Engine engine, boolean pondering) {
     super();
-    minMax = new MinimaxAlgorithm();
+    this.engine = engine;
+    this.pondering = pondering;
     aiPlayer = Player.WHITE;
+
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            IDLE_THREAD_TIMEOUT,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+              Thread thread = new Thread(runnable, "reversi-ai");
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.allowCoreThreadTimeOut(true);
+    aiExecutor = executor;
   }
 
+  /**
+   * Executes the move of the human player. If it's the ai-player's turn afterwards, the computation
+   * of its move is started in the background, see {@link #getAiMove()}.
+   *
+   * @param to The cell to place the disk on.
+   * @return <code>true</code> if the move was executed, <code>false</code> if it is not valid or
+   *     it is the ai-player's turn.
+   */
   @Override
-  public boolean move(Cell to) {
-    if (!super.move(to)) {
+  public synchronized boolean move(Cell to) {
+    if (isAiPlayersTurn() || !super.move(to)) {
       return false;
     }
 
@@ -35,9 +130,92 @@ public class AiReversi extends Reversi {
     return true;
   }
 
+  @Override
+  public synchronized void newGame() {
+    cancelAiMove();
+    super.newGame();
+  }
+
+  @Override
+  public synchronized void stopGame() {
+    cancelAiMove();
+    super.stopGame();
+  }
+
+  /**
+   * Takes back the last move of the human player. A computation of an ai move is cancelled, and if
+   * the ai already replied, its reply is taken back as well. Only if there is no move of the human
+   * player to take back and it's the ai-player's turn, its move is computed anew.
+   */
+  @Override
+  public synchronized void undoMove() {
+    cancelAiMove();
+    super.undoMove();
+    // taking back the reply alone would let a fast ai play it again before the next undo arrives
+    while (isAiPlayersTurn() && hasMoveToUndo()) {
+      super.undoMove();
+    }
+    checkNextTurn();
+  }
+
+  /**
+   * Sets the game state to the given value. A computation of an ai move is cancelled, and if it's
+   * the ai-player's turn in the new state, its move is computed on that state.
+   *
+   * @param state the new game state
+   */
+  @Override
+  public synchronized void setState(GameState state) {
+    cancelAiMove();
+    super.setState(state);
+    checkNextTurn();
+  }
+
+  /**
+   * Stops the game for good and ends the threads of the ai and its engine, e.g. before this model
+   * is replaced by the one of another game. The model must not be used afterwards.
+   */
+  @Override
+  public synchronized void close() {
+    stopGame();
+    aiExecutor.shutdown();
+    engine.close();
+  }
+
+  /**
+   * Return the move of the ai-player that is currently computed. The future completes with the
+   * cell of the move after the move was executed, and is cancelled if the game is reset, changed or
+   * stopped before. It fails if the engine throws or doesn't find a legal move.
+   *
+   * @return the future of the current ai move, or a completed future with <code>null</code> if
+   *     there is no move being computed.
+   */
+  public synchronized CompletableFuture<Cell> getAiMove() {
+    return aiMove;
+  }
+
+  /**
+   * Return the move the ai expects the human player to make next, and for which it is pondering.
+   *
+   * @return the predicted move, or an empty {@link Optional} if the ai isn't pondering.
+   */
+  public synchronized Optional<Cell> getPonderMove() {
+    return Optional.ofNullable(ponderMove);
+  }
+
+  /**
+   * Return how often the human player made the predicted move, so that the result of pondering
+   * could be used.
+   *
+   * @return the number of ponder hits in this game.
+   */
+  public synchronized int getPonderHits() {
+    return ponderHits;
+  }
+
   /**
    * Checks the next turn by determining whether it's the ai player's turn. Should that be the case,
-   * the ai immediately computes and executes a move afterwards.
+   * the ai starts computing its move.
    */
   private void checkNextTurn() {
     if (isAiPlayersTurn()) {
@@ -46,18 +224,156 @@ public class AiReversi extends Reversi {
   }
 
   /**
-   * Computes the best possible move for an ai-player and executes it afterwards.
+   * Starts the computation of the best possible move for an ai-player on a copy of the current
+   * state. The move is executed as soon as it is found, unless the game changed in the meantime.
    *
    * <p>This method requires the current phase to be {@link Phase#RUNNING} in order to be executed
    * successfully.
    */
-  void makeAiMove() {
+  synchronized void makeAiMove() {
     if (getState().getCurrentPhase() != Phase.RUNNING) {
       return;
     }
 
-    Cell cell = minMax.determineCell(getState().makeCopy());
-    move(cell);
+    int generation = ++aiMoveGeneration;
+    CompletableFuture<Cell> result = new CompletableFuture<>();
+    aiMove = result;
+
+    if (ponderResult != null && ponderKey == getState().getZobristKey()) {
+      // the human player made the predicted move, so the search is already running or even done
+      ponderHits++;
+      aiSearch = ponderSearch;
+      ponderResult.whenCompleteAsync(
+          (cell, error) -> completeAiMove(result, generation, cell, error), aiExecutor);
+      clearPondering();
+      return;
+    }
+
+    stopPondering();
+    GameState stateToSearch = getState().makeCopy();
+    aiSearch =
+        aiExecutor.submit(
+            () -> {
+              try {
+                Cell cell = engine.determineCell(stateToSearch);
+                completeAiMove(result, generation, cell, null);
+              } catch (RuntimeException e) {
+                completeAiMove(result, generation, null, e);
+              }
+            });
+  }
+
+  /**
+   * Executes the computed move and completes its future.
+   *
+   * @param result The future of the move.
+   * @param generation The generation of the computation.
+   * @param cell The cell the ai-player moves to.
+   * @param error The error of the computation, or <code>null</code> if it succeeded.
+   */
+  private void completeAiMove(
+      CompletableFuture<Cell> result, int generation, Cell cell, Throwable error) {
+    if (error != null) {
+      result.completeExceptionally(error);
+      return;
+    }
+
+    try {
+      result.complete(executeAiMove(generation, cell));
+    } catch (IllegalStateException e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Executes the computed move of the ai-player, if its computation wasn't cancelled.
+   *
+   * @param generation The generation of the computation.
+   * @param cell The cell the ai-player moves to.
+   * @return the cell of the move, or <code>null</code> if the computation was cancelled.
+   * @throws IllegalStateException if the engine found no move or an illegal one, although it's the
+   *     ai-player's turn.
+   */
+  private synchronized Cell executeAiMove(int generation, Cell cell) {
+    if (generation != aiMoveGeneration) {
+      return null;
+    }
+    if (cell == null) {
+      // the search wasn't cancelled, so it must have found a move for the running game
+      throw new IllegalStateException("The engine found no move for the ai-player");
+    }
+    if (!super.move(cell)) {
+      throw new IllegalStateException("The engine found the illegal move " + cell);
+    }
+
+    if (pondering) {
+      startPondering();
+    }
+    return cell;
+  }
+
+  /**
+   * Starts searching the position after the reply of the human player that the last search of the
+   * ai expects, if there is one.
+   */
+  private synchronized void startPondering() {
+    List<Cell> variation = engine.getPrincipalVariation();
+    if (getState().getCurrentPhase() != Phase.RUNNING || variation.size() < 2) {
+      return;
+    }
+
+    Cell predictedMove = variation.get(1);
+    GameState predictedState = getState().makeCopy();
+    if (!new Reversi(predictedState).move(predictedMove)
+        || predictedState.getCurrentPhase() != Phase.RUNNING) {
+      return;
+    }
+
+    CompletableFuture<Cell> result = new CompletableFuture<>();
+    ponderMove = predictedMove;
+    ponderKey = predictedState.getZobristKey();
+    ponderResult = result;
+    ponderSearch =
+        aiExecutor.submit(
+            () -> {
+              try {
+                result.complete(engine.determineCell(predictedState));
+              } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+              }
+            });
+  }
+
+  /** Abandons the search of the predicted position, if there is one. */
+  private synchronized void stopPondering() {
+    if (ponderSearch != null) {
+      ponderResult.cancel(false);
+      ponderSearch.cancel(true);
+    }
+    clearPondering();
+  }
+
+  private void clearPondering() {
+    ponderMove = null;
+    ponderKey = 0L;
+    ponderResult = null;
+    ponderSearch = null;
+  }
+
+  /** Cancels the computation of the current ai move, if there is one. */
+  private synchronized void cancelAiMove() {
+    // newGame() is already called by the constructor of the superclass
+    if (aiMove == null) {
+      return;
+    }
+
+    aiMoveGeneration++;
+    stopPondering();
+    if (!aiMove.isDone()) {
+      aiMove.cancel(false);
+      // a search that didn't start yet is dropped, a running one sees the interrupt and stops
+      aiSearch.cancel(true);
+    }
   }
 
   /**
@@ -0,0 +1,192 @@
+package reversi.model;
+
+/**
+ * Utility class that provides the bit operations on the 64-bit masks of a {@link GameField}. A
+ * mask holds one bit per cell, where the bit of a cell is found at index <code>column *
+ * GameField.SIZE + row</code>.
+ *
+ * <p>All operations work on whole masks at once and don't allocate any objects, which makes them
+ * suitable for the inner loops of the ai.
+ */
+public final class Bitboard {
+
+  /** Mask of all cells in the first row (row index 0). */
+  static final long FIRST_ROW = 0x0101010101010101L;
+
+  /** Mask of all cells in the last row (row index 7). */
+  static final long LAST_ROW = 0x8080808080808080L;
+
+  /** Mask of the four cells in the middle of the board, which take the first four disks. */
+  public static final long MIDDLE_FOUR_CELLS = 0x0000001818000000L;
+
+  /**
+   * The number of symmetries of the board, i.e. the rotations and reflections that map the board
+   * onto itself, see {@link #transform(long, int)}.
+   */
+  public static final int SYMMETRY_COUNT = 8;
+
+  /**
+   * The amount each of the eight directions shifts a mask by. Positive values shift towards higher
+   * bit indices, negative values towards lower ones.
+   */
+  private static final int[] SHIFTS = {1, -1, 8, -8, 9, -9, 7, -7};
+
+  /**
+   * The cells a disk may land on after being shifted in the respective direction of {@link
+   * #SHIFTS}. This removes the bits that wrapped around from one column to the next.
+   */
+  private static final long[] SHIFT_MASKS = {
+    ~FIRST_ROW, ~LAST_ROW, -1L, -1L, ~FIRST_ROW, ~LAST_ROW, ~LAST_ROW, ~FIRST_ROW
+  };
+
+  /**
+   * The precomputed rays of all cells, one table per direction of {@link #SHIFTS}. The ray of a
+   * cell contains all cells from its neighbour in that direction up to the edge of the board,
+   * excluding the cell itself.
+   */
+  private static final long[][] RAYS = new long[SHIFTS.length][GameField.SIZE * GameField.SIZE];
+
+  static {
+    for (int direction = 0; direction < SHIFTS.length; direction++) {
+      for (int index = 0; index < GameField.SIZE * GameField.SIZE; index++) {
+        long ray = 0L;
+        long bit = shift(1L << index, SHIFTS[direction], SHIFT_MASKS[direction]);
+        while (bit != 0) {
+          ray |= bit;
+          bit = shift(bit, SHIFTS[direction], SHIFT_MASKS[direction]);
+        }
+        RAYS[direction][index] = ray;
+      }
+    }
+  }
+
+  private Bitboard() {
+    // not meant to be instantiated
+  }
+
+  /**
+   * Computes all cells the owner of the disks in <code>own</code> may place a disk on, according
+   * to the reversi rules. A cell is a possible move if it is empty and encloses at least one
+   * straight line of opponent disks with a disk of the owner.
+   *
+   * <p>All eight directions are processed in parallel for all cells of the board, by repeatedly
+   * shifting the disks of the owner over the disks of the opponent.
+   *
+   * @param own The disks of the player to compute the moves for.
+   * @param opponent The disks of the opponent.
+   * @return A mask with one bit set for each possible move.
+   */
+  public static long possibleMoves(long own, long opponent) {
+    long empty = ~(own | opponent);
+    long moves = 0L;
+
+    for (int direction = 0; direction < SHIFTS.length; direction++) {
+      int shift = SHIFTS[direction];
+      long mask = SHIFT_MASKS[direction];
+
+      // a line of opponent disks can be at most six disks long
+      long line = shift(own, shift, mask) & opponent;
+      line |= shift(line, shift, mask) & opponent;
+      line |= shift(line, shift, mask) & opponent;
+      line |= shift(line, shift, mask) & opponent;
+      line |= shift(line, shift, mask) & opponent;
+      line |= shift(line, shift, mask) & opponent;
+
+      moves |= shift(line, shift, mask) & empty;
+    }
+
+    return moves;
+  }
+
+  /**
+   * Computes all disks that are flipped if the owner of the disks in <code>own</code> places a disk
+   * on the cell with the given index. In each direction, the opponent disks up to the first disk
+   * that is not an opponent disk are flipped if that disk belongs to the owner.
+   *
+   * <p>The lines are looked up in precomputed rays, so no cells or lists have to be created.
+   *
+   * @param index The bit index of the cell the disk is placed on.
+   * @param own The disks of the player that places the disk.
+   * @param opponent The disks of the opponent.
+   * @return A mask with one bit set for each opponent disk that is flipped.
+   */
+  public static long flips(int index, long own, long opponent) {
+    long flips = 0L;
+
+    for (int direction = 0; direction < SHIFTS.length; direction++) {
+      long ray = RAYS[direction][index];
+      long blockers = ray & ~opponent;
+      if (blockers == 0) {
+        // the ray consists of opponent disks only, up to the edge of the board
+        continue;
+      }
+
+      // the blocker closest to the cell is the lowest bit for rays running towards higher bit
+      // indices, and the highest bit otherwise
+      int closest =
+          SHIFTS[direction] > 0
+              ? Long.numberOfTrailingZeros(blockers)
+              : Long.SIZE - 1 - Long.numberOfLeadingZeros(blockers);
+      long closestBit = 1L << closest;
+
+      if ((own & closestBit) != 0) {
+        flips |= ray & ~(RAYS[direction][closest] | closestBit);
+      }
+    }
+
+    return flips;
+  }
+
+  /**
+   * Applies one of the {@link #SYMMETRY_COUNT} symmetries of the board to a mask. The bits of the
+   * symmetry select the operations, which are applied in this order: bit 2 swaps columns and rows,
+   * bit 0 mirrors the columns and bit 1 mirrors the rows. Symmetry 0 keeps the mask as it is.
+   *
+   * @param bits The mask to transform.
+   * @param symmetry The symmetry, from 0 to {@link #SYMMETRY_COUNT} - 1.
+   * @return The transformed mask.
+   */
+  public static long transform(long bits, int symmetry) {
+    long result = bits;
+    if ((symmetry & 4) != 0) {
+      result = transpose(result);
+    }
+    if ((symmetry & 1) != 0) {
+      // every byte of the mask holds one column
+      result = Long.reverseBytes(result);
+    }
+    if ((symmetry & 2) != 0) {
+      result = Long.reverse(Long.reverseBytes(result));
+    }
+    return result;
+  }
+
+  /**
+   * Swaps the columns and rows of a mask, i.e. mirrors it at the diagonal through the cell with
+   * index 0. Blocks of bits are swapped in three steps of decreasing size.
+   *
+   * @param bits The mask to transpose.
+   * @return The transposed mask.
+   */
+  private static long transpose(long bits) {
+    long swap = 0x0F0F0F0F00000000L & (bits ^ (bits << 28));
+    bits ^= swap ^ (swap >>> 28);
+    swap = 0x3333000033330000L & (bits ^ (bits << 14));
+    bits ^= swap ^ (swap >>> 14);
+    swap = 0x5500550055005500L & (bits ^ (bits << 7));
+    bits ^= swap ^ (swap >>> 7);
+    return bits;
+  }
+
+  /**
+   * Shifts all bits of a mask by one cell into a direction.
+   *
+   * @param bits The mask to shift.
+   * @param shift The amount of bits to shift by, see {@link #SHIFTS}.
+   * @param mask The cells that are valid after the shift, see {@link #SHIFT_MASKS}.
+   * @return The shifted mask.
+   */
+  private static long shift(long bits, int shift, long mask) {
+    return (shift > 0 ? bits << shift : bits >>> -shift) & mask;
+  }
+}
@@ -1,10 +1,21 @@
 package reversi.model;
 
-import java.util.Objects;
-
-/** Cell class that contains all necessary information for being represented on a 2D-board. */
+/**
+ * Cell class that contains all necessary information for being represented on a 2D-board.
+ *
+ * <p>The 64 cells of the reversi board exist as shared instances that can be obtained with {@link
+ * #of(int, int)} and {@link #ofIndex(int)}, so that no new cells have to be created for them.
+ */
 public class Cell implements Comparable<Cell> {
 
+  private static final Cell[] CELLS = new Cell[GameField.SIZE * GameField.SIZE];
+
+  static {
+    for (int index = 0; index < CELLS.length; index++) {
+      CELLS[index] = new Cell(index / GameField.SIZE, index % GameField.SIZE);
+    }
+  }
+
   private final int column;
   private final int row;
 
@@ -19,6 +30,47 @@ public class Cell implements Comparable<Cell> {
     this.row = row;
   }
 
+  /**
+   * Returns the cell with the given coordinates. For coordinates on the board the shared instance
+   * of the cell is returned; otherwise a new cell is created.
+   *
+   * @param column The x-value of the cell.
+   * @param row The y-value of the cell.
+   * @return The cell with the given coordinates.
+   */
+  public static Cell of(int column, int row) {
+    if (column >= 0 && column < GameField.SIZE && row >= 0 && row < GameField.SIZE) {
+      return CELLS[column * GameField.SIZE + row];
+    }
+    return new Cell(column, row);
+  }
+
+  /**
+   * Returns the shared instance of the cell with the given index, which is the inverse of {@link
+   * #index()}.
+   *
+   * @param index The index of the cell, from 0 to 63.
+   * @return The cell with the given index.
+   * @throws IllegalArgumentException if the index is not on the board
+   */
+  public static Cell ofIndex(int index) {
+    if (index < 0 || index >= CELLS.length) {
+      throw new IllegalArgumentException("Index of cell is out of bounds: " + index);
+    }
+    return CELLS[index];
+  }
+
+  /**
+   * Returns the index of this cell, which ranges from 0 to 63 for the cells on the board. The index
+   * is the position of the bit that stands for this cell in the bitboards of a {@link GameField}.
+   * For cells out of the bounds of the board, the index is undefined.
+   *
+   * @return the index of this cell
+   */
+  public int index() {
+    return column * GameField.SIZE + row;
+  }
+
   /**
    * Returns the column of this cell as integer index. Column values range from 0 to 7 and describe
    * the reversi columns from A to H, respectively.
@@ -41,7 +93,7 @@ public class Cell implements Comparable<Cell> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(column, row);
+    return 31 * column + row;
   }
 
   @Override
@@ -54,7 +106,7 @@ public class Cell implements Comparable<Cell> {
     }
 
     Cell other = (Cell) obj;
-    return Objects.equals(column, other.column) && Objects.equals(row, other.row);
+    return column == other.column && row == other.row;
   }
 
   @Override
@@ -0,0 +1,154 @@
+package reversi.model;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * A set of {@link Cell cells} of the reversi board that is backed by a single 64-bit mask, in the
+ * same layout as the bitboards of a {@link GameField}. Looking up a cell is a single bit test, the
+ * size is a bit count, and iterating the set hands out the shared cell instances without creating
+ * any new cells.
+ *
+ * <p>The cells are iterated in their natural order. The set is mutable, but may only contain cells
+ * that are within the bounds of the board.
+ */
+public class CellSet extends AbstractSet<Cell> {
+
+  private long mask;
+
+  /** Creates an empty set of cells. */
+  public CellSet() {
+    this(0L);
+  }
+
+  /**
+   * Creates a set that contains all cells whose bits are set in the given mask.
+   *
+   * @param mask The bitboard of the cells in the set.
+   */
+  public CellSet(long mask) {
+    this.mask = mask;
+  }
+
+  /**
+   * Return the bitboard of this set, in which each set bit stands for a cell in the set.
+   *
+   * @return the mask of this set.
+   */
+  public long getMask() {
+    return mask;
+  }
+
+  @Override
+  public int size() {
+    return Long.bitCount(mask);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return mask == 0;
+  }
+
+  @Override
+  public boolean contains(Object obj) {
+    if (!(obj instanceof Cell)) {
+      return false;
+    }
+
+    Cell cell = (Cell) obj;
+    return GameField.isWithinBounds(cell) && (mask & (1L << cell.index())) != 0;
+  }
+
+  /**
+   * Adds a cell to this set.
+   *
+   * @param cell The cell to add.
+   * @return <code>true</code> if the cell was not yet contained in this set.
+   * @throws IllegalArgumentException if the cell is out of the bounds of the board
+   */
+  @Override
+  public boolean add(Cell cell) {
+    if (!GameField.isWithinBounds(cell)) {
+      throw new IllegalArgumentException("Coordinates of cell are out of bounds: " + cell);
+    }
+
+    long previous = mask;
+    mask |= 1L << cell.index();
+    return mask != previous;
+  }
+
+  @Override
+  public boolean remove(Object obj) {
+    if (!contains(obj)) {
+      return false;
+    }
+
+    mask &= ~(1L << ((Cell) obj).index());
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    mask = 0L;
+  }
+
+  @Override
+  public Iterator<Cell> iterator() {
+    return new CellIterator();
+  }
+
+  @Override
+  public void forEach(Consumer<? super Cell> action) {
+    for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+      action.accept(Cell.ofIndex(Long.numberOfTrailingZeros(remaining)));
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof CellSet) {
+      return mask == ((CellSet) obj).mask;
+    }
+    return super.equals(obj);
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode();
+  }
+
+  /** Iterates the set bits of the mask in ascending order. */
+  private class CellIterator implements Iterator<Cell> {
+
+    private long remaining = mask;
+    private int lastIndex = -1;
+
+    @Override
+    public boolean hasNext() {
+      return remaining != 0;
+    }
+
+    @Override
+    public Cell next() {
+      if (remaining == 0) {
+        throw new NoSuchElementException();
+      }
+
+      lastIndex = Long.numberOfTrailingZeros(remaining);
+      remaining &= remaining - 1;
+      return Cell.ofIndex(lastIndex);
+    }
+
+    @Override
+    public void remove() {
+      if (lastIndex < 0) {
+        throw new IllegalStateException("No cell to remove");
+      }
+
+      mask &= ~(1L << lastIndex);
+      lastIndex = -1;
+    }
+  }
+}
@@ -6,6 +6,9 @@ package reversi.model;
  */
 public class Disk {
 
+  private static final Disk WHITE_DISK = new Disk(Player.WHITE);
+  private static final Disk BLACK_DISK = new Disk(Player.BLACK);
+
   private final Player player;
 
   /**
@@ -17,6 +20,24 @@ public class Disk {
     this.player = player;
   }
 
+  /**
+   * Return the shared <code>Disk</code>-object of the specified player. As disks are immutable,
+   * there is no need to allocate a new one for every cell of the board.
+   *
+   * @param player The owner of the disk.
+   * @return The disk owned by the player.
+   */
+  static Disk of(Player player) {
+    switch (player) {
+      case WHITE:
+        return WHITE_DISK;
+      case BLACK:
+        return BLACK_DISK;
+      default:
+        throw new AssertionError("Unhandled player: " + player);
+    }
+  }
+
   /**
    * Return the {@link Player} that is the owner of this <code>Disk</code>.
    *
@@ -1,7 +1,6 @@
 package reversi.model;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -11,28 +10,33 @@ import java.util.Set;
  * A class whose sole responsibility is the management of disks on the reversi board. As such it
  * provides the data structure that allows to check and manipulate each entry on the board
  * accordingly.
+ *
+ * <p>Internally the board is stored as two bitboards, i.e. one <code>long</code> per player in
+ * which every bit stands for a single cell. The bit of a cell is found at index <code>column *
+ * SIZE + row</code>, so that iterating the bits in ascending order yields the cells in their
+ * natural order.
  */
 public class GameField {
 
   public static final int SIZE = 8;
 
-  private final Disk[][] field;
+  private static final Optional<Disk> WHITE_DISK = Optional.of(Disk.of(Player.WHITE));
+  private static final Optional<Disk> BLACK_DISK = Optional.of(Disk.of(Player.BLACK));
+
+  private long whiteDisks;
+  private long blackDisks;
+  private long zobristKey;
 
   GameField() {
-    field = new Disk[SIZE][SIZE];
+    whiteDisks = 0L;
+    blackDisks = 0L;
+    zobristKey = 0L;
   }
 
   GameField(GameField gameField) {
-    field = cloneField(gameField.field);
-  }
-
-  private Disk[][] cloneField(Disk[][] field) {
-    Disk[][] clonedField = new Disk[SIZE][SIZE];
-
-    for (int i = 0; i < SIZE; i++) {
-      clonedField[i] = field[i].clone();
-    }
-    return clonedField;
+    whiteDisks = gameField.whiteDisks;
+    blackDisks = gameField.blackDisks;
+    zobristKey = gameField.zobristKey;
   }
 
   /**
@@ -44,7 +48,40 @@ public class GameField {
    */
   public Optional<Disk> get(Cell cell) {
     throwErrorWhenOutOfBounds(cell);
-    return Optional.ofNullable(field[cell.getColumn()][cell.getRow()]);
+    long bit = 1L << cell.index();
+    if ((whiteDisks & bit) != 0) {
+      return WHITE_DISK;
+    } else if ((blackDisks & bit) != 0) {
+      return BLACK_DISK;
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Return the bitboard of all cells that are occupied by disks of the given player.
+   *
+   * @param player The player whose disks are requested.
+   * @return A mask in which each set bit stands for a cell with a disk of the player.
+   */
+  public long getDisksOf(Player player) {
+    switch (player) {
+      case WHITE:
+        return whiteDisks;
+      case BLACK:
+        return blackDisks;
+      default:
+        throw new AssertionError("Unhandled player: " + player);
+    }
+  }
+
+  /**
+   * Return the {@link Zobrist} hash of the disks on this field. It is updated incrementally by
+   * every change of the field.
+   *
+   * @return the hash of all disks on the field.
+   */
+  long getZobristKey() {
+    return zobristKey;
   }
 
   /**
@@ -55,12 +92,10 @@ public class GameField {
   public Map<Cell, Player> getCellsOccupiedWithDisks() {
     Map<Cell, Player> map = new HashMap<>();
 
-    for (int column = 0; column < SIZE; column++) {
-      for (int row = 0; row < SIZE; row++) {
-        if (field[column][row] != null) {
-          map.put(new Cell(column, row), field[column][row].getPlayer());
-        }
-      }
+    for (long occupied = whiteDisks | blackDisks; occupied != 0; occupied &= occupied - 1) {
+      int index = Long.numberOfTrailingZeros(occupied);
+      Player player = (whiteDisks & (1L << index)) != 0 ? Player.WHITE : Player.BLACK;
+      map.put(Cell.ofIndex(index), player);
     }
 
     return map;
@@ -72,17 +107,7 @@ public class GameField {
    * @return A set with all cells that have no disk on them.
    */
   Set<Cell> getEmptyCells() {
-    Set<Cell> set = new HashSet<>();
-
-    for (int column = 0; column < SIZE; column++) {
-      for (int row = 0; row < SIZE; row++) {
-        if (field[column][row] == null) {
-          set.add(new Cell(column, row));
-        }
-      }
-    }
-
-    return set;
+    return new CellSet(~(whiteDisks | blackDisks));
   }
 
   /**
@@ -91,17 +116,7 @@ public class GameField {
    * @return A set with all cells that are empty and withhin the mid.
    */
   Set<Cell> getMiddleFourEmptyCells() {
-    Set<Cell> set = new HashSet<>();
-
-    for (int column = 3; column < 5; column++) {
-      for (int row = 3; row < 5; row++) {
-        if (field[column][row] == null) {
-          set.add(new Cell(column, row));
-        }
-      }
-    }
-
-    return set;
+    return new CellSet(Bitboard.MIDDLE_FOUR_CELLS & ~(whiteDisks | blackDisks));
   }
 
   /**
@@ -115,7 +130,58 @@ public class GameField {
     throwErrorWhenOutOfBounds(cell);
     Objects.requireNonNull(newValue);
 
-    field[cell.getColumn()][cell.getRow()] = newValue; // may override an existing disk
+    // may override an existing disk
+    long bit = 1L << cell.index();
+    zobristKey ^= Zobrist.hashDisks(Player.WHITE, whiteDisks & bit);
+    zobristKey ^= Zobrist.hashDisks(Player.BLACK, blackDisks & bit);
+    zobristKey ^= Zobrist.hashDisks(newValue.getPlayer(), bit);
+    if (newValue.getPlayer() == Player.WHITE) {
+      whiteDisks |= bit;
+      blackDisks &= ~bit;
+    } else {
+      blackDisks |= bit;
+      whiteDisks &= ~bit;
+    }
+  }
+
+  /**
+   * Places a disk of the player on the cell with the given bit index and flips the given opponent
+   * disks to the player.
+   *
+   * @param player The player that places the disk.
+   * @param index The bit index of the cell the disk is placed on.
+   * @param flips The mask of opponent disks that are flipped by the move.
+   */
+  void place(Player player, int index, long flips) {
+    zobristKey ^= Zobrist.hashDisks(player, 1L << index) ^ Zobrist.hashFlips(flips);
+    long changed = (1L << index) | flips;
+    if (player == Player.WHITE) {
+      whiteDisks |= changed;
+      blackDisks &= ~changed;
+    } else {
+      blackDisks |= changed;
+      whiteDisks &= ~changed;
+    }
+  }
+
+  /**
+   * Takes back a move, i.e. removes the disk of the player from the cell with the given bit index
+   * and gives the flipped disks back to the opponent.
+   *
+   * @param player The player that placed the disk.
+   * @param index The bit index of the cell the disk was placed on.
+   * @param flips The mask of opponent disks that were flipped by the move.
+   */
+  void unplace(Player player, int index, long flips) {
+    long placed = 1L << index;
+    zobristKey ^= Zobrist.hashDisks(player, placed) ^ Zobrist.hashFlips(flips);
+    if (player == Player.WHITE) {
+      whiteDisks &= ~(placed | flips);
+      blackDisks |= flips;
+    } else {
+      blackDisks &= ~(placed | flips);
+      whiteDisks |= flips;
+    }
   }
 
   /**
@@ -126,16 +192,16 @@ public class GameField {
    * @throws IllegalArgumentException if given cell is out of field bounds
    */
   Disk remove(Cell cell) {
-    throwErrorWhenOutOfBounds(cell);
-    int col = cell.getColumn();
-    int row = cell.getRow();
-    if (field[col][row] == null) {
+    Optional<Disk> removed = get(cell);
+    if (removed.isEmpty()) {
       throw new IllegalArgumentException("There's no disk to delete for cell " + cell);
     }
 
-    Disk removed = field[col][row];
-    field[col][row] = null;
-    return removed;
+    long bit = 1L << cell.index();
+    zobristKey ^= Zobrist.hashDisks(removed.get().getPlayer(), bit);
+    whiteDisks &= ~bit;
+    blackDisks &= ~bit;
+    return removed.get();
   }
 
   /**
@@ -147,8 +213,8 @@ public class GameField {
    * @return <code>true</code> if the player has a disk on the cell, <code>false</code> otherwise.
    */
   boolean isCellOfPlayer(Player player, Cell cell) {
-    Optional<Disk> diskOpt = get(cell);
-    return diskOpt.isPresent() && diskOpt.get().getPlayer() == player;
+    throwErrorWhenOutOfBounds(cell);
+    return (getDisksOf(player) & (1L << cell.index())) != 0;
   }
 
   /**
@@ -2,11 +2,8 @@ package reversi.model;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of a data structure class that contains all necessary attributes in order to
@@ -60,10 +57,45 @@ public class GameState {
    *
    * @return the copy of the game state.
    */
-  synchronized GameState makeCopy() {
+  public synchronized GameState makeCopy() {
     return new GameState(this);
   }
 
+  /**
+   * Records everything that is needed to take back a move of the current player, before the move
+   * is applied to this state.
+   *
+   * @param index The bit index of the cell the current player places the disk on.
+   * @param flips The mask of the disks that are flipped by the move.
+   * @return A record that allows to undo the move with {@link #undoMove(MoveRecord)}.
+   */
+  synchronized MoveRecord recordMove(int index, long flips) {
+    return new MoveRecord(
+        currentPlayer,
+        index,
+        flips,
+        currentPhase,
+        winner,
+        getDiskCount(currentPlayer),
+        moveCounter);
+  }
+
+  /**
+   * Takes back a move that was applied to this state. The disk is removed from the board, the
+   * flipped disks are given back to the opponent, and all other attributes are reset to their
+   * values from before the move.
+   *
+   * @param move The record of the last move that was applied to this state.
+   */
+  synchronized void undoMove(MoveRecord move) {
+    gameField.unplace(move.player, move.index, move.flips);
+    setDiskCount(move.player, move.diskCount);
+    currentPlayer = move.player;
+    currentPhase = move.phase;
+    winner = move.winner;
+    moveCounter = move.moveCounter;
+  }
+
   /**
    * Return the current amount of disks the player has left.
    *
@@ -184,6 +216,41 @@ public class GameState {
     currentPlayer = newPlayer;
   }
 
+  /**
+   * Return the bitboard of the disks the player currently has on the board. The mask is kept up to
+   * date by every move and undo, so this is a single read.
+   *
+   * @param player The player whose disks are requested.
+   * @return A mask in which each set bit stands for a cell with a disk of the player.
+   */
+  public synchronized long getDisksOnField(Player player) {
+    requireNonNull(player);
+    return gameField.getDisksOf(player);
+  }
+
+  /**
+   * Return the amount of disks the player currently has on the board. In contrast to {@link
+   * #getDiskCount(Player)}, this counts the disks on the board and not the ones left to be placed.
+   *
+   * @param player The player whose disks are counted.
+   * @return the amount of disks of the player on the board.
+   */
+  public synchronized int getDiskCountOnField(Player player) {
+    return Long.bitCount(getDisksOnField(player));
+  }
+
+  /**
+   * Return the {@link Zobrist} hash of this state, which covers all disks on the board and the
+   * player that is to move. The hash of the disks is updated incrementally with every move, flip
+   * and undo, so this method doesn't have to look at the board.
+   *
+   * @return the 64-bit hash of the current position.
+   */
+  public synchronized long getZobristKey() {
+    long key = gameField.getZobristKey();
+    return currentPlayer == Player.WHITE ? key ^ Zobrist.WHITE_TO_MOVE : key;
+  }
+
   /**
    * Return all {@link Cell cells} of the current reversi board that belong to the requested player.
    *
@@ -191,10 +258,6 @@ public class GameState {
    * @return A set of cells on which the player has currently his disks upon.
    */
   public synchronized Set<Cell> getAllCellsOfPlayer(Player player) {
-    requireNonNull(player);
-    return gameField.getCellsOccupiedWithDisks().entrySet().stream()
-        .filter(x -> player == x.getValue())
-        .map(Map.Entry::getKey)
-        .collect(Collectors.toCollection(HashSet::new));
+    return new CellSet(getDisksOnField(player));
   }
 }
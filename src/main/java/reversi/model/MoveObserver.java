@@ -0,0 +1,31 @@
+package reversi.model;
+
+/**
+ * An observer of the moves that are played and taken back on a {@link Reversi} instance. It gets
+ * the cells that changed, so that it can keep values that depend on the field up to date without
+ * computing them again from the whole field, e.g. the rating of a position during a search.
+ *
+ * <p>The observer is called synchronously at every move, so it has to be fast.
+ *
+ * @see Reversi#setMoveObserver(MoveObserver)
+ */
+public interface MoveObserver {
+
+  /**
+   * Called after a move was played.
+   *
+   * @param player The player that made the move.
+   * @param index The bit index of the cell the disk was placed on, see {@link Bitboard}.
+   * @param flips The mask of the disks that were flipped to the player.
+   */
+  void movePlayed(Player player, int index, long flips);
+
+  /**
+   * Called after a move was taken back.
+   *
+   * @param player The player that made the move.
+   * @param index The bit index of the cell the disk was removed from, see {@link Bitboard}.
+   * @param flips The mask of the disks that were flipped back to the opponent.
+   */
+  void moveUndone(Player player, int index, long flips);
+}
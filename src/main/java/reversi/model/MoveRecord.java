@@ -0,0 +1,49 @@
+package reversi.model;
+
+/**
+ * Undo-information of a single move. Instead of a copy of the whole {@link GameState}, a record
+ * only holds the cell the disk was placed on, the mask of the flipped disks, and those attributes
+ * of the state that may have changed by the move. This is enough to take back the move in
+ * constant time.
+ *
+ * @see GameState#recordMove(int, long)
+ * @see GameState#undoMove(MoveRecord)
+ */
+final class MoveRecord {
+
+  final Player player;
+  final int index;
+  final long flips;
+  final Phase phase;
+  final Player winner;
+  final int diskCount;
+  final int moveCounter;
+
+  /**
+   * Creates a new record for a move.
+   *
+   * @param player The player that made the move.
+   * @param index The bit index of the cell the disk was placed on.
+   * @param flips The mask of the disks that were flipped by the move.
+   * @param phase The phase of the game before the move.
+   * @param winner The winner before the move, or <code>null</code> if there was none.
+   * @param diskCount The amount of disks the player had left before the move.
+   * @param moveCounter The move counter before the move.
+   */
+  MoveRecord(
+      Player player,
+      int index,
+      long flips,
+      Phase phase,
+      Player winner,
+      int diskCount,
+      int moveCounter) {
+    this.player = player;
+    this.index = index;
+    this.flips = flips;
+    this.phase = phase;
+    this.winner = winner;
+    this.diskCount = diskCount;
+    this.moveCounter = moveCounter;
+  }
+}
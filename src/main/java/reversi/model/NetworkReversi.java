@@ -3,7 +3,6 @@ package reversi.model;
 import java.beans.PropertyChangeListener;
 import java.io.IOException;
 import java.net.InetAddress;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -126,7 +125,7 @@ public class NetworkReversi implements Model {
     if (player.equals(assignedPlayer)) {
       return delegate.getPossibleMovesForPlayer(player);
     } else {
-      return Collections.emptySet();
+      return new CellSet();
     }
   }
 }
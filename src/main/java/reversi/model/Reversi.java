@@ -7,7 +7,6 @@ import java.beans.PropertyChangeSupport;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -24,9 +23,10 @@ public class Reversi implements Model {
   private static final int EXPECTED_HISTORY_LENGTH = 60;
 
   private final PropertyChangeSupport support = new PropertyChangeSupport(this);
-  private final Deque<GameState> stateHistory = new ArrayDeque<>(EXPECTED_HISTORY_LENGTH);
+  private final Deque<MoveRecord> moveHistory = new ArrayDeque<>(EXPECTED_HISTORY_LENGTH);
 
   private GameState state;
+  private MoveObserver moveObserver;
 
   /**
    * Initialize a new Reversi-Game in which everything is set up in its initial position. The game
@@ -63,6 +63,11 @@ public class Reversi implements Model {
    * PropertyChangeListener}) is notified that a change happened to this model.
    */
   protected void notifyListeners(boolean wasActiveChange) {
+    if (!support.hasListeners(STATE_CHANGED)) {
+      // nobody is listening, e.g. while the ai searches through the moves of a copied state
+      return;
+    }
+
     support.firePropertyChange(STATE_CHANGED, null, this);
     if (wasActiveChange) {
       support.firePropertyChange(NEW_MOVE, null, this);
@@ -82,6 +87,7 @@ public class Reversi implements Model {
    */
   public synchronized void setState(GameState state) {
     this.state = state;
+    moveHistory.clear();
     notifyListeners(false);
   }
 
@@ -92,6 +98,7 @@ public class Reversi implements Model {
 
   synchronized void newGame(Boolean notifyClient) {
     state = new GameState(new GameField());
+    moveHistory.clear();
 
     notifyListeners(notifyClient);
   }
@@ -139,18 +146,28 @@ public class Reversi implements Model {
       return false;
     }
 
-    // get all possible moves for the current player
-    Set<Cell> possibleMoves = getPossibleMovesForPlayer(currentPlayer);
-    if (!possibleMoves.contains(to)) {
+    // check the move against all possible moves for the current player
+    int index = to.index();
+    long possibleMoves = getPossibleMoveMask(currentPlayer);
+    if ((possibleMoves & (1L << index)) == 0) {
       return false;
     }
 
-    // clone the state and record it
-    stateHistory.push(state.makeCopy());
+    GameField field = state.getField();
+    long flips =
+        Bitboard.flips(
+            index,
+            field.getDisksOf(currentPlayer),
+            field.getDisksOf(Player.getOpponentOf(currentPlayer)));
 
-    state.getField().set(to, new Disk(currentPlayer));
-    flipDisks(to, currentPlayer);
+    // record what is needed to take back the move, instead of cloning the whole state
+    moveHistory.push(state.recordMove(index, flips));
+
+    field.place(currentPlayer, index, flips);
     state.setDiskCount(currentPlayer, state.getDiskCount(currentPlayer) - 1);
+    if (moveObserver != null) {
+      moveObserver.movePlayed(currentPlayer, index, flips);
+    }
 
     Player nextPlayer = Player.getOpponentOf(currentPlayer);
     if (!checkForWinningCondition()) {
@@ -177,12 +194,12 @@ public class Reversi implements Model {
     if (!canExecuteMove(Player.BLACK) || !canExecuteMove(Player.WHITE)) {
       // one of the players is not able to make a move anymore, so the game is over and the player
       // with more disks wins the game.
-      Set<Cell> blackDisks = state.getAllCellsOfPlayer(Player.BLACK);
-      Set<Cell> whiteDisks = state.getAllCellsOfPlayer(Player.WHITE);
+      int blackDisks = state.getDiskCountOnField(Player.BLACK);
+      int whiteDisks = state.getDiskCountOnField(Player.WHITE);
 
-      if (whiteDisks.size() > blackDisks.size()) {
+      if (whiteDisks > blackDisks) {
         setGameFinished(Optional.of(Player.WHITE));
-      } else if (blackDisks.size() > whiteDisks.size()) {
+      } else if (blackDisks > whiteDisks) {
         setGameFinished(Optional.of(Player.BLACK));
       } else {
         setGameFinished(Optional.empty());
@@ -193,233 +210,34 @@ public class Reversi implements Model {
     return false;
   }
 
-  @Override
-  public synchronized void undoMove() {
-    state = stateHistory.pop();
-    notifyListeners(true);
-  }
-
-  /**
-   * According to the reversi rules after a move to a given cell by a given player, change the
-   * player for disks of opponent.
-   *
-   * @param cell The cell the player moved to.
-   * @param player The player that moved.
-   */
-  private void flipDisks(Cell cell, Player player) {
-    Set<List<Cell>> straightLineCells = new HashSet<>();
-    straightLineCells.addAll(cellsHorizontalOf(cell));
-    straightLineCells.addAll(cellsVerticalOf(cell));
-    straightLineCells.addAll(cellsDiagonalOf(cell));
-
-    List<Cell> disksToFlip = new ArrayList<>();
-
-    for (List<Cell> list : straightLineCells) {
-      if (!list.isEmpty() && checkFullyInterrupted(list, player)) {
-        disksToFlip.addAll(cutListAt(player, list));
-      }
-    }
-
-    for (Cell c : disksToFlip) {
-      state.getField().set(c, new Disk(player));
-    }
-  }
-
   /**
-   * Cut a list of cells at the first instance of a given player (including the cell with the disk
-   * of the player on).
+   * Checks whether there is a move that can be taken back with {@link #undoMove()}.
    *
-   * @param player The player to cut the list at.
-   * @param list The list of cells to cut.
-   * @return the given list but cut at the first instance of the given player.
+   * @return <code>true</code> if a move was played since the game was set up, <code>false</code>
+   *     otherwise.
    */
-  private List<Cell> cutListAt(Player player, List<Cell> list) {
-    List<Cell> newList = new ArrayList<>();
-
-    for (Cell cell : list) {
-      if (state.getField().get(cell).isPresent()
-          && state.getField().get(cell).get().getPlayer().equals(player)) {
-        break;
-      } else {
-        newList.add(cell);
-      }
-    }
-    return newList;
-  }
-
-  /**
-   * Check whether a list of cells is fully interrupted by disks of opponent of given player before
-   * the first disk of the given player.
-   *
-   * @param list The list to check for.
-   * @param player The player to check for.
-   * @return @return <code>true</code> if the list is fully interrupted before the first disk of
-   *     player, <code>false</code> otherwise.
-   */
-  private boolean checkFullyInterrupted(List<Cell> list, Player player) {
-
-    if (state.getField().get(list.get(0)).isEmpty()
-        || state.getField().get(list.get(0)).get().getPlayer().equals(player)) {
-      return false;
-    }
-
-    for (Cell cell : list) {
-      if (state.getField().get(cell).isEmpty()) {
-        return false;
-      } else {
-        if (state.getField().get(cell).get().getPlayer().equals(player)) {
-          return true;
-        }
-      }
-    }
-    return false;
+  synchronized boolean hasMoveToUndo() {
+    return !moveHistory.isEmpty();
   }
 
-  /**
-   * Return a set of lists of cells that that hold cells diagonal of the given cell(upper-right,
-   * upper-left, lower-left, lower-right of cell) ordered from closest to given cell to furthest to
-   * given cell.
-   *
-   * @param cell The cell to build the set for.
-   * @return A set of lists of cells that are diagonal of given cell.
-   */
-  private Set<List<Cell>> cellsDiagonalOf(Cell cell) {
-    List<Cell> disksUpperRight = new ArrayList<>();
-
-    for (int i = 1; i < GameField.SIZE; i++) {
-      Cell c = new Cell(cell.getColumn() + i, cell.getRow() + i);
-
-      if (!GameField.isWithinBounds(c)) {
-        break;
-      }
-
-      disksUpperRight.add(c);
-    }
-
-    List<Cell> disksUpperLeft = new ArrayList<>();
-
-    for (int i = 1; i < GameField.SIZE; i++) {
-      Cell c = new Cell(cell.getColumn() - i, cell.getRow() + i);
-
-      if (!GameField.isWithinBounds(c)) {
-        break;
-      }
-
-      disksUpperLeft.add(c);
-    }
-
-    List<Cell> disksLowerRight = new ArrayList<>();
-
-    for (int i = 1; i < GameField.SIZE; i++) {
-      Cell c = new Cell(cell.getColumn() + i, cell.getRow() - i);
-
-      if (!GameField.isWithinBounds(c)) {
-        break;
-      }
-
-      disksLowerRight.add(c);
-    }
-
-    List<Cell> disksLowerLeft = new ArrayList<>();
-
-    for (int i = 1; i < GameField.SIZE; i++) {
-      Cell c = new Cell(cell.getColumn() - i, cell.getRow() - i);
-
-      if (!GameField.isWithinBounds(c)) {
-        break;
-      }
-
-      disksLowerLeft.add(c);
+  @Override
+  public synchronized void undoMove() {
+    MoveRecord move = moveHistory.pop();
+    state.undoMove(move);
+    if (moveObserver != null) {
+      moveObserver.moveUndone(move.player, move.index, move.flips);
     }
-
-    Set<List<Cell>> disksDiagonal = new HashSet<>();
-
-    disksDiagonal.add(disksUpperRight);
-    disksDiagonal.add(disksUpperLeft);
-    disksDiagonal.add(disksLowerRight);
-    disksDiagonal.add(disksLowerLeft);
-
-    return disksDiagonal;
+    notifyListeners(true);
   }
 
   /**
-   * Return a set of lists of cells that that hold cells vertical of the given cell(forward, behind
-   * of cell) ordered from closest to given cell to furthest to given cell.
+   * Sets the observer that is told about every move that is played or taken back. The observer
+   * isn't told about a new state, e.g. after {@link #newGame()} or {@link #setState(GameState)}.
    *
-   * @param cell The cell to build the set for.
-   * @return A set of lists of cells that are vertical of given cell.
+   * @param observer The observer of the moves, or <code>null</code> to remove it.
    */
-  private Set<List<Cell>> cellsVerticalOf(Cell cell) {
-    Set<List<Cell>> disksVertical = new HashSet<>();
-
-    List<Cell> disksForward = new ArrayList<>();
-
-    for (int i = 1; i < GameField.SIZE; i++) {
-      Cell c = new Cell(cell.getColumn(), cell.getRow() + i);
-
-      if (!GameField.isWithinBounds(c)) {
-        break;
-      }
-
-      disksForward.add(c);
-    }
-
-    List<Cell> disksBehind = new ArrayList<>();
-
-    for (int i = 1; i < GameField.SIZE; i++) {
-      Cell c = new Cell(cell.getColumn(), cell.getRow() - i);
-
-      if (!GameField.isWithinBounds(c)) {
-        break;
-      }
-
-      disksBehind.add(c);
-    }
-
-    disksVertical.add(disksForward);
-    disksVertical.add(disksBehind);
-
-    return disksVertical;
-  }
-
-  /**
-   * Return a set of lists of cells that that hold cells horizontal of the given cell(right, left of
-   * cell) ordered from closest to given cell to furthest to given cell.
-   *
-   * @param cell The cell to build the set for.
-   * @return A set of lists of cells that are horizontal of given cell.
-   */
-  private Set<List<Cell>> cellsHorizontalOf(Cell cell) {
-    Set<List<Cell>> disksHorizontal = new HashSet<>();
-
-    List<Cell> disksRight = new ArrayList<>();
-
-    for (int i = 1; i < GameField.SIZE; i++) {
-      Cell c = new Cell(cell.getColumn() + i, cell.getRow());
-
-      if (!GameField.isWithinBounds(c)) {
-        break;
-      }
-
-      disksRight.add(c);
-    }
-
-    List<Cell> disksLeft = new ArrayList<>();
-
-    for (int i = 1; i < GameField.SIZE; i++) {
-      Cell c = new Cell(cell.getColumn() - i, cell.getRow());
-
-      if (!GameField.isWithinBounds(c)) {
-        break;
-      }
-
-      disksLeft.add(c);
-    }
-
-    disksHorizontal.add(disksRight);
-    disksHorizontal.add(disksLeft);
-
-    return disksHorizontal;
+  public synchronized void setMoveObserver(MoveObserver observer) {
+    moveObserver = observer;
   }
 
   /**
@@ -445,127 +263,53 @@ public class Reversi implements Model {
    * @return <code>true</code> if player is able to move, <code>false</code> otherwise.
    */
   private boolean canExecuteMove(Player player) {
-    Set<Cell> possibleMoves = getPossibleMovesForPlayer(player);
-    return !possibleMoves.isEmpty();
+    return getPossibleMoveMask(player) != 0;
   }
 
   @Override
   public synchronized Set<Cell> getPossibleMovesForPlayer(Player player) {
+    return new CellSet(getPossibleMoveMask(player));
+  }
+
+  /**
+   * Computes all possible moves for a player as a bitboard, in which every set bit stands for a
+   * cell the player may move to (see {@link Bitboard} for the layout of the bits).
+   *
+   * @param player The {@link Player player} to compute all possible moves for.
+   * @return A mask with one bit set for each possible move of the player.
+   */
+  public synchronized long getPossibleMoveMask(Player player) {
+    return getPossibleMoveMask(state, player);
+  }
+
+  /**
+   * Computes all possible moves for a player in the given state, without wrapping the state in a
+   * {@link Reversi} instance, e.g. for rating many states in a search.
+   *
+   * @param gameState The state to compute the possible moves in.
+   * @param player The {@link Player player} to compute all possible moves for.
+   * @return A mask with one bit set for each possible move of the player.
+   */
+  public static long getPossibleMoveMask(GameState gameState, Player player) {
     if (player != Player.WHITE && player != Player.BLACK) {
       throw new IllegalArgumentException("Unhandled player: " + player);
     }
 
-    // if the player doesn't have any disks left then return an empty set as the player can't make
-    // any more moves
-    if (state.getDiskCount(player) <= 0) {
-      return new HashSet<>();
-    }
-
-    // in the first four moves the middle four empty cells are possible moves
-    if (state.getDiskCount(player) > Player.DISK_COUNT_START - 2) {
-      return state.getField().getMiddleFourEmptyCells();
+    // if the player doesn't have any disks left then there are no possible moves, as the player
+    // can't make any more moves
+    if (gameState.getDiskCount(player) <= 0) {
+      return 0L;
     }
 
-    Set<Cell> possibleMoves = new HashSet<>();
-
-    // a disk should only be able to be set on empty cells, so go through all of the empty cells of
-    // the board and check whether a move to the cell fulfills the other reversi rules
-    for (Cell cell : state.getField().getEmptyCells()) {
-      // a disk should only be able to be placed on a cell that has an opposite disk on one of the
-      // adjacent cells
-      boolean hasAdjacentOppositeDisk = false;
-      // a disk should only be able to be set on a cell that has at least one straight path to a
-      // disk of player that is fully interrupted by disks of opponent
-      boolean pathInterrupted = false;
-
-      Cell forward = new Cell(cell.getColumn(), cell.getRow() + 1);
-      Cell backward = new Cell(cell.getColumn(), cell.getRow() - 1);
-      Cell right = new Cell(cell.getColumn() + 1, cell.getRow());
-      Cell left = new Cell(cell.getColumn() - 1, cell.getRow());
-      Cell diagonallyForwardRight = new Cell(cell.getColumn() + 1, cell.getRow() + 1);
-      Cell diagonallyForwardLeft = new Cell(cell.getColumn() - 1, cell.getRow() + 1);
-      Cell diagonallyBackwardRight = new Cell(cell.getColumn() + 1, cell.getRow() - 1);
-      Cell diagonallyBackwardLeft = new Cell(cell.getColumn() - 1, cell.getRow() - 1);
-
-      // checks the current empty cell if there is a disk of the opposite player on one of the
-      // adjacent cells, if there is set hasAdjacentOppositeDisk to true
-      if ((GameField.isWithinBounds(forward)
-              && state.getField().get(forward).isPresent()
-              && state
-                  .getField()
-                  .get(forward)
-                  .get()
-                  .getPlayer()
-                  .equals(Player.getOpponentOf(player)))
-          || (GameField.isWithinBounds(backward)
-              && state.getField().get(backward).isPresent()
-              && state
-                  .getField()
-                  .get(backward)
-                  .get()
-                  .getPlayer()
-                  .equals(Player.getOpponentOf(player)))
-          || (GameField.isWithinBounds(right)
-              && state.getField().get(right).isPresent()
-              && state.getField().get(right).get().getPlayer().equals(Player.getOpponentOf(player)))
-          || (GameField.isWithinBounds(left)
-              && state.getField().get(left).isPresent()
-              && state.getField().get(left).get().getPlayer().equals(Player.getOpponentOf(player)))
-          || (GameField.isWithinBounds(diagonallyForwardRight)
-              && state.getField().get(diagonallyForwardRight).isPresent()
-              && state
-                  .getField()
-                  .get(diagonallyForwardRight)
-                  .get()
-                  .getPlayer()
-                  .equals(Player.getOpponentOf(player)))
-          || (GameField.isWithinBounds(diagonallyForwardLeft)
-              && state.getField().get(diagonallyForwardLeft).isPresent()
-              && state
-                  .getField()
-                  .get(diagonallyForwardLeft)
-                  .get()
-                  .getPlayer()
-                  .equals(Player.getOpponentOf(player)))
-          || (GameField.isWithinBounds(diagonallyBackwardRight)
-              && state.getField().get(diagonallyBackwardRight).isPresent()
-              && state
-                  .getField()
-                  .get(diagonallyBackwardRight)
-                  .get()
-                  .getPlayer()
-                  .equals(Player.getOpponentOf(player)))
-          || (GameField.isWithinBounds(diagonallyBackwardLeft)
-              && state.getField().get(diagonallyBackwardLeft).isPresent()
-              && state
-                  .getField()
-                  .get(diagonallyBackwardLeft)
-                  .get()
-                  .getPlayer()
-                  .equals(Player.getOpponentOf(player)))) {
-        hasAdjacentOppositeDisk = true;
-      }
+    GameField field = gameState.getField();
+    long own = field.getDisksOf(player);
+    long opponent = field.getDisksOf(Player.getOpponentOf(player));
 
-      Set<List<Cell>> straightLineCells = new HashSet<>();
-      straightLineCells.addAll(cellsHorizontalOf(cell));
-      straightLineCells.addAll(cellsVerticalOf(cell));
-      straightLineCells.addAll(cellsDiagonalOf(cell));
-
-      // go through every straight line (list of cells) and check the straight line condition
-      // if one fulfills it, then set pathInterrupted to true and stop the for loop and continue
-      for (List<Cell> list : straightLineCells) {
-        if (!list.isEmpty() && checkFullyInterrupted(list, player)) {
-          pathInterrupted = true;
-          break;
-        }
-      }
-
-      // if an empty cell fulfills both of the tested requirements then it is a possible move
-      if (hasAdjacentOppositeDisk && pathInterrupted) {
-        possibleMoves.add(cell);
-      }
+    // in the first four moves the middle four empty cells are possible moves
+    if (gameState.getDiskCount(player) > Player.DISK_COUNT_START - 2) {
+      return Bitboard.MIDDLE_FOUR_CELLS & ~(own | opponent);
     }
 
-    return possibleMoves;
+    return Bitboard.possibleMoves(own, opponent);
   }
 }
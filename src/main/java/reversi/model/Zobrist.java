@@ -0,0 +1,88 @@
+package reversi.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Provides the random keys for Zobrist hashing of reversi positions. The hash of a position is the
+ * XOR of one key per disk on the board, depending on its cell and its owner, and an additional key
+ * if {@link Player#WHITE} is to move. Thus, a move changes the hash by XOR-ing the keys of the
+ * changed cells only, and two positions reached by different move orders share the same hash.
+ *
+ * <p>The keys are generated from a fixed seed, so hashes are the same in every run of the program
+ * and may be stored in files or sent over the network.
+ */
+public final class Zobrist {
+
+  private static final long SEED = 0x5EED_2020_0126_0001L;
+
+  private static final long[] WHITE_KEYS = new long[GameField.SIZE * GameField.SIZE];
+  private static final long[] BLACK_KEYS = new long[GameField.SIZE * GameField.SIZE];
+
+  /**
+   * The keys for flipping the disk on a cell, i.e. the XOR of the keys of both players. Flipping a
+   * disk in either direction changes the hash by the same value.
+   */
+  private static final long[] FLIP_KEYS = new long[GameField.SIZE * GameField.SIZE];
+
+  /**
+   * The key that is part of the hash if {@link Player#WHITE} is to move.
+   */
+  static final long WHITE_TO_MOVE;
+
+  static {
+    SplittableRandom random = new SplittableRandom(SEED);
+    for (int index = 0; index < WHITE_KEYS.length; index++) {
+      WHITE_KEYS[index] = random.nextLong();
+      BLACK_KEYS[index] = random.nextLong();
+      FLIP_KEYS[index] = WHITE_KEYS[index] ^ BLACK_KEYS[index];
+    }
+    WHITE_TO_MOVE = random.nextLong();
+  }
+
+  private Zobrist() {
+    // not meant to be instantiated
+  }
+
+  /**
+   * Computes the hash of a position from scratch.
+   *
+   * @param whiteDisks The bitboard of the white disks.
+   * @param blackDisks The bitboard of the black disks.
+   * @param playerToMove The player that is to move.
+   * @return The hash of the position.
+   */
+  public static long hash(long whiteDisks, long blackDisks, Player playerToMove) {
+    long hash = hashDisks(Player.WHITE, whiteDisks) ^ hashDisks(Player.BLACK, blackDisks);
+    return playerToMove == Player.WHITE ? hash ^ WHITE_TO_MOVE : hash;
+  }
+
+  /**
+   * Return the XOR of the keys of all disks of a player.
+   *
+   * @param player The owner of the disks.
+   * @param disks The bitboard of the disks.
+   * @return The combined key of the disks.
+   */
+  static long hashDisks(Player player, long disks) {
+    long[] keys = player == Player.WHITE ? WHITE_KEYS : BLACK_KEYS;
+    long hash = 0L;
+    for (long rest = disks; rest != 0; rest &= rest - 1) {
+      hash ^= keys[Long.numberOfTrailingZeros(rest)];
+    }
+    return hash;
+  }
+
+  /**
+   * Return the change of the hash if all given disks are flipped to the other player.
+   *
+   * @param flips The bitboard of the flipped disks.
+   * @return The combined flip key of the disks.
+   */
+  static long hashFlips(long flips) {
+    long hash = 0L;
+    for (long rest = flips; rest != 0; rest &= rest - 1) {
+      hash ^= FLIP_KEYS[Long.numberOfTrailingZeros(rest)];
+    }
+    return hash;
+  }
+}
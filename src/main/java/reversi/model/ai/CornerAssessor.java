@@ -18,6 +18,13 @@ import reversi.model.Player;
  */
 public class CornerAssessor implements StateAssessor {
 
+  private static final Cell[] CORNER_CELLS = {
+    Cell.of(0, 0),
+    Cell.of(0, GameField.SIZE - 1),
+    Cell.of(GameField.SIZE - 1, 0),
+    Cell.of(GameField.SIZE - 1, GameField.SIZE - 1)
+  };
+
   @Override
   public double computeValue(GameState state, Player minPlayer, int depth) {
     assert minPlayer == Player.BLACK; // minPlayer is the human player
@@ -25,14 +32,7 @@ public class CornerAssessor implements StateAssessor {
     int aiCorner = 0;
     int humanCorner = 0;
 
-    Cell[] cornerCells = {
-      new Cell(0, 0),
-      new Cell(0, GameField.SIZE - 1),
-      new Cell(GameField.SIZE - 1, 0),
-      new Cell(GameField.SIZE - 1, GameField.SIZE - 1)
-    };
-
-    for (Cell cornerCell : cornerCells) {
+    for (Cell cornerCell : CORNER_CELLS) {
       if (state.getField().get(cornerCell).isPresent()
               && state.getField().get(cornerCell).get().getPlayer() == Player.WHITE) {
         aiCorner++;
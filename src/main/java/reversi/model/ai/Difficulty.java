@@ -0,0 +1,132 @@
+package reversi.model.ai;
+
+/**
+ * Named levels of the ai, which trade its strength for the time it takes per move. Every level
+ * creates a {@link MinimaxAlgorithm} with its own {@link Evaluator}, {@link SearchLimits} and
+ * number of empty cells from which on the game is solved exactly, and the stronger levels play the
+ * early game from an {@link OpeningBook}.
+ */
+public enum Difficulty {
+
+  /** Plays the move that flips the most disks, without looking further ahead. */
+  EASY(
+      Evaluator.DISK_COUNT,
+      new SearchLimits(1, SearchLimits.NO_LIMIT, SearchLimits.NO_LIMIT),
+      0,
+      false,
+      false),
+
+  /**
+   * Looks three moves ahead, which is the default of {@link reversi.model.AiReversi}.
+   */
+  MEDIUM(
+      Evaluator.REVERSI,
+      new SearchLimits(
+          MinimaxAlgorithm.DEFAULT_MAX_DEPTH, SearchLimits.NO_LIMIT, SearchLimits.NO_LIMIT),
+      EndgameSolver.DEFAULT_MAX_EMPTIES,
+      false,
+      false),
+
+  /**
+   * Searches as deep as it can within a second, rating the positions with pattern tables. The moves
+   * of the early game are taken from the {@link OpeningBook#getDefault() default opening book}.
+   */
+  HARD(
+      Evaluator.PATTERN,
+      new SearchLimits(SearchLimits.NO_LIMIT, SearchLimits.NO_LIMIT, 1000),
+      EndgameSolver.DEFAULT_MAX_EMPTIES,
+      true,
+      false),
+
+  /**
+   * Like {@link #HARD}, but with three seconds per move and all processors of the machine. The last
+   * 15 empty cells are solved, which takes well below the half of the time the solver may use.
+   */
+  EXPERT(
+      Evaluator.PATTERN,
+      new SearchLimits(SearchLimits.NO_LIMIT, SearchLimits.NO_LIMIT, 3000),
+      15,
+      true,
+      true);
+
+  private final Evaluator evaluator;
+  private final SearchLimits searchLimits;
+  private final int endgameEmpties;
+  private final boolean openingBook;
+  private final boolean allProcessors;
+
+  Difficulty(
+      Evaluator evaluator,
+      SearchLimits searchLimits,
+      int endgameEmpties,
+      boolean openingBook,
+      boolean allProcessors) {
+    this.evaluator = evaluator;
+    this.searchLimits = searchLimits;
+    this.endgameEmpties = endgameEmpties;
+    this.openingBook = openingBook;
+    this.allProcessors = allProcessors;
+  }
+
+  /**
+   * Return the assessor of the positions at this level.
+   *
+   * @return the evaluator.
+   */
+  public Evaluator getEvaluator() {
+    return evaluator;
+  }
+
+  /**
+   * Return the budget of a search at this level.
+   *
+   * @return the search limits.
+   */
+  public SearchLimits getSearchLimits() {
+    return searchLimits;
+  }
+
+  /**
+   * Return the number of empty cells from which on the game is solved exactly at this level.
+   *
+   * @return the number of empty cells, or zero if the game is never solved.
+   */
+  public int getEndgameEmpties() {
+    return endgameEmpties;
+  }
+
+  /**
+   * Return whether the moves of the early game are taken from the {@link OpeningBook#getDefault()
+   * default opening book} at this level.
+   *
+   * @return <code>true</code> if the engines of this level use the opening book.
+   */
+  public boolean usesOpeningBook() {
+    return openingBook;
+  }
+
+  /**
+   * Return the number of threads a search at this level runs with.
+   *
+   * @return the number of threads.
+   */
+  public int getThreadCount() {
+    return allProcessors ? Runtime.getRuntime().availableProcessors() : 1;
+  }
+
+  /**
+   * Creates a new engine that plays at this level. An engine should only be used for one game at a
+   * time.
+   *
+   * @return the engine.
+   */
+  public Engine createEngine() {
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(
+            evaluator.createAssessor(), searchLimits, getThreadCount(), endgameEmpties);
+    if (openingBook) {
+      minimax.setOpeningBook(OpeningBook.getDefault());
+    }
+    return minimax;
+  }
+}
@@ -1,7 +1,5 @@
 package reversi.model.ai;
 
-import java.util.Set;
-import reversi.model.Cell;
 import reversi.model.GameState;
 import reversi.model.Player;
 
@@ -19,9 +17,9 @@ public class DiskCountAssessor implements StateAssessor {
   public double computeValue(GameState state, Player minPlayer, int depth) {
     assert minPlayer == Player.BLACK; // minPlayer is the human player
 
-    Set<Cell> aiCells = state.getAllCellsOfPlayer(Player.WHITE); // ai player
-    Set<Cell> humanCells = state.getAllCellsOfPlayer(Player.BLACK); // human player
+    int aiDisks = state.getDiskCountOnField(Player.WHITE); // ai player
+    int humanDisks = state.getDiskCountOnField(Player.BLACK); // human player
 
-    return aiCells.size() - humanCells.size();
+    return aiDisks - humanDisks;
   }
 }
@@ -0,0 +1,464 @@
+package reversi.model.ai;
+
+import java.util.function.BooleanSupplier;
+import reversi.model.Bitboard;
+import reversi.model.Cell;
+import reversi.model.GameField;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+
+/**
+ * Solves the end of a reversi game exactly, i.e. it finds the move with the best final disk
+ * difference for the player to move, assuming perfect play of both players. Unlike the {@link
+ * MinimaxAlgorithm} it doesn't assess any positions, but searches every line up to the end of the
+ * game, so it is only feasible for the last few empty cells.
+ *
+ * <p>The solver works on the bitboards of both players directly. As in {@link
+ * reversi.model.Reversi}, the game ends as soon as one of the players can't move, and the player
+ * with more disks on the field wins. The players move alternately, so the only player that ever
+ * runs out of disks is {@link Player#BLACK}, who places its last disk when a single cell is left
+ * empty. That cell is never played, and the disks left don't have to be tracked otherwise.
+ *
+ * <p>Moves are ordered to find cutoffs early: with many empty cells by the mobility they leave to
+ * the opponent (fastest first), and otherwise by the parity of the quadrants, preferring quadrants
+ * with an odd number of empty cells. The last empty cells are solved by specialised routines that
+ * test the empty cells directly instead of generating all moves.
+ */
+public class EndgameSolver {
+
+  /** The default number of empty cells from which on the game is solved exactly. */
+  public static final int DEFAULT_MAX_EMPTIES = 12;
+
+  /** The score of a position in which the player to move wins, in the win/loss/draw mode. */
+  public static final int WIN = 1;
+
+  /** The score of a drawn position. */
+  public static final int DRAW = 0;
+
+  /** The score of a position in which the player to move loses, in the win/loss/draw mode. */
+  public static final int LOSS = -1;
+
+  private static final int CELL_COUNT = GameField.SIZE * GameField.SIZE;
+
+  /** A score that is lower than every possible disk difference. */
+  private static final int INFINITY = CELL_COUNT + 1;
+
+  /** The number of empty cells from which on moves are ordered by the mobility of the opponent. */
+  private static final int FASTEST_FIRST_EMPTIES = 7;
+
+  /** The number of empty cells at which the game is over, as black has placed all its disks. */
+  private static final int FINAL_EMPTIES = 1;
+
+  private static final int NODES_PER_CHECK = 4096;
+
+  /** The four quadrants of the board, for the parity of the empty cells. */
+  private static final long[] QUADRANTS = new long[4];
+
+  static {
+    for (int index = 0; index < CELL_COUNT; index++) {
+      int column = index / GameField.SIZE;
+      int row = index % GameField.SIZE;
+      int quadrant = (column < GameField.SIZE / 2 ? 0 : 2) + (row < GameField.SIZE / 2 ? 0 : 1);
+      QUADRANTS[quadrant] |= 1L << index;
+    }
+  }
+
+  private final boolean exact;
+
+  // buffers per number of empty cells, which is distinct for every ply of the search
+  private final int[][] moveBuffers = new int[CELL_COUNT + 1][CELL_COUNT];
+  private final long[][] flipBuffers = new long[CELL_COUNT + 1][CELL_COUNT];
+  private final int[][] scoreBuffers = new int[CELL_COUNT + 1][CELL_COUNT];
+
+  private BooleanSupplier stopCondition;
+  private boolean aborted;
+  private long nodes;
+  private long elapsedNanos;
+  private int score;
+
+  /** Creates a solver that computes the exact final disk difference. */
+  public EndgameSolver() {
+    this(true);
+  }
+
+  /**
+   * Creates a new solver.
+   *
+   * @param exact <code>true</code> to compute the exact final disk difference, <code>false</code>
+   *     to only find out whether the game is won, lost or drawn, which is considerably faster.
+   */
+  public EndgameSolver(boolean exact) {
+    this.exact = exact;
+  }
+
+  /**
+   * Solves the given state and returns the best move for the player to move.
+   *
+   * @param gameState The state to solve, which is not changed.
+   * @return The best move, or <code>null</code> if the game is already over.
+   */
+  public Cell determineCell(GameState gameState) {
+    return determineCell(gameState, () -> false);
+  }
+
+  /**
+   * Solves the given state and returns the best move for the player to move. The solver asks the
+   * given condition regularly whether it has to stop, in which case no move is returned.
+   *
+   * @param gameState The state to solve, which is not changed.
+   * @param stopCondition Returns <code>true</code> if the solver has to stop.
+   * @return The best move, or <code>null</code> if the game is already over or the solver was
+   *     stopped.
+   */
+  public Cell determineCell(GameState gameState, BooleanSupplier stopCondition) {
+    if (gameState.getCurrentPhase() == Phase.FINISHED) {
+      return null;
+    }
+
+    this.stopCondition = stopCondition;
+    aborted = false;
+    nodes = 0;
+
+    Player player = gameState.getCurrentPlayer();
+    long own = gameState.getDisksOnField(player);
+    long opponent = gameState.getDisksOnField(Player.getOpponentOf(player));
+    long start = System.nanoTime();
+    int bestMove = solveRoot(own, opponent);
+
+    elapsedNanos = System.nanoTime() - start;
+    return aborted || bestMove < 0 ? null : Cell.ofIndex(bestMove);
+  }
+
+  /**
+   * Return the score of the last solved state for the player to move: the final disk difference,
+   * or {@link #WIN}, {@link #DRAW} or {@link #LOSS} if the solver doesn't compute exact scores.
+   *
+   * @return the score of the best move.
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Return the number of positions visited while solving the last state.
+   *
+   * @return the number of nodes.
+   */
+  public long getNodeCount() {
+    return nodes;
+  }
+
+  /**
+   * Return the throughput of the solver for the last solved state.
+   *
+   * @return the number of nodes per second.
+   */
+  public double getNodesPerSecond() {
+    return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+  }
+
+  private int solveRoot(long own, long opponent) {
+    long possibleMoves = Bitboard.possibleMoves(own, opponent);
+    int emptyCount = Long.bitCount(~(own | opponent));
+    int moveCount = orderMoves(own, opponent, possibleMoves, emptyCount);
+    int[] moves = moveBuffers[emptyCount];
+    long[] flips = flipBuffers[emptyCount];
+
+    // without exact scores, a window around zero tells wins, draws and losses apart
+    int alpha = exact ? -INFINITY : LOSS;
+    int beta = exact ? INFINITY : WIN;
+    int bestMove = -1;
+    int bestValue = -INFINITY;
+
+    for (int i = 0; i < moveCount && !aborted; i++) {
+      int value = -solveAfterMove(own, opponent, moves[i], flips[i], -beta, -alpha);
+      if (value > bestValue) {
+        bestValue = value;
+        bestMove = moves[i];
+      }
+      alpha = Math.max(alpha, value);
+      if (alpha >= beta) {
+        break;
+      }
+    }
+
+    score = exact ? bestValue : Integer.signum(bestValue);
+    return bestMove;
+  }
+
+  /**
+   * Solves the position after the player to move placed a disk, from the view of the opponent.
+   *
+   * @return the score for the opponent, who is the player to move after the move.
+   */
+  private int solveAfterMove(long own, long opponent, int move, long flips, int alpha, int beta) {
+    long ownAfter = own | flips | (1L << move);
+    long opponentAfter = opponent & ~flips;
+    if (Long.bitCount(~(ownAfter | opponentAfter)) <= FINAL_EMPTIES) {
+      return diskDifference(opponentAfter, ownAfter);
+    }
+
+    long opponentMoves = Bitboard.possibleMoves(opponentAfter, ownAfter);
+    if (opponentMoves == 0 || Bitboard.possibleMoves(ownAfter, opponentAfter) == 0) {
+      return diskDifference(opponentAfter, ownAfter);
+    }
+    return solve(opponentAfter, ownAfter, opponentMoves, alpha, beta);
+  }
+
+  /**
+   * Searches a position in which both players are able to move.
+   *
+   * @param own The disks of the player to move.
+   * @param opponent The disks of the opponent.
+   * @param possibleMoves The moves of the player to move, which are not empty.
+   * @param alpha The score the player to move is already guaranteed.
+   * @param beta The score the opponent is already guaranteed, negated.
+   * @return The score for the player to move.
+   */
+  private int solve(long own, long opponent, long possibleMoves, int alpha, int beta) {
+    if (++nodes % NODES_PER_CHECK == 0 && !aborted) {
+      aborted = stopCondition.getAsBoolean();
+    }
+    if (aborted) {
+      return 0;
+    }
+
+    long empty = ~(own | opponent);
+    int emptyCount = Long.bitCount(empty);
+    if (emptyCount <= 4) {
+      return solveLastEmpties(own, opponent, empty, emptyCount, alpha, beta);
+    }
+
+    int moveCount = orderMoves(own, opponent, possibleMoves, emptyCount);
+    int[] moves = moveBuffers[emptyCount];
+    long[] flips = flipBuffers[emptyCount];
+
+    int bestValue = -INFINITY;
+    for (int i = 0; i < moveCount; i++) {
+      int value = -solveAfterMove(own, opponent, moves[i], flips[i], -beta, -alpha);
+      if (value > bestValue) {
+        bestValue = value;
+        if (value > alpha) {
+          alpha = value;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    return bestValue;
+  }
+
+  /**
+   * Writes the possible moves and their flips into the buffers of the given number of empty cells,
+   * ordered from the most to the least promising move.
+   *
+   * @return The number of moves.
+   */
+  private int orderMoves(long own, long opponent, long possibleMoves, int emptyCount) {
+    int[] moves = moveBuffers[emptyCount];
+    long[] flips = flipBuffers[emptyCount];
+    int[] scores = scoreBuffers[emptyCount];
+    long oddQuadrants = oddQuadrants(~(own | opponent));
+
+    int count = 0;
+    for (long mask = possibleMoves; mask != 0; mask &= mask - 1) {
+      int move = Long.numberOfTrailingZeros(mask);
+      long bit = 1L << move;
+      long moveFlips = Bitboard.flips(move, own, opponent);
+
+      // lower scores are searched first
+      int moveScore = (oddQuadrants & bit) != 0 ? 0 : 1;
+      if (emptyCount >= FASTEST_FIRST_EMPTIES) {
+        long ownAfter = own | moveFlips | bit;
+        long opponentMoves = Bitboard.possibleMoves(opponent & ~moveFlips, ownAfter);
+        moveScore += 2 * Long.bitCount(opponentMoves);
+      }
+
+      // insertion sort, which keeps moves with equal scores in their natural order
+      int position = count++;
+      while (position > 0 && scores[position - 1] > moveScore) {
+        moves[position] = moves[position - 1];
+        flips[position] = flips[position - 1];
+        scores[position] = scores[position - 1];
+        position--;
+      }
+      moves[position] = move;
+      flips[position] = moveFlips;
+      scores[position] = moveScore;
+    }
+    return count;
+  }
+
+  /**
+   * Solves a position with two to four empty cells, in which both players are able to move. The
+   * empty cells in quadrants with an odd number of empty cells are tried first.
+   */
+  private int solveLastEmpties(
+      long own, long opponent, long empty, int emptyCount, int alpha, int beta) {
+    long odd = empty & oddQuadrants(empty);
+    long even = empty & ~odd;
+    int[] squares = moveBuffers[0];
+    int count = 0;
+    for (long mask = odd; mask != 0; mask &= mask - 1) {
+      squares[count++] = Long.numberOfTrailingZeros(mask);
+    }
+    for (long mask = even; mask != 0; mask &= mask - 1) {
+      squares[count++] = Long.numberOfTrailingZeros(mask);
+    }
+
+    switch (emptyCount) {
+      case 2:
+        return solve2(own, opponent, squares[0], squares[1]);
+      case 3:
+        return solve3(own, opponent, beta, squares[0], squares[1], squares[2]);
+      case 4:
+        return solve4(own, opponent, alpha, beta, squares[0], squares[1], squares[2], squares[3]);
+      default:
+        throw new AssertionError("Unhandled number of empty cells: " + emptyCount);
+    }
+  }
+
+  /** Solves the last move of the game, which leaves a single cell empty. */
+  private int solve2(long own, long opponent, int square1, int square2) {
+    nodes++;
+    int bestValue = -INFINITY;
+
+    long flips = Bitboard.flips(square1, own, opponent);
+    if (flips != 0) {
+      bestValue = diskDifference(own | flips | (1L << square1), opponent & ~flips);
+    }
+    flips = Bitboard.flips(square2, own, opponent);
+    if (flips != 0) {
+      int value = diskDifference(own | flips | (1L << square2), opponent & ~flips);
+      bestValue = Math.max(bestValue, value);
+    }
+    return bestValue;
+  }
+
+  /**
+   * Solves a position with three empty cells. The moves are unrolled over the cells, like those of
+   * {@link #solve4}, so that the innermost nodes of the solver don't allocate.
+   */
+  private int solve3(long own, long opponent, int beta, int square1, int square2, int square3) {
+    nodes++;
+    int bestValue = solve3Move(own, opponent, square1, square2, square3);
+    if (bestValue >= beta) {
+      return bestValue;
+    }
+    bestValue = Math.max(bestValue, solve3Move(own, opponent, square2, square1, square3));
+    if (bestValue >= beta) {
+      return bestValue;
+    }
+    return Math.max(bestValue, solve3Move(own, opponent, square3, square1, square2));
+  }
+
+  /**
+   * Rates the move to the given cell, which leaves two other cells empty.
+   *
+   * @return the value of the move, or <code>-INFINITY</code> if it isn't possible.
+   */
+  private int solve3Move(long own, long opponent, int square, int other1, int other2) {
+    long flips = Bitboard.flips(square, own, opponent);
+    if (flips == 0) {
+      return -INFINITY;
+    }
+
+    long ownAfter = own | flips | (1L << square);
+    long opponentAfter = opponent & ~flips;
+    if ((canMove(opponentAfter, ownAfter, other1) || canMove(opponentAfter, ownAfter, other2))
+        && (canMove(ownAfter, opponentAfter, other1) || canMove(ownAfter, opponentAfter, other2))) {
+      return -solve2(opponentAfter, ownAfter, other1, other2);
+    }
+    return diskDifference(ownAfter, opponentAfter);
+  }
+
+  /** Solves a position with four empty cells. */
+  private int solve4(
+      long own,
+      long opponent,
+      int alpha,
+      int beta,
+      int square1,
+      int square2,
+      int square3,
+      int square4) {
+    nodes++;
+    // the remaining cells keep their order
+    int bestValue = solve4Move(own, opponent, alpha, beta, square1, square2, square3, square4);
+    if (bestValue >= beta) {
+      return bestValue;
+    }
+    alpha = Math.max(alpha, bestValue);
+    bestValue =
+        Math.max(
+            bestValue, solve4Move(own, opponent, alpha, beta, square2, square1, square3, square4));
+    if (bestValue >= beta) {
+      return bestValue;
+    }
+    alpha = Math.max(alpha, bestValue);
+    bestValue =
+        Math.max(
+            bestValue, solve4Move(own, opponent, alpha, beta, square3, square1, square2, square4));
+    if (bestValue >= beta) {
+      return bestValue;
+    }
+    alpha = Math.max(alpha, bestValue);
+    return Math.max(
+        bestValue, solve4Move(own, opponent, alpha, beta, square4, square1, square2, square3));
+  }
+
+  /**
+   * Rates the move to the given cell, which leaves three other cells empty.
+   *
+   * @return the value of the move, or <code>-INFINITY</code> if it isn't possible.
+   */
+  private int solve4Move(
+      long own,
+      long opponent,
+      int alpha,
+      int beta,
+      int square,
+      int other1,
+      int other2,
+      int other3) {
+    long flips = Bitboard.flips(square, own, opponent);
+    if (flips == 0) {
+      return -INFINITY;
+    }
+
+    long ownAfter = own | flips | (1L << square);
+    long opponentAfter = opponent & ~flips;
+    long remaining = ~(ownAfter | opponentAfter);
+    if ((Bitboard.possibleMoves(opponentAfter, ownAfter) & remaining) != 0
+        && (Bitboard.possibleMoves(ownAfter, opponentAfter) & remaining) != 0) {
+      return -solve3(opponentAfter, ownAfter, -alpha, other1, other2, other3);
+    }
+    return diskDifference(ownAfter, opponentAfter);
+  }
+
+  private static boolean canMove(long own, long opponent, int square) {
+    return Bitboard.flips(square, own, opponent) != 0;
+  }
+
+  private static int diskDifference(long own, long opponent) {
+    return Long.bitCount(own) - Long.bitCount(opponent);
+  }
+
+  /**
+   * Return the cells of all quadrants that contain an odd number of empty cells.
+   *
+   * @param empty The empty cells.
+   * @return The mask of the odd quadrants.
+   */
+  private static long oddQuadrants(long empty) {
+    long odd = 0L;
+    for (long quadrant : QUADRANTS) {
+      if ((Long.bitCount(empty & quadrant) & 1) != 0) {
+        odd |= quadrant;
+      }
+    }
+    return odd;
+  }
+}
@@ -0,0 +1,55 @@
+package reversi.model.ai;
+
+import java.util.List;
+import reversi.model.Cell;
+import reversi.model.GameState;
+
+/**
+ * A search that computes the moves of the ai-player, e.g. the {@link MinimaxAlgorithm} or the
+ * {@link MonteCarloTreeSearch}. An engine keeps whatever it learned about the game between the
+ * calls of {@link #determineCell(GameState)}, so the same instance should be used for all moves of
+ * one game. Engines for a given cost and strength are created by a {@link Difficulty}.
+ */
+public interface Engine extends AutoCloseable {
+
+  /**
+   * Computes the move for the player to move in the given state. The state isn't changed.
+   *
+   * @param gameState The current {@link GameState} of the reversi application.
+   * @return The cell to move to, or <code>null</code> if the game is already over or the search was
+   *     stopped before it found a move.
+   */
+  Cell determineCell(GameState gameState);
+
+  /**
+   * Return the line of moves both players are expected to play after the last call of {@link
+   * #determineCell(GameState)}, starting with the determined cell.
+   *
+   * @return the cells of the expected moves, in the order they are played.
+   */
+  List<Cell> getPrincipalVariation();
+
+  /**
+   * Return the budget of a single search of this engine.
+   *
+   * @return the search limits.
+   */
+  SearchLimits getSearchLimits();
+
+  /**
+   * Stops the search that is currently running on another thread, which then returns the best move
+   * found so far. Has no effect on searches started later. Interrupting the thread that runs {@link
+   * #determineCell(GameState)} stops the search as well, even if it didn't start yet.
+   */
+  void stop();
+
+  /**
+   * Stops the search that is currently running and ends the threads of this engine, if it has any
+   * besides the one calling {@link #determineCell(GameState)}. The engine must not search anymore
+   * afterwards.
+   */
+  @Override
+  default void close() {
+    stop();
+  }
+}
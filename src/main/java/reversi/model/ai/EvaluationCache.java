@@ -0,0 +1,131 @@
+package reversi.model.ai;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table that stores the ratings of positions by a {@link StateAssessor}, so that
+ * a position that is rated again, e.g. by the search of the next move, doesn't have to be assessed
+ * again. Positions are identified by their {@link reversi.model.GameState#getZobristKey() Zobrist
+ * hash}, which includes the player to move.
+ *
+ * <p>The cache is lossy: it consists of a power-of-two number of entries, and a new rating always
+ * replaces the one in its entry. Only ratings that don't depend on the depth of the search may be
+ * stored, i.e. ratings of running games.
+ *
+ * <p>Like the {@link TranspositionTable}, the cache is read and written without locks. Every entry
+ * stores its key XOR-ed with the rating, so an entry that was torn by concurrent writes simply
+ * doesn't match any key and is treated as a miss. The statistics aren't synchronized either, so
+ * they are only approximate while several threads share the cache.
+ */
+public class EvaluationCache {
+
+  private static final int LONGS_PER_ENTRY = 2;
+  private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+  private static final int BYTES_PER_MEGABYTE = 1 << 20;
+
+  /** Per entry: the key XOR-ed with the rating as raw bits, and the rating as raw bits. */
+  private final long[] table;
+  private final int entryMask;
+
+  private long probes;
+  private long hits;
+
+  /**
+   * Creates a new evaluation cache that uses at most the given amount of memory. The number of
+   * entries is rounded down to a power of two.
+   *
+   * @param sizeInMegabytes The maximum size of the cache in megabytes, at least one.
+   */
+  public EvaluationCache(int sizeInMegabytes) {
+    if (sizeInMegabytes < 1) {
+      throw new IllegalArgumentException("Size must be at least one megabyte: " + sizeInMegabytes);
+    }
+
+    long maxEntries = (long) sizeInMegabytes * BYTES_PER_MEGABYTE / BYTES_PER_ENTRY;
+    int entries = Integer.highestOneBit((int) Math.min(maxEntries, 1 << 27));
+    table = new long[entries * LONGS_PER_ENTRY];
+    entryMask = entries - 1;
+  }
+
+  /** Removes all ratings from the cache and resets its statistics. */
+  public void clear() {
+    Arrays.fill(table, 0L);
+    probes = 0;
+    hits = 0;
+  }
+
+  /**
+   * Looks up the rating of a position.
+   *
+   * @param key The hash of the position.
+   * @return The stored rating, or {@link Double#NaN} if the position isn't in the cache.
+   */
+  public double probe(long key) {
+    probes++;
+    int slot = slotOf(key);
+    long check = table[slot];
+    long valueBits = table[slot + 1];
+
+    // an empty entry is all zero, so it only matches a key of zero, which is treated as a miss
+    if ((check ^ valueBits) == key && check != 0) {
+      hits++;
+      return Double.longBitsToDouble(valueBits);
+    }
+    return Double.NaN;
+  }
+
+  /**
+   * Stores the rating of a position, replacing the rating of any other position in its entry.
+   *
+   * @param key The hash of the position.
+   * @param value The rating of the position, not {@link Double#NaN}.
+   */
+  public void store(long key, double value) {
+    assert !Double.isNaN(value) : "NaN marks a missing rating";
+
+    int slot = slotOf(key);
+    long valueBits = Double.doubleToLongBits(value);
+    table[slot] = key ^ valueBits;
+    table[slot + 1] = valueBits;
+  }
+
+  /**
+   * Return the share of probes that found their position in the cache.
+   *
+   * @return the hit rate, from 0 to 1.
+   */
+  public double getHitRate() {
+    return probes == 0 ? 0 : (double) hits / probes;
+  }
+
+  /**
+   * Return the number of lookups since the cache was created or cleared.
+   *
+   * @return the number of probes.
+   */
+  public long getProbes() {
+    return probes;
+  }
+
+  /**
+   * Return the number of lookups that found their position.
+   *
+   * @return the number of hits.
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Return the number of ratings the cache can hold.
+   *
+   * @return the capacity of the cache.
+   */
+  public int getCapacity() {
+    return table.length / LONGS_PER_ENTRY;
+  }
+
+  private int slotOf(long key) {
+    return ((int) (key >>> 32 ^ key) & entryMask) * LONGS_PER_ENTRY;
+  }
+}
@@ -0,0 +1,39 @@
+package reversi.model.ai;
+
+import java.util.function.Supplier;
+
+/**
+ * The assessors a {@link MinimaxAlgorithm} can rate the positions at the end of a search with.
+ */
+public enum Evaluator {
+
+  /**
+   * Rates the difference of the disks on the field only, see {@link DiskCountAssessor}.
+   */
+  DISK_COUNT(DiskCountAssessor::new),
+
+  /**
+   * Rates disks, corners, mobility and the weights of the cells, see {@link ReversiAssessor}.
+   */
+  REVERSI(ReversiAssessor::new),
+
+  /**
+   * Looks up the contents of patterns of cells in tables, see {@link PatternAssessor}.
+   */
+  PATTERN(PatternAssessor::new);
+
+  private final Supplier<StateAssessor> factory;
+
+  Evaluator(Supplier<StateAssessor> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Creates a new assessor of this kind.
+   *
+   * @return the assessor.
+   */
+  public StateAssessor createAssessor() {
+    return factory.get();
+  }
+}
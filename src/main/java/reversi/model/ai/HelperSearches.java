@@ -0,0 +1,52 @@
+package reversi.model.ai;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Joins the searches that the helper threads of an engine run beside the thread calling {@link
+ * Engine#determineCell(reversi.model.GameState)}. A search shares its tree or its workers with the
+ * next one, so none of the helpers may outlive the search that started it.
+ */
+final class HelperSearches {
+
+  private HelperSearches() {
+    // not meant to be instantiated
+  }
+
+  /**
+   * Waits until all given searches are done, even if the calling thread is interrupted, in which
+   * case its interrupt status is restored afterwards. The searches must have been told to stop
+   * before, since they aren't cancelled.
+   *
+   * @param searches The searches of the helper threads.
+   * @throws IllegalStateException if a search failed.
+   */
+  static void awaitAll(List<Future<?>> searches) {
+    boolean interrupted = false;
+    Throwable failure = null;
+    for (Future<?> search : searches) {
+      while (true) {
+        try {
+          search.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause();
+          }
+          break;
+        }
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      throw new IllegalStateException("Search of a helper thread failed", failure);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package reversi.model.ai;
+
+import reversi.model.GameState;
+import reversi.model.Player;
+
+/**
+ * An assessor that can read the parts of its rating that only depend on the disks on the field
+ * from an {@link IncrementalEvaluation}, instead of computing them from the whole field. The
+ * rating has to be exactly the same as the one of {@link #computeValue(GameState, Player, int)}.
+ */
+public interface IncrementalAssessor extends StateAssessor {
+
+  /**
+   * Rates the given state like {@link #computeValue(GameState, Player, int)}, with the help of an
+   * evaluation that is up to date with the state.
+   *
+   * @param evaluation The evaluation of the disks on the field of the state.
+   * @param state The current {@link GameState} that is to be rated.
+   * @param minPlayer The player for which the lowest-possible score is computed.
+   * @param depth The amount of moves already made for reaching this state.
+   * @return a double-value that is the rating of the current state.
+   */
+  double computeValue(
+      IncrementalEvaluation evaluation, GameState state, Player minPlayer, int depth);
+}
@@ -0,0 +1,217 @@
+package reversi.model.ai;
+
+import java.util.Arrays;
+import reversi.model.GameField;
+import reversi.model.GameState;
+import reversi.model.MoveObserver;
+import reversi.model.Player;
+
+/**
+ * The parts of the rating of a position that only depend on the disks on the field, kept up to
+ * date while moves are played and taken back. A move only changes the cell of the new disk and the
+ * flipped cells, so the evaluation is updated from these cells instead of being computed again
+ * from the whole field. An {@link IncrementalAssessor} then rates a position by a handful of
+ * additions.
+ *
+ * <p>The evaluation keeps the number of disks on the field, the differences between the disks,
+ * the corners and the {@link WeightAssessor static weights} of {@link Player#WHITE} and {@link
+ * Player#BLACK}, and the index of every placement of the {@link Pattern patterns} of the {@link
+ * PatternAssessor}. It has to observe all moves of the {@link reversi.model.Reversi} instance whose
+ * state it rates, see {@link reversi.model.Reversi#setMoveObserver(MoveObserver)}.
+ */
+public class IncrementalEvaluation implements MoveObserver {
+
+  private static final int CELL_COUNT = GameField.SIZE * GameField.SIZE;
+
+  private static final int[] CELL_WEIGHTS = new int[CELL_COUNT];
+
+  // per cell, the placements of the patterns that contain the cell, and the value of its digit
+  private static final int[][] CELL_PLACEMENTS = new int[CELL_COUNT][];
+  private static final int[][] CELL_POWERS = new int[CELL_COUNT][];
+
+  static {
+    int[][] staticWeights = new WeightAssessor().staticWeights;
+    int[][] placements = new int[CELL_COUNT][PatternAssessor.PLACEMENT_COUNT];
+    int[][] powers = new int[CELL_COUNT][PatternAssessor.PLACEMENT_COUNT];
+    int[] counts = new int[CELL_COUNT];
+
+    int placementIndex = 0;
+    for (Pattern pattern : Pattern.ALL) {
+      for (int[] placement : pattern.getPlacements()) {
+        int power = 1;
+        for (int cell : placement) {
+          placements[cell][counts[cell]] = placementIndex;
+          powers[cell][counts[cell]++] = power;
+          power *= 3;
+        }
+        placementIndex++;
+      }
+    }
+
+    for (int index = 0; index < CELL_COUNT; index++) {
+      CELL_WEIGHTS[index] = staticWeights[index / GameField.SIZE][index % GameField.SIZE];
+      CELL_PLACEMENTS[index] = Arrays.copyOf(placements[index], counts[index]);
+      CELL_POWERS[index] = Arrays.copyOf(powers[index], counts[index]);
+    }
+  }
+
+  private final int[] patternIndices = new int[PatternAssessor.PLACEMENT_COUNT];
+  private int diskCount;
+  private int diskDifference;
+  private int cornerDifference;
+  private int weightSum;
+
+  /**
+   * Creates a new evaluation of the given state.
+   *
+   * @param gameState The state to evaluate.
+   */
+  public IncrementalEvaluation(GameState gameState) {
+    reset(gameState);
+  }
+
+  /**
+   * Computes the evaluation of the given state from the whole field, e.g. after a new state was
+   * set on the observed {@link reversi.model.Reversi} instance.
+   *
+   * @param gameState The state to evaluate.
+   */
+  public void reset(GameState gameState) {
+    long white = gameState.getDisksOnField(Player.WHITE);
+    long black = gameState.getDisksOnField(Player.BLACK);
+
+    diskCount = Long.bitCount(white | black);
+    diskDifference = Long.bitCount(white) - Long.bitCount(black);
+    long corners = ReversiAssessor.CORNERS;
+    cornerDifference = Long.bitCount(white & corners) - Long.bitCount(black & corners);
+    weightSum = sumWeights(white) - sumWeights(black);
+
+    int placementIndex = 0;
+    for (Pattern pattern : Pattern.ALL) {
+      for (int[] placement : pattern.getPlacements()) {
+        patternIndices[placementIndex++] = Pattern.indexOf(placement, white, black);
+      }
+    }
+  }
+
+  @Override
+  public void movePlayed(Player player, int index, long flips) {
+    update(player, index, flips, 1);
+  }
+
+  @Override
+  public void moveUndone(Player player, int index, long flips) {
+    update(player, index, flips, -1);
+  }
+
+  /**
+   * Adds or removes the changes of a move.
+   *
+   * @param player The player that made the move.
+   * @param index The cell of the new disk.
+   * @param flips The disks that were flipped to the player.
+   * @param direction One if the move was played, minus one if it was taken back.
+   */
+  private void update(Player player, int index, long flips, int direction) {
+    // the differences are seen from white
+    int sign = player == Player.WHITE ? direction : -direction;
+    int flipCount = Long.bitCount(flips);
+    diskCount += direction;
+    diskDifference += sign * (1 + 2 * flipCount);
+    cornerDifference +=
+        sign
+            * (Long.bitCount(1L << index & ReversiAssessor.CORNERS)
+                + 2 * Long.bitCount(flips & ReversiAssessor.CORNERS));
+
+    // the digits of the patterns are 1 (white) and 2 (black)
+    int placedDigit = player == Player.WHITE ? direction : 2 * direction;
+    int flippedDigit = -sign;
+    int weights = CELL_WEIGHTS[index];
+    updatePatterns(index, placedDigit);
+    for (long mask = flips; mask != 0; mask &= mask - 1) {
+      int flipped = Long.numberOfTrailingZeros(mask);
+      weights += 2 * CELL_WEIGHTS[flipped];
+      updatePatterns(flipped, flippedDigit);
+    }
+    weightSum += sign * weights;
+  }
+
+  private void updatePatterns(int index, int digitChange) {
+    int[] placements = CELL_PLACEMENTS[index];
+    int[] powers = CELL_POWERS[index];
+    for (int i = 0; i < placements.length; i++) {
+      patternIndices[placements[i]] += digitChange * powers[i];
+    }
+  }
+
+  private static int sumWeights(long disks) {
+    int sum = 0;
+    for (long mask = disks; mask != 0; mask &= mask - 1) {
+      sum += CELL_WEIGHTS[Long.numberOfTrailingZeros(mask)];
+    }
+    return sum;
+  }
+
+  /**
+   * Return the number of disks on the field.
+   *
+   * @return the disk count.
+   */
+  public int getDiskCount() {
+    return diskCount;
+  }
+
+  /**
+   * Return the number of disks of white minus the number of disks of black.
+   *
+   * @return the disk difference.
+   */
+  public int getDiskDifference() {
+    return diskDifference;
+  }
+
+  /**
+   * Return the number of corners of white minus the number of corners of black.
+   *
+   * @return the corner difference.
+   */
+  public int getCornerDifference() {
+    return cornerDifference;
+  }
+
+  /**
+   * Return the sum of the static weights of the disks of white minus the sum of black.
+   *
+   * @return the weight sum.
+   */
+  public int getWeightSum() {
+    return weightSum;
+  }
+
+  /**
+   * Return the index of the contents of a placement of a pattern, in the order of the patterns and
+   * their placements.
+   *
+   * @param placement The number of the placement, below {@link PatternAssessor#PLACEMENT_COUNT}.
+   * @return the index of the contents in base 3.
+   */
+  int getPatternIndex(int placement) {
+    return patternIndices[placement];
+  }
+
+  /**
+   * Checks whether this evaluation is the same as one computed from the whole field of the given
+   * state, e.g. for debugging the updates.
+   *
+   * @param gameState The state this evaluation should evaluate.
+   * @return <code>true</code> if all values are the same, <code>false</code> otherwise.
+   */
+  public boolean matches(GameState gameState) {
+    IncrementalEvaluation full = new IncrementalEvaluation(gameState);
+    return diskCount == full.diskCount
+        && diskDifference == full.diskDifference
+        && cornerDifference == full.cornerDifference
+        && weightSum == full.weightSum
+        && Arrays.equals(patternIndices, full.patternIndices);
+  }
+}
@@ -1,159 +1,684 @@
 package reversi.model.ai;
 
-import static reversi.model.Player.getOpponentOf;
-
-import java.util.Comparator;
-import java.util.Set;
-import java.util.TreeSet;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 import reversi.model.Cell;
+import reversi.model.GameField;
 import reversi.model.GameState;
-import reversi.model.Model;
 import reversi.model.Phase;
 import reversi.model.Player;
-import reversi.model.Reversi;
 
 /**
  * An implementation of the minimax algorithm. It allows to compute a move for the reversi game, in
  * which the potential loss in a worst-case-scenario is minimized. This means for the ai-player
  * ({@link Player#WHITE}) that it takes the best possible move out of all potential moves that the
  * opponent ({@link Player#BLACK} has forced upon the ai-player.
+ *
+ * <p>The search is a principal variation search in negamax form with alpha-beta pruning. Only the
+ * positions at the end of the search are assessed, and besides the best move the search also
+ * yields the {@link #getPrincipalVariation() principal variation}.
+ *
+ * <p>Positions of the early game are looked up in an {@link OpeningBook}, if one is set. Once only
+ * a few cells are left empty, the game is solved exactly by an {@link EndgameSolver}
+ * instead, which plays the move with the best final disk difference.
+ *
+ * <p>If the assessor is an {@link IncrementalAssessor}, the positions are rated with an {@link
+ * IncrementalEvaluation} that every worker keeps up to date while it plays and takes back the
+ * moves of its search. With assertions enabled, every such rating is checked against the rating
+ * computed from the whole field.
+ *
+ * <p>The ratings of running games are kept in an {@link EvaluationCache} that is shared by all
+ * workers and kept between the calls of {@link #determineCell(GameState)}, as the searches of
+ * consecutive moves rate many of the same positions.
+ *
+ * <p>Every search counts its nodes, evaluations and cutoffs, which can be summed up in a {@link
+ * SearchReport} afterwards and logged after every search if {@link #setReportLogging(boolean)
+ * enabled}.
  */
-public class MinimaxAlgorithm {
+public class MinimaxAlgorithm implements Engine {
+
+  private static final Logger LOGGER = Logger.getLogger(MinimaxAlgorithm.class.getName());
+
+  /** The default maximum depth of a search, i.e. the number of moves to look ahead. */
+  public static final int DEFAULT_MAX_DEPTH = 3;
 
-  private static final int LOOK_AHEAD = 3;
+  /** The default size of the transposition table, in megabytes. */
+  public static final int DEFAULT_TABLE_SIZE = 16;
 
-  private final StateAssessor assessor;
+  /** The size of the evaluation cache, in megabytes. */
+  public static final int EVALUATION_CACHE_SIZE = 4;
 
-  private Model reversi;
-  private Cell savedCell;
-  private Player maxPlayer; // the AI player
-  private Player minPlayer; // the human player
+  /** Value for the time and node budgets of a search that are not limited. */
+  public static final long NO_LIMIT = 0;
+
+  /**
+   * The endgame solver may take up to one in this many parts of the time and node budget of a
+   * search, so that the regular search has the rest if the solver doesn't finish.
+   */
+  private static final int ENDGAME_BUDGET_SHARE = 2;
+
+  private final TranspositionTable table;
+  private final EvaluationCache evaluationCache;
+  private final EndgameSolver endgameSolver;
+  private final int endgameEmpties;
+  private final int maxDepth;
+  private final long timeLimit;
+  private final long nodeLimit;
+
+  /** The workers of the search, of which the first one runs on the calling thread. */
+  private final SearchWorker[] workers;
+
+  /** The threads of all other workers, or <code>null</code> if there is only one worker. */
+  private final ExecutorService helpers;
+
+  private final AtomicLong nodes = new AtomicLong();
+  private volatile OpeningBook openingBook;
+  private volatile boolean incrementalEvaluation = true;
+  private volatile boolean evaluationCaching = true;
+  private volatile boolean reportLogging;
+  private volatile boolean stopped;
+  private long deadline;
+  private long endgameDeadline;
+  private long endgameNodes;
+  private int depthLimit;
+  private int rootDisks = -1;
+
+  // the statistics of the tables before the current search and its duration
+  private long tableProbes;
+  private long tableHits;
+  private long cacheProbes;
+  private long cacheHits;
+  private long elapsedNanos;
+
+  // the result of the current search, guarded by this
+  private List<Cell> principalVariation = Collections.emptyList();
+  private double score;
+  private int completedDepth;
 
   /**
    * Creates a new instance of the {@link MinimaxAlgorithm}, in which the assessment of each {@link
    * GameState} is predefined by a given set of {@link ReversiAssessor rules}.
    */
   public MinimaxAlgorithm() {
-    assessor = new ReversiAssessor();
+    this(DEFAULT_MAX_DEPTH, NO_LIMIT, NO_LIMIT, DEFAULT_TABLE_SIZE);
   }
 
   /**
-   * Computes a possible move for the current {@link GameState}, which is done by an underlying
-   * minimax-algorithm. This method works only if the phase of the game is not yet set to {@link
-   * Phase#FINISHED finished}.
+   * Creates a new instance of the {@link MinimaxAlgorithm} with a transposition table of the given
+   * size. The table is kept between the calls of {@link #determineCell(GameState)}, so results of
+   * previous searches can be reused.
    *
-   * @param gameState The current {@link GameState} of the reversi application.
-   * @return A {@link Cell} that contains the computed target-cell.
+   * @param tableSize The size of the transposition table in megabytes.
    */
-  public Cell determineCell(GameState gameState) {
-    if (gameState.getCurrentPhase() == Phase.FINISHED) {
-      return null;
-    }
+  public MinimaxAlgorithm(int tableSize) {
+    this(DEFAULT_MAX_DEPTH, NO_LIMIT, NO_LIMIT, tableSize);
+  }
 
-    // create a new reversi instance with a reference to this gameState,
-    // so that we get access to methods like move(), undoMove(), etc.
-    reversi = new Reversi(gameState);
+  /**
+   * Creates a new instance of the {@link MinimaxAlgorithm} that searches with iterative deepening,
+   * i.e. it searches one move deeper after each other until either the maximum depth is reached or
+   * one of the budgets runs out. The move of the deepest completed search is taken, while the first
+   * search with a depth of one is always completed.
+   *
+   * @param maxDepth The maximum number of moves to look ahead, at least one.
+   * @param timeLimit The time budget of a single search in milliseconds, or {@link #NO_LIMIT}.
+   * @param nodeLimit The maximum number of positions a single search visits, or {@link #NO_LIMIT}.
+   * @param tableSize The size of the transposition table in megabytes.
+   */
+  public MinimaxAlgorithm(int maxDepth, long timeLimit, long nodeLimit, int tableSize) {
+    this(maxDepth, timeLimit, nodeLimit, tableSize, 1);
+  }
 
-    savedCell = null;
-    maxPlayer = gameState.getCurrentPlayer();
-    minPlayer = getOpponentOf(maxPlayer);
-    double alpha = -Double.MAX_VALUE;
-    double beta = Double.MIN_VALUE;
-    max(maxPlayer, 0, alpha, beta);
+  /**
+   * Creates a new instance of the {@link MinimaxAlgorithm} that searches with the given number of
+   * threads. All threads search the same position with iterative deepening and share the
+   * transposition table, while every other helper thread starts one move deeper (lazy SMP). The
+   * move of the deepest search that was completed by any thread is taken.
+   *
+   * <p>The helper threads are daemon threads that are kept for the lifetime of the algorithm.
+   *
+   * @param maxDepth The maximum number of moves to look ahead, at least one.
+   * @param timeLimit The time budget of a single search in milliseconds, or {@link #NO_LIMIT}.
+   * @param nodeLimit The maximum number of positions a single search visits over all threads, or
+   *     {@link #NO_LIMIT}.
+   * @param tableSize The size of the transposition table in megabytes.
+   * @param threads The number of threads that search in parallel, at least one.
+   */
+  public MinimaxAlgorithm(
+      int maxDepth, long timeLimit, long nodeLimit, int tableSize, int threads) {
+    this(maxDepth, timeLimit, nodeLimit, tableSize, threads, EndgameSolver.DEFAULT_MAX_EMPTIES);
+  }
 
-    return savedCell;
+  /**
+   * Creates a new instance of the {@link MinimaxAlgorithm} that solves the game exactly as soon as
+   * at most the given number of cells are empty. The solver respects the budgets of the search; if
+   * it can't finish in time, the move is determined by the regular search.
+   *
+   * @param maxDepth The maximum number of moves to look ahead, at least one.
+   * @param timeLimit The time budget of a single search in milliseconds, or {@link #NO_LIMIT}.
+   * @param nodeLimit The maximum number of positions a single search visits over all threads, or
+   *     {@link #NO_LIMIT}.
+   * @param tableSize The size of the transposition table in megabytes.
+   * @param threads The number of threads that search in parallel, at least one.
+   * @param endgameEmpties The number of empty cells from which on the game is solved, or zero to
+   *     never solve it.
+   */
+  public MinimaxAlgorithm(
+      int maxDepth,
+      long timeLimit,
+      long nodeLimit,
+      int tableSize,
+      int threads,
+      int endgameEmpties) {
+    this(new ReversiAssessor(), maxDepth, timeLimit, nodeLimit, tableSize, threads, endgameEmpties);
   }
 
-  private double max(Player player, int currentDepth, double alpha, double beta) {
-    double currentStateScore = assessor.computeValue(reversi.getState(), minPlayer, currentDepth);
+  /**
+   * Creates a new instance of the {@link MinimaxAlgorithm} with the given assessor and budget, e.g.
+   * the ones of a {@link Difficulty}. Without a maximum depth, the search is only limited by the
+   * number of empty cells.
+   *
+   * @param assessor The assessor of the positions.
+   * @param limits The budget of a single search, of which at least one limit should be set.
+   * @param threads The number of threads that search in parallel, at least one.
+   * @param endgameEmpties The number of empty cells from which on the game is solved, or zero to
+   *     never solve it.
+   */
+  public MinimaxAlgorithm(
+      StateAssessor assessor, SearchLimits limits, int threads, int endgameEmpties) {
+    this(
+        assessor,
+        limits.getMaxDepth() == SearchLimits.NO_LIMIT
+            ? GameField.SIZE * GameField.SIZE
+            : limits.getMaxDepth(),
+        limits.getMaxMillis(),
+        limits.getMaxNodes(),
+        DEFAULT_TABLE_SIZE,
+        threads,
+        endgameEmpties);
+  }
 
-    if (reversi.getState().getCurrentPhase() == Phase.FINISHED || currentDepth >= LOOK_AHEAD) {
-      return currentStateScore;
+  /**
+   * Creates a new instance of the {@link MinimaxAlgorithm} that rates the positions at the end of
+   * the search with the given assessor instead of the {@link ReversiAssessor}, e.g. with a {@link
+   * PatternAssessor}. The assessor is shared by all threads, so it must not keep any state.
+   *
+   * @param assessor The assessor of the positions.
+   * @param maxDepth The maximum number of moves to look ahead, at least one.
+   * @param timeLimit The time budget of a single search in milliseconds, or {@link #NO_LIMIT}.
+   * @param nodeLimit The maximum number of positions a single search visits over all threads, or
+   *     {@link #NO_LIMIT}.
+   * @param tableSize The size of the transposition table in megabytes.
+   * @param threads The number of threads that search in parallel, at least one.
+   * @param endgameEmpties The number of empty cells from which on the game is solved, or zero to
+   *     never solve it.
+   */
+  public MinimaxAlgorithm(
+      StateAssessor assessor,
+      int maxDepth,
+      long timeLimit,
+      long nodeLimit,
+      int tableSize,
+      int threads,
+      int endgameEmpties) {
+    requireNonNull(assessor);
+    if (maxDepth < 1) {
+      throw new IllegalArgumentException("Max depth must be at least one: " + maxDepth);
+    }
+    if (timeLimit < 0 || nodeLimit < 0) {
+      throw new IllegalArgumentException("Budgets must not be negative");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be at least one: " + threads);
+    }
+    if (endgameEmpties < 0) {
+      throw new IllegalArgumentException("Endgame empties must not be negative: " + endgameEmpties);
     }
 
-    if (reversi.getState().getCurrentPlayer() != player) {
-      // player skipped
-      return max(getOpponentOf(player), currentDepth + 1, alpha, beta) + currentStateScore;
+    table = new TranspositionTable(tableSize);
+    evaluationCache = new EvaluationCache(EVALUATION_CACHE_SIZE);
+    endgameSolver = new EndgameSolver();
+    this.endgameEmpties = endgameEmpties;
+    this.maxDepth = maxDepth;
+    this.timeLimit = timeLimit;
+    this.nodeLimit = nodeLimit;
+
+    workers = new SearchWorker[threads];
+    for (int i = 0; i < threads; i++) {
+      workers[i] = new SearchWorker(this, assessor, table, evaluationCache);
     }
+    helpers =
+        threads == 1
+            ? null
+            : Executors.newFixedThreadPool(
+                threads - 1,
+                runnable -> {
+                  Thread thread = new Thread(runnable, "reversi-search-helper");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+  }
 
-    double maxValue = -Double.MAX_VALUE;
-    Cell currentBestCell = null;
+  @Override
+  public SearchLimits getSearchLimits() {
+    return new SearchLimits(maxDepth, nodeLimit, timeLimit);
+  }
 
-    Set<Cell> targetCells = new TreeSet<>(Comparator.naturalOrder());
-    targetCells.addAll(reversi.getPossibleMovesForPlayer(player));
+  /**
+   * Return the transposition table of this algorithm, e.g. for reading its hit and cutoff rates.
+   *
+   * @return the transposition table.
+   */
+  public TranspositionTable getTranspositionTable() {
+    return table;
+  }
 
-    for (Cell targetCell : targetCells) {
-      reversi.move(targetCell);
+  /**
+   * Return the cache of the ratings of this algorithm, e.g. for reading its hit rate.
+   *
+   * @return the evaluation cache.
+   */
+  public EvaluationCache getEvaluationCache() {
+    return evaluationCache;
+  }
 
-      double value = min(getOpponentOf(player), currentDepth + 1, alpha, beta) + currentStateScore;
+  /**
+   * Return the solver of the last empty cells, e.g. for reading its throughput.
+   *
+   * @return the endgame solver.
+   */
+  public EndgameSolver getEndgameSolver() {
+    return endgameSolver;
+  }
 
-      reversi.undoMove();
+  /**
+   * Sets the opening book in which positions are looked up before they are searched.
+   *
+   * @param openingBook The opening book, or <code>null</code> to search every position.
+   */
+  public void setOpeningBook(OpeningBook openingBook) {
+    this.openingBook = openingBook;
+  }
 
-      if (Double.compare(value, maxValue) > 0) {
-        maxValue = value;
-        currentBestCell = targetCell;
-      }
+  /**
+   * Return the opening book in which positions are looked up before they are searched.
+   *
+   * @return the opening book, or <code>null</code> if there is none.
+   */
+  public OpeningBook getOpeningBook() {
+    return openingBook;
+  }
 
-      if (Double.compare(value, alpha) > 0) {
-        alpha = value;
-      }
+  /**
+   * Sets whether the positions are rated with an {@link IncrementalEvaluation}, if the assessor is
+   * an {@link IncrementalAssessor}. The ratings are the same either way, so this is only useful for
+   * measuring the speed of the incremental evaluation. It's enabled by default.
+   *
+   * @param incrementalEvaluation <code>true</code> to update the evaluation with every move, or
+   *     <code>false</code> to rate every position from the whole field.
+   */
+  public void setIncrementalEvaluation(boolean incrementalEvaluation) {
+    this.incrementalEvaluation = incrementalEvaluation;
+  }
 
-      if (Double.compare(alpha, beta) >= 0) {
-        break;
-      }
-    }
+  /**
+   * Return whether the positions are rated with an {@link IncrementalEvaluation}, if the assessor
+   * supports it.
+   *
+   * @return <code>true</code> if the incremental evaluation is enabled.
+   */
+  public boolean isIncrementalEvaluation() {
+    return incrementalEvaluation;
+  }
 
-    if (currentDepth == 0) {
-      savedCell = currentBestCell;
-    }
+  /**
+   * Sets whether the ratings of running games are looked up in and stored to the {@link
+   * EvaluationCache}. The ratings are the same either way, so this is only useful for measuring the
+   * effect of the cache. It's enabled by default.
+   *
+   * @param evaluationCaching <code>true</code> to use the cache, or <code>false</code> to assess
+   *     every position.
+   */
+  public void setEvaluationCaching(boolean evaluationCaching) {
+    this.evaluationCaching = evaluationCaching;
+  }
+
+  /**
+   * Return whether the ratings of running games are looked up in the {@link EvaluationCache}.
+   *
+   * @return <code>true</code> if the cache is used.
+   */
+  public boolean isEvaluationCaching() {
+    return evaluationCaching;
+  }
+
+  /**
+   * Sets whether the {@link #getSearchReport() report} of every search is logged once the search
+   * is done. It's disabled by default.
+   *
+   * @param reportLogging <code>true</code> to log the report of every search, or <code>false</code>
+   *     to keep it quiet.
+   */
+  public void setReportLogging(boolean reportLogging) {
+    this.reportLogging = reportLogging;
+  }
+
+  /**
+   * Return whether the report of every search is logged.
+   *
+   * @return <code>true</code> if the reports are logged.
+   */
+  public boolean isReportLogging() {
+    return reportLogging;
+  }
 
-    return maxValue;
+  /**
+   * Return the number of threads this algorithm searches with.
+   *
+   * @return the number of threads.
+   */
+  public int getThreadCount() {
+    return workers.length;
   }
 
-  private double min(Player player, int currentDepth, double alpha, double beta) {
-    double currentStateScore = assessor.computeValue(reversi.getState(), minPlayer, currentDepth);
+  /**
+   * Return the depth of the deepest search that was completed by the last call of {@link
+   * #determineCell(GameState)}.
+   *
+   * @return the completed depth, or zero if no search was done yet or the move was taken from the
+   *     opening book.
+   */
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
 
-    if (reversi.getState().getCurrentPhase() == Phase.FINISHED || currentDepth >= LOOK_AHEAD) {
-      return currentStateScore;
+  /**
+   * Return the number of positions that were visited by the last call of {@link
+   * #determineCell(GameState)}, over all iterations and threads and including the endgame solver.
+   *
+   * @return the number of nodes.
+   */
+  public long getNodeCount() {
+    long nodes = endgameNodes;
+    for (SearchWorker worker : workers) {
+      nodes += worker.getNodeCount();
     }
+    return nodes;
+  }
 
-    if (reversi.getState().getCurrentPlayer() != player) {
-      // player skipped
-      return min(getOpponentOf(player), currentDepth + 1, alpha, beta) + currentStateScore;
+  /**
+   * Return the number of positions in which the search of the remaining moves could be cut off by
+   * the last call of {@link #determineCell(GameState)}. Together with the {@link #getNodeCount()
+   * node count} this shows how well the moves are ordered.
+   *
+   * @return the number of cutoffs.
+   */
+  public long getCutoffCount() {
+    long cutoffs = 0;
+    for (SearchWorker worker : workers) {
+      cutoffs += worker.getCutoffCount();
     }
+    return cutoffs;
+  }
 
-    double minValue = Double.MAX_VALUE;
-    Cell currentBestCell = null;
+  /**
+   * Return the statistics of the last call of {@link #determineCell(GameState)}, over all threads
+   * and including the endgame solver.
+   *
+   * @return the report of the last search.
+   */
+  public SearchReport getSearchReport() {
+    long evaluations = 0;
+    long firstMoveCutoffs = 0;
+    for (SearchWorker worker : workers) {
+      evaluations += worker.getEvaluationCount();
+      firstMoveCutoffs += worker.getFirstMoveCutoffCount();
+    }
+    return new SearchReport(
+        getCompletedDepth(),
+        getNodeCount(),
+        evaluations,
+        getCutoffCount(),
+        firstMoveCutoffs,
+        rate(table.getHits() - tableHits, table.getProbes() - tableProbes),
+        rate(evaluationCache.getHits() - cacheHits, evaluationCache.getProbes() - cacheProbes),
+        elapsedNanos);
+  }
 
-    Set<Cell> targetCells = new TreeSet<>(Comparator.naturalOrder());
-    targetCells.addAll(reversi.getPossibleMovesForPlayer(player));
+  private static double rate(long hits, long probes) {
+    return probes <= 0 ? 0 : (double) hits / probes;
+  }
+
+  /**
+   * Computes a possible move for the current {@link GameState}, which is done by an underlying
+   * minimax-algorithm. This method works only if the phase of the game is not yet set to {@link
+   * Phase#FINISHED finished}.
+   *
+   * @param gameState The current {@link GameState} of the reversi application.
+   * @return A {@link Cell} that contains the computed target-cell.
+   */
+  @Override
+  public Cell determineCell(GameState gameState) {
+    if (gameState.getCurrentPhase() == Phase.FINISHED) {
+      return null;
+    }
 
-    for (Cell targetCell : targetCells) {
-      reversi.move(targetCell);
+    tableProbes = table.getProbes();
+    tableHits = table.getHits();
+    cacheProbes = evaluationCache.getProbes();
+    cacheHits = evaluationCache.getHits();
+    long start = System.nanoTime();
+    Cell cell = search(gameState);
+    elapsedNanos = System.nanoTime() - start;
+    if (reportLogging) {
+      LOGGER.info(() -> "Search of " + cell + ": " + getSearchReport());
+    }
+    return cell;
+  }
 
-      double value = max(getOpponentOf(player), currentDepth + 1, alpha, beta) + currentStateScore;
+  private Cell search(GameState gameState) {
+    // values depend on the distance to the root, so stored results can only be reused by searches
+    // whose root has the same number of disks on the field, e.g. after pondering
+    int disksOnField = Long.bitCount(occupiedCells(gameState));
+    if (disksOnField != rootDisks) {
+      table.newSearch();
+      rootDisks = disksOnField;
+    }
+    nodes.set(0);
+    endgameNodes = 0;
+    stopped = false;
+    long start = System.nanoTime();
+    deadline = start + TimeUnit.MILLISECONDS.toNanos(timeLimit);
+    endgameDeadline = start + TimeUnit.MILLISECONDS.toNanos(timeLimit) / ENDGAME_BUDGET_SHARE;
+    synchronized (this) {
+      principalVariation = Collections.emptyList();
+      score = 0;
+      completedDepth = 0;
+    }
+
+    // the game can't last longer than there are empty cells
+    int emptyCells = GameField.SIZE * GameField.SIZE - disksOnField;
+    depthLimit = Math.min(maxDepth, Math.max(emptyCells, 1));
 
-      reversi.undoMove();
+    for (SearchWorker worker : workers) {
+      worker.clearStatistics();
+    }
 
-      if (Double.compare(value, minValue) < 0) {
-        minValue = value;
-        currentBestCell = targetCell;
+    OpeningBook book = openingBook;
+    Optional<OpeningBook.Entry> bookEntry =
+        book == null ? Optional.empty() : book.lookup(gameState);
+    if (bookEntry.isPresent()) {
+      Cell cell = bookEntry.get().getMove();
+      synchronized (this) {
+        principalVariation = List.of(cell);
+        score = bookEntry.get().getScore();
       }
+      return cell;
+    }
 
-      if (Double.compare(value, beta) < 0) {
-        beta = value;
+    if (emptyCells <= endgameEmpties) {
+      Cell cell = endgameSolver.determineCell(gameState, this::isEndgameOutOfBudget);
+      endgameNodes = endgameSolver.getNodeCount();
+      // the regular search gets what is left of the node budget
+      nodes.set(endgameNodes);
+      if (cell != null) {
+        synchronized (this) {
+          principalVariation = List.of(cell);
+          score = endgameSolver.getScore();
+          completedDepth = emptyCells;
+        }
+        return cell;
       }
+    }
 
-      if (Double.compare(alpha, beta) >= 0) {
-        break;
+    // a move from the book or the solver needs no workers, so they are only prepared now
+    boolean incremental = incrementalEvaluation;
+    boolean caching = evaluationCaching;
+    for (SearchWorker worker : workers) {
+      worker.prepare(gameState.makeCopy(), incremental, caching);
+    }
+
+    List<Future<?>> helperSearches = new ArrayList<>(workers.length - 1);
+    for (int i = 1; i < workers.length; i++) {
+      SearchWorker helper = workers[i];
+      // every other helper starts one move deeper, so that the helpers spread over the depths
+      int firstDepth = Math.min(1 + i % 2, depthLimit);
+      helperSearches.add(helpers.submit(() -> helper.run(firstDepth, depthLimit)));
+    }
+
+    try {
+      workers[0].run(1, depthLimit);
+    } finally {
+      // the workers are prepared anew by the next search, so no helper may outlive this one
+      stopped = true;
+      HelperSearches.awaitAll(helperSearches);
+    }
+
+    synchronized (this) {
+      return principalVariation.isEmpty() ? null : principalVariation.get(0);
+    }
+  }
+
+  /**
+   * Stops the search that is currently running on another thread, which then returns the move of
+   * the deepest search completed so far, or <code>null</code> if there is none yet. Has no effect
+   * on searches started later. Interrupting the thread that runs {@link
+   * #determineCell(GameState)} stops the search as well.
+   */
+  @Override
+  public void stop() {
+    stopped = true;
+  }
+
+  /**
+   * Stops the search that is currently running and ends the helper threads once their searches
+   * returned. The engine must not search anymore afterwards.
+   */
+  @Override
+  public void close() {
+    stop();
+    if (helpers != null) {
+      helpers.shutdown();
+    }
+  }
+
+  /**
+   * Return the principal variation found by the last call of {@link #determineCell(GameState)},
+   * i.e. the line of moves both players are expected to play, starting with the determined cell.
+   * The line may be shorter than the search depth if the game ends or parts of it were taken from
+   * the transposition table.
+   *
+   * @return the cells of the expected moves, in the order they are played.
+   */
+  @Override
+  public synchronized List<Cell> getPrincipalVariation() {
+    return principalVariation;
+  }
+
+  /**
+   * Return the score of the cell determined by the last call of {@link #determineCell(GameState)},
+   * from the view of the player to move. This is the assessed value of the principal variation,
+   * the final disk difference if the endgame was solved, or the score of the opening book.
+   *
+   * @return the score of the determined cell, or zero if no cell was determined.
+   */
+  public synchronized double getScore() {
+    return score;
+  }
+
+  /**
+   * Takes the result of a completed iteration of a worker, if it is deeper than all results so far.
+   * The search is stopped as soon as an iteration with the maximum depth is completed.
+   *
+   * @param depth The depth of the completed iteration.
+   * @param value The value of the searched position, from the view of the player to move.
+   * @param variation The principal variation found by the iteration.
+   */
+  synchronized void reportIteration(int depth, double value, List<Cell> variation) {
+    if (depth > completedDepth) {
+      completedDepth = depth;
+      score = value;
+      principalVariation = variation;
+    }
+    if (depth >= depthLimit) {
+      stopped = true;
+    }
+  }
+
+  /**
+   * Checks whether the search has to be stopped, either because it is finished or because its
+   * budget has run out. Unless it is {@link #stop() stopped} or interrupted, the search is never
+   * stopped before the first iteration is completed, so that there is always a move to return.
+   *
+   * @param worker The worker that asks.
+   * @param searchedNodes The number of nodes the worker searched since it last asked.
+   * @return <code>true</code> if the worker has to abort its search, <code>false</code> otherwise.
+   */
+  boolean isOutOfBudget(SearchWorker worker, int searchedNodes) {
+    long totalNodes = nodes.addAndGet(searchedNodes);
+    if (stopped || Thread.currentThread().isInterrupted()) {
+      stopped = true;
+      return true;
+    }
+    synchronized (this) {
+      if (completedDepth == 0) {
+        return false;
       }
     }
 
-    if (currentDepth == 0) {
-      savedCell = currentBestCell;
+    if ((nodeLimit != NO_LIMIT && totalNodes > nodeLimit)
+        || (timeLimit != NO_LIMIT && System.nanoTime() - deadline >= 0)) {
+      stopped = true;
     }
+    return stopped;
+  }
 
-    return minValue;
+  /**
+   * Checks whether the endgame solver has to be stopped. Unlike the regular search, it may be
+   * stopped at any time, as the regular search takes over afterwards. It only gets a share of the
+   * budget, see {@link #ENDGAME_BUDGET_SHARE}.
+   *
+   * @return <code>true</code> if the solver has to abort, <code>false</code> otherwise.
+   */
+  private boolean isEndgameOutOfBudget() {
+    return stopped
+        || Thread.currentThread().isInterrupted()
+        || (nodeLimit != NO_LIMIT
+            && endgameSolver.getNodeCount() > nodeLimit / ENDGAME_BUDGET_SHARE)
+        || (timeLimit != NO_LIMIT && System.nanoTime() - endgameDeadline >= 0);
   }
 
+  private static long occupiedCells(GameState gameState) {
+    return gameState.getDisksOnField(Player.WHITE) | gameState.getDisksOnField(Player.BLACK);
+  }
 }
@@ -21,8 +21,11 @@ public class MobilityAssessor implements StateAssessor {
 
     Reversi reversi = new Reversi(state);
 
-    int numOfAiMoves = reversi.getPossibleMovesForPlayer(Player.WHITE).size();
-    int numOfHumanMoves = reversi.getPossibleMovesForPlayer(Player.BLACK).size();
+    int numOfAiMoves = Long.bitCount(reversi.getPossibleMoveMask(Player.WHITE));
+    int numOfHumanMoves = Long.bitCount(reversi.getPossibleMoveMask(Player.BLACK));
+    if (numOfAiMoves + numOfHumanMoves == 0) {
+      return 0;
+    }
 
     return (float) 100 * (numOfAiMoves - numOfHumanMoves) / (numOfAiMoves + numOfHumanMoves);
 
@@ -0,0 +1,598 @@
+package reversi.model.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import reversi.model.Bitboard;
+import reversi.model.Cell;
+import reversi.model.GameField;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.Reversi;
+
+/**
+ * An implementation of Monte Carlo tree search with the UCT rule, as an alternative to the {@link
+ * MinimaxAlgorithm}. Instead of assessing positions, it plays random games (playouts) from the
+ * positions of a growing tree, and moves to the cell whose subtree was visited most. The selection
+ * in the tree balances the share of won playouts of a move against how rarely it was tried.
+ *
+ * <p>The playouts run on bitboards and follow the rules of {@link Reversi}: the first four disks
+ * are placed on the middle cells, and the game is over as soon as one of the players can't move.
+ * They are lightly biased: a player who can take a corner always takes one. A node of the tree is
+ * only expanded after {@value #EXPANSION_VISITS} playouts started from it, which keeps the tree
+ * small.
+ *
+ * <p>All threads search the same tree (tree parallelism). The statistics of a node are packed into
+ * a single <code>long</code>, so they are updated atomically without locks. A thread adds a virtual
+ * loss to every node it passes on its way down, which steers the other threads into other parts of
+ * the tree until the result of its playout is known.
+ *
+ * <p>The tree is kept between the calls of {@link #determineCell(GameState)}. If the new position
+ * is found within the first {@value #REUSE_PLIES} plies of the last tree, e.g. after the move of
+ * the ai and the reply of the human player, its subtree is reused together with its playouts.
+ */
+public class MonteCarloTreeSearch implements Engine {
+
+  /** Value for the playout and time budgets of a search that are not limited. */
+  public static final long NO_LIMIT = 0;
+
+  /** The number of playouts from a node before its children are added to the tree. */
+  static final int EXPANSION_VISITS = 8;
+
+  /** The maximum distance of the new root to the last root for reusing its subtree. */
+  static final int REUSE_PLIES = 2;
+
+  private static final int CELL_COUNT = GameField.SIZE * GameField.SIZE;
+
+  /** Every player has the disks for half of the cells. */
+  private static final int DISKS_PER_PLAYER = CELL_COUNT / 2;
+
+  /** The weight of the exploration term of the UCT rule, for win rates from 0 to 1. */
+  private static final double EXPLORATION = 0.8;
+
+  /** The number of lost playouts a thread adds to every node it passes. */
+  private static final int VIRTUAL_LOSS = 3;
+
+  // the statistics of a node: the visits in the upper half and the points in the lower half, where
+  // a won playout counts two points and a draw counts one point
+  private static final int VISITS_SHIFT = 32;
+  private static final long POINTS_MASK = (1L << VISITS_SHIFT) - 1;
+  private static final int WIN_POINTS = 2;
+  private static final int DRAW_POINTS = 1;
+
+  private static final long CORNERS = ReversiAssessor.CORNERS;
+
+  private final long playoutLimit;
+  private final long timeLimit;
+  private final int threads;
+
+  /** The threads of all but the first search, or <code>null</code> if there is only one thread. */
+  private final ExecutorService helpers;
+
+  private final SplittableRandom seeds;
+  private final AtomicLong playouts = new AtomicLong();
+  private volatile boolean stopped;
+  private long deadline;
+
+  // the result of the last search, guarded by this
+  private Node root;
+  private List<Cell> principalVariation = Collections.emptyList();
+  private double winRate;
+  private long reusedPlayouts;
+  private long playoutCount;
+  private long elapsedNanos;
+
+  /**
+   * Creates a new instance of the {@link MonteCarloTreeSearch} that searches on the calling thread.
+   *
+   * @param playoutLimit The maximum number of playouts of a single search, or {@link #NO_LIMIT}.
+   * @param timeLimit The time budget of a single search in milliseconds, or {@link #NO_LIMIT}.
+   */
+  public MonteCarloTreeSearch(long playoutLimit, long timeLimit) {
+    this(playoutLimit, timeLimit, 1);
+  }
+
+  /**
+   * Creates a new instance of the {@link MonteCarloTreeSearch} that searches the same tree with the
+   * given number of threads. At least one of the budgets has to be limited.
+   *
+   * @param playoutLimit The maximum number of playouts of a single search over all threads, or
+   *     {@link #NO_LIMIT}.
+   * @param timeLimit The time budget of a single search in milliseconds, or {@link #NO_LIMIT}.
+   * @param threads The number of threads that search in parallel, at least one.
+   */
+  public MonteCarloTreeSearch(long playoutLimit, long timeLimit, int threads) {
+    this(playoutLimit, timeLimit, threads, System.nanoTime());
+  }
+
+  /**
+   * Creates a new instance of the {@link MonteCarloTreeSearch} with the given budget. The maximum
+   * number of nodes limits the playouts, while the maximum depth doesn't apply.
+   *
+   * @param limits The budget of a single search, with a limit of the nodes or of the time.
+   * @param threads The number of threads that search in parallel, at least one.
+   */
+  public MonteCarloTreeSearch(SearchLimits limits, int threads) {
+    this(limits.getMaxNodes(), limits.getMaxMillis(), threads);
+  }
+
+  /**
+   * Creates a new instance of the {@link MonteCarloTreeSearch} whose playouts are derived from the
+   * given seed, so that searches on a single thread with a playout budget are repeatable.
+   *
+   * @param playoutLimit The maximum number of playouts of a single search over all threads, or
+   *     {@link #NO_LIMIT}.
+   * @param timeLimit The time budget of a single search in milliseconds, or {@link #NO_LIMIT}.
+   * @param threads The number of threads that search in parallel, at least one.
+   * @param seed The seed of the random moves of the playouts.
+   */
+  public MonteCarloTreeSearch(long playoutLimit, long timeLimit, int threads, long seed) {
+    if (playoutLimit < 0 || timeLimit < 0) {
+      throw new IllegalArgumentException("Budgets must not be negative");
+    }
+    if (playoutLimit == NO_LIMIT && timeLimit == NO_LIMIT) {
+      throw new IllegalArgumentException("Either the playouts or the time must be limited");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be at least one: " + threads);
+    }
+
+    this.playoutLimit = playoutLimit;
+    this.timeLimit = timeLimit;
+    this.threads = threads;
+    seeds = new SplittableRandom(seed);
+    helpers =
+        threads == 1
+            ? null
+            : Executors.newFixedThreadPool(
+                threads - 1,
+                runnable -> {
+                  Thread thread = new Thread(runnable, "reversi-mcts-helper");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+  }
+
+  @Override
+  public SearchLimits getSearchLimits() {
+    return new SearchLimits(SearchLimits.NO_LIMIT, playoutLimit, timeLimit);
+  }
+
+  /**
+   * Return the number of threads this search runs with.
+   *
+   * @return the number of threads.
+   */
+  public int getThreadCount() {
+    return threads;
+  }
+
+  /**
+   * Return the number of playouts of the last call of {@link #determineCell(GameState)}, over all
+   * threads.
+   *
+   * @return the number of playouts.
+   */
+  public synchronized long getPlayoutCount() {
+    return playoutCount;
+  }
+
+  /**
+   * Return the throughput of the last search over all threads.
+   *
+   * @return the number of playouts per second.
+   */
+  public synchronized double getPlayoutsPerSecond() {
+    return elapsedNanos == 0 ? 0 : playoutCount * 1e9 / elapsedNanos;
+  }
+
+  /**
+   * Return the number of playouts the last search took over from the tree of the search before.
+   *
+   * @return the number of reused playouts, or zero if the tree was built from scratch.
+   */
+  public synchronized long getReusedPlayouts() {
+    return reusedPlayouts;
+  }
+
+  /**
+   * Return the share of won playouts of the determined cell, from the view of the player to move. A
+   * drawn playout counts as half a win.
+   *
+   * @return the win rate, from 0 to 1.
+   */
+  public synchronized double getWinRate() {
+    return winRate;
+  }
+
+  @Override
+  public Cell determineCell(GameState gameState) {
+    if (gameState.getCurrentPhase() == Phase.FINISHED) {
+      return null;
+    }
+
+    long black = gameState.getDisksOnField(Player.BLACK);
+    long white = gameState.getDisksOnField(Player.WHITE);
+    Node searchRoot;
+    long[] threadSeeds = new long[threads];
+    synchronized (this) {
+      searchRoot = findReusableNode(root, black, white, REUSE_PLIES);
+      if (searchRoot == null) {
+        searchRoot = new Node(black, white, -1);
+      }
+      root = searchRoot;
+      reusedPlayouts = searchRoot.getVisits();
+      playoutCount = 0;
+      principalVariation = Collections.emptyList();
+      winRate = 0;
+      for (int i = 0; i < threads; i++) {
+        threadSeeds[i] = seeds.nextLong();
+      }
+    }
+
+    long start = System.nanoTime();
+    playouts.set(0);
+    stopped = false;
+    deadline = start + TimeUnit.MILLISECONDS.toNanos(timeLimit);
+
+    Node treeRoot = searchRoot;
+    List<Future<?>> helperSearches = new ArrayList<>(threads - 1);
+    for (int i = 1; i < threads; i++) {
+      long threadSeed = threadSeeds[i];
+      helperSearches.add(helpers.submit(() -> search(treeRoot, threadSeed)));
+    }
+    try {
+      search(treeRoot, threadSeeds[0]);
+    } finally {
+      // the next search may reuse the tree, so no helper may outlive this one
+      stopped = true;
+      HelperSearches.awaitAll(helperSearches);
+    }
+
+    Node best = mostVisitedChild(treeRoot);
+    synchronized (this) {
+      elapsedNanos = System.nanoTime() - start;
+      playoutCount = treeRoot.getVisits() - reusedPlayouts;
+      if (best == null) {
+        return null;
+      }
+      principalVariation = variationOf(treeRoot);
+      winRate = (double) best.getPoints() / (WIN_POINTS * best.getVisits());
+      return principalVariation.get(0);
+    }
+  }
+
+  @Override
+  public void stop() {
+    stopped = true;
+  }
+
+  /**
+   * Stops the search that is currently running and ends the helper threads once their searches
+   * returned. The engine must not search anymore afterwards.
+   */
+  @Override
+  public void close() {
+    stop();
+    if (helpers != null) {
+      helpers.shutdown();
+    }
+  }
+
+  /**
+   * Return the principal variation found by the last call of {@link #determineCell(GameState)},
+   * i.e. the line of the most visited moves in the tree, starting with the determined cell.
+   *
+   * @return the cells of the expected moves, in the order they are played.
+   */
+  @Override
+  public synchronized List<Cell> getPrincipalVariation() {
+    return principalVariation;
+  }
+
+  /** Runs simulations from the root until the budget of the search has run out. */
+  private void search(Node root, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    Node[] path = new Node[CELL_COUNT + 1];
+    while (!isOutOfBudget()) {
+      simulate(root, path, random);
+    }
+  }
+
+  /**
+   * Checks whether the search has to be stopped. Unless it is {@link #stop() stopped} or
+   * interrupted, the search isn't stopped before it played a playout, so that there is always a
+   * move to return.
+   *
+   * @return <code>true</code> if the thread has to stop, <code>false</code> to play another
+   *     playout.
+   */
+  private boolean isOutOfBudget() {
+    if (stopped || Thread.currentThread().isInterrupted()) {
+      stopped = true;
+      return true;
+    }
+
+    long playout = playouts.incrementAndGet();
+    if ((playoutLimit != NO_LIMIT && playout > playoutLimit)
+        || (playout > 1 && timeLimit != NO_LIMIT && System.nanoTime() - deadline >= 0)) {
+      stopped = true;
+    }
+    return stopped;
+  }
+
+  /**
+   * Descends from the root to a node that isn't expanded yet, plays a playout from it and adds its
+   * result to all nodes on the way.
+   *
+   * @param root The root of the tree.
+   * @param path The buffer for the nodes on the way.
+   * @param random The source of the random decisions of this thread.
+   */
+  private static void simulate(Node root, Node[] path, SplittableRandom random) {
+    int length = 0;
+    Node node = root;
+    int blackPoints;
+    while (true) {
+      long visits = node.addStats((long) VIRTUAL_LOSS << VISITS_SHIFT) >>> VISITS_SHIFT;
+      path[length++] = node;
+      if (node.terminalPoints >= 0) {
+        blackPoints = node.terminalPoints;
+        break;
+      }
+
+      Node[] children = node.children;
+      if (children == null) {
+        if (node != root && visits < EXPANSION_VISITS) {
+          blackPoints = playout(node.black, node.white, random);
+          break;
+        }
+        children = node.expand();
+      }
+      node = select(children, visits);
+    }
+
+    // replace the virtual loss by the result, from the view of the player who moved into the node
+    for (int i = 0; i < length; i++) {
+      Node visited = path[i];
+      int points = visited.movedByBlack() ? blackPoints : WIN_POINTS - blackPoints;
+      visited.addStats(((long) (1 - VIRTUAL_LOSS) << VISITS_SHIFT) + points);
+      path[i] = null;
+    }
+  }
+
+  /**
+   * Selects the child with the best UCT value: the share of won playouts from the view of the
+   * player to move, plus a bonus for rarely visited children. Children that were never visited are
+   * selected first.
+   */
+  private static Node select(Node[] children, long parentVisits) {
+    double logVisits = Math.log(Math.max(parentVisits, 1));
+    Node best = null;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for (Node child : children) {
+      long stats = child.stats;
+      long visits = stats >>> VISITS_SHIFT;
+      if (visits == 0) {
+        return child;
+      }
+
+      double value =
+          (double) (stats & POINTS_MASK) / (WIN_POINTS * visits)
+              + EXPLORATION * Math.sqrt(logVisits / visits);
+      if (value > bestValue) {
+        bestValue = value;
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Plays random moves from the given position until the game is over. The player to move has to
+   * be able to move.
+   *
+   * @param black The disks of the black player.
+   * @param white The disks of the white player.
+   * @param random The source of the random moves.
+   * @return The points of the black player, i.e. 2 for a win, 1 for a draw and 0 for a loss.
+   */
+  static int playout(long black, long white, SplittableRandom random) {
+    boolean blackToMove = isBlackToMove(black, white);
+    long own = blackToMove ? black : white;
+    long opponent = blackToMove ? white : black;
+    long moves = possibleMoves(own, opponent, true);
+
+    while (true) {
+      int move = pickMove(moves, random);
+      long flips = Bitboard.flips(move, own, opponent);
+      own |= flips | 1L << move;
+      opponent &= ~flips;
+
+      long opponentMoves = possibleMoves(opponent, own, true);
+      if (opponentMoves == 0 || possibleMoves(own, opponent, false) == 0) {
+        break;
+      }
+      long disks = own;
+      own = opponent;
+      opponent = disks;
+      moves = opponentMoves;
+      blackToMove = !blackToMove;
+    }
+    return blackToMove ? pointsOf(own, opponent) : pointsOf(opponent, own);
+  }
+
+  /** Picks a random move, or a random corner if one of the moves takes a corner. */
+  private static int pickMove(long moves, SplittableRandom random) {
+    if ((moves & CORNERS) != 0) {
+      moves &= CORNERS;
+    }
+    for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+      moves &= moves - 1;
+    }
+    return Long.numberOfTrailingZeros(moves);
+  }
+
+  /**
+   * Computes the possible moves like {@link Reversi#getPossibleMoveMask(GameState, Player)}, but
+   * only from the disks on the field. Black moves first and no player ever passes, so the number of
+   * disks on the field tells how many disks each player placed: the first two disks of a player go
+   * to the middle cells, and a player who placed all disks can't move anymore.
+   *
+   * @param own The disks of the player to compute the moves for.
+   * @param opponent The disks of the opponent.
+   * @param toMove Whether the player is the one to move, as opposed to the one who just moved.
+   * @return A mask with one bit set for each possible move.
+   */
+  static long possibleMoves(long own, long opponent, boolean toMove) {
+    long occupied = own | opponent;
+    int diskCount = Long.bitCount(occupied);
+    int placed = toMove ? diskCount / 2 : (diskCount + 1) / 2;
+    if (placed >= DISKS_PER_PLAYER) {
+      return 0L;
+    }
+    if (placed < 2) {
+      return Bitboard.MIDDLE_FOUR_CELLS & ~occupied;
+    }
+    return Bitboard.possibleMoves(own, opponent);
+  }
+
+  /** Black moves first and no player ever passes, so the number of disks tells who's to move. */
+  private static boolean isBlackToMove(long black, long white) {
+    return (Long.bitCount(black | white) & 1) == 0;
+  }
+
+  private static int pointsOf(long black, long white) {
+    int difference = Long.bitCount(black) - Long.bitCount(white);
+    return difference > 0 ? WIN_POINTS : difference == 0 ? DRAW_POINTS : 0;
+  }
+
+  /** Searches the first plies of the given tree for the node of the given position. */
+  private static Node findReusableNode(Node node, long black, long white, int plies) {
+    if (node == null) {
+      return null;
+    }
+    if (node.black == black && node.white == white) {
+      return node;
+    }
+
+    Node[] children = node.children;
+    if (plies == 0 || children == null) {
+      return null;
+    }
+    for (Node child : children) {
+      Node found = findReusableNode(child, black, white, plies - 1);
+      if (found != null) {
+        return found;
+      }
+    }
+    return null;
+  }
+
+  private static Node mostVisitedChild(Node node) {
+    Node[] children = node.children;
+    if (children == null) {
+      return null;
+    }
+
+    Node best = null;
+    for (Node child : children) {
+      if (child.getVisits() > 0 && (best == null || child.getVisits() > best.getVisits())) {
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  private static List<Cell> variationOf(Node root) {
+    List<Cell> variation = new ArrayList<>();
+    for (Node node = mostVisitedChild(root); node != null; node = mostVisitedChild(node)) {
+      variation.add(Cell.ofIndex(node.move));
+    }
+    return Collections.unmodifiableList(variation);
+  }
+
+  /** A position in the tree with the statistics of the playouts that passed it. */
+  private static final class Node {
+
+    private static final AtomicLongFieldUpdater<Node> STATS =
+        AtomicLongFieldUpdater.newUpdater(Node.class, "stats");
+
+    private final long black;
+    private final long white;
+
+    /** The index of the cell of the move that led to this position, or -1 for a root. */
+    private final int move;
+
+    /** The points of black if the game is over in this position, or -1 if it is still running. */
+    private final int terminalPoints;
+
+    /** The visits and the points of the player who moved into this position. */
+    private volatile long stats;
+
+    /** The positions after all possible moves, or <code>null</code> if not expanded yet. */
+    private volatile Node[] children;
+
+    private Node(long black, long white, int move) {
+      this.black = black;
+      this.white = white;
+      this.move = move;
+      boolean blackToMove = isBlackToMove(black, white);
+      boolean over =
+          possibleMoves(black, white, blackToMove) == 0
+              || possibleMoves(white, black, !blackToMove) == 0;
+      terminalPoints = over ? pointsOf(black, white) : -1;
+    }
+
+    /** Adds to the statistics and returns the statistics before. */
+    private long addStats(long delta) {
+      return STATS.getAndAdd(this, delta);
+    }
+
+    private long getVisits() {
+      return stats >>> VISITS_SHIFT;
+    }
+
+    private long getPoints() {
+      return stats & POINTS_MASK;
+    }
+
+    private boolean movedByBlack() {
+      return !isBlackToMove(black, white);
+    }
+
+    /** Adds the positions after all possible moves, unless another thread already did. */
+    private synchronized Node[] expand() {
+      if (children != null) {
+        return children;
+      }
+
+      boolean blackToMove = isBlackToMove(black, white);
+      long own = blackToMove ? black : white;
+      long opponent = blackToMove ? white : black;
+      long moves = possibleMoves(own, opponent, true);
+
+      Node[] expanded = new Node[Long.bitCount(moves)];
+      for (int i = 0; moves != 0; i++, moves &= moves - 1) {
+        int index = Long.numberOfTrailingZeros(moves);
+        long flips = Bitboard.flips(index, own, opponent);
+        long ownAfter = own | flips | 1L << index;
+        long opponentAfter = opponent & ~flips;
+        expanded[i] =
+            blackToMove
+                ? new Node(ownAfter, opponentAfter, index)
+                : new Node(opponentAfter, ownAfter, index);
+      }
+      children = expanded;
+      return expanded;
+    }
+  }
+}
@@ -0,0 +1,430 @@
+package reversi.model.ai;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import reversi.model.Bitboard;
+import reversi.model.Cell;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.Reversi;
+import reversi.model.Zobrist;
+
+/**
+ * A book of opening moves, so that the ai doesn't have to search the positions of the early game
+ * again in every game. The book is a binary file of fixed-size records, one per position, which are
+ * sorted by the hash of their position. The file is mapped into memory instead of being read, so
+ * opening it takes no time and processes that use the same book share its pages. Lookups only read
+ * the mapped file, so several threads may use the same book.
+ *
+ * <p>A position and its rotations and reflections share one record: the key of a record is the
+ * smallest {@link Zobrist} hash over all {@link Bitboard#transform(long, int) symmetries} of the
+ * position, and its move is stored for the symmetry that yields this key. Looking up a position
+ * maps the move back onto the position.
+ *
+ * <p>The file starts with a header of {@value #HEADER_SIZE} bytes, i.e. the magic number, the
+ * version and the number of records. Each record takes {@value #RECORD_SIZE} bytes: the key, the
+ * score of the move as <code>float</code>, the number of times the position was reached as an
+ * unsigned <code>short</code> that saturates, the index of the move and the depth the move was
+ * searched with. All values are big endian.
+ */
+public class OpeningBook {
+
+  /** The number of bytes of the header of a book file. */
+  public static final int HEADER_SIZE = 16;
+
+  /** The number of bytes of a record of a book file. */
+  public static final int RECORD_SIZE = 16;
+
+  /**
+   * The name of the resource of the {@link #getDefault() default book}.
+   */
+  public static final String DEFAULT_BOOK = "opening.book";
+
+  /** The first four bytes of a book file, i.e. "RVOB" in ASCII. */
+  private static final int MAGIC = 0x52564F42;
+
+  private static final int VERSION = 1;
+
+  private static final int MAX_COUNT = 0xFFFF;
+
+  private static final int MAX_DEPTH = 0xFF;
+
+  private final ByteBuffer records;
+  private final int size;
+
+  private OpeningBook(ByteBuffer records, int size) {
+    this.records = records;
+    this.size = size;
+  }
+
+  /**
+   * Opens a book file by mapping it into memory.
+   *
+   * @param file The book file.
+   * @return The opening book.
+   * @throws IOException if the file can't be read or is no valid book file.
+   */
+  public static OpeningBook open(Path file) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE) {
+        throw new IOException("Not an opening book: " + file);
+      }
+      // the mapping stays valid after the channel is closed
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    return of(buffer, file.toString());
+  }
+
+  /**
+   * Reads a book from a stream into memory, e.g. from a resource that can't be mapped.
+   *
+   * @param in The stream of the book file, which is read to its end but not closed.
+   * @return The opening book.
+   * @throws IOException if the stream can't be read or holds no valid book file.
+   */
+  public static OpeningBook read(InputStream in) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(in.readAllBytes());
+    if (buffer.capacity() < HEADER_SIZE) {
+      throw new IOException("Not an opening book: the stream");
+    }
+    return of(buffer, "the stream");
+  }
+
+  /**
+   * Return the book that ships with the ai, which is read once when it is used first. It was built
+   * with the default settings of the {@link OpeningBookBuilder}.
+   *
+   * @return The default opening book.
+   * @throws UncheckedIOException if the default book can't be read.
+   */
+  public static OpeningBook getDefault() {
+    return DefaultBook.BOOK;
+  }
+
+  private static OpeningBook of(ByteBuffer buffer, String source) throws IOException {
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    if (buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not an opening book: " + source);
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported version of opening book: " + buffer.getInt(4));
+    }
+    int size = buffer.getInt(8);
+    if (size < 0 || buffer.capacity() != HEADER_SIZE + (long) size * RECORD_SIZE) {
+      throw new IOException("Opening book is truncated: " + source);
+    }
+    return new OpeningBook(buffer, size);
+  }
+
+  /**
+   * Writes a book file with the given entries. The file is written to a temporary file first and
+   * then moved into place, so that processes that have mapped the old file aren't affected.
+   *
+   * @param file The book file.
+   * @param entries The entries of the book, at most one per key.
+   * @throws IOException if the file can't be written.
+   * @throws IllegalArgumentException if several entries have the same key.
+   */
+  public static void write(Path file, Collection<Entry> entries) throws IOException {
+    List<Entry> sorted = new ArrayList<>(entries);
+    sorted.sort(Comparator.comparingLong(Entry::getKey));
+    for (int i = 1; i < sorted.size(); i++) {
+      if (sorted.get(i).getKey() == sorted.get(i - 1).getKey()) {
+        throw new IllegalArgumentException("Duplicate key in book: " + sorted.get(i).getKey());
+      }
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + sorted.size() * RECORD_SIZE);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(sorted.size()).putInt(0);
+    for (Entry entry : sorted) {
+      buffer.putLong(entry.key);
+      buffer.putFloat(entry.score);
+      buffer.putShort((short) Math.min(entry.count, MAX_COUNT));
+      buffer.put((byte) entry.move);
+      buffer.put((byte) Math.min(entry.depth, MAX_DEPTH));
+    }
+    buffer.flip();
+
+    Path directory = file.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Return the number of positions in this book.
+   *
+   * @return the number of records.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Return all entries of this book, ordered by their keys. The moves of the entries are stored for
+   * the symmetry under which their position has the smallest hash, see {@link Entry#of}.
+   *
+   * @return the entries of the book.
+   */
+  public List<Entry> entries() {
+    List<Entry> entries = new ArrayList<>(size);
+    for (int record = 0; record < size; record++) {
+      entries.add(readEntry(record, records.get(HEADER_SIZE + record * RECORD_SIZE + 14)));
+    }
+    return entries;
+  }
+
+  /**
+   * Looks up the move for the given state in this book. Rotations and reflections of the
+   * positions in the book are found as well.
+   *
+   * @param gameState The state to look up.
+   * @return The entry with the move for the state, or an empty {@link Optional} if the position
+   *     isn't in the book.
+   */
+  public Optional<Entry> lookup(GameState gameState) {
+    if (gameState.getCurrentPhase() != Phase.RUNNING) {
+      return Optional.empty();
+    }
+
+    int record = find(keyOf(gameState));
+    if (record < 0) {
+      return Optional.empty();
+    }
+
+    int storedMove = records.get(HEADER_SIZE + record * RECORD_SIZE + 14);
+    return moveOnPosition(gameState, storedMove).map(move -> readEntry(record, move.index()));
+  }
+
+  /**
+   * Return the key of a position in a book, which is the same for all its symmetries.
+   *
+   * @param gameState The position.
+   * @return The smallest hash over all symmetries of the position.
+   */
+  static long keyOf(GameState gameState) {
+    Player player = gameState.getCurrentPlayer();
+    long white = gameState.getDisksOnField(Player.WHITE);
+    long black = gameState.getDisksOnField(Player.BLACK);
+    return hash(white, black, player, canonicalSymmetry(white, black, player));
+  }
+
+  /**
+   * Maps a move that is stored in a book back onto the given position.
+   *
+   * @param gameState The position.
+   * @param storedMove The index of the move for the symmetry with the smallest hash.
+   * @return The move on the position, or an empty {@link Optional} if it isn't a possible move.
+   */
+  static Optional<Cell> moveOnPosition(GameState gameState, int storedMove) {
+    Player player = gameState.getCurrentPlayer();
+    int symmetry =
+        canonicalSymmetry(
+            gameState.getDisksOnField(Player.WHITE),
+            gameState.getDisksOnField(Player.BLACK),
+            player);
+
+    long possibleMoves = new Reversi(gameState).getPossibleMoveMask(player);
+    for (long mask = possibleMoves; mask != 0; mask &= mask - 1) {
+      int move = Long.numberOfTrailingZeros(mask);
+      if (Bitboard.transform(1L << move, symmetry) == 1L << storedMove) {
+        return Optional.of(Cell.ofIndex(move));
+      }
+    }
+    return Optional.empty();
+  }
+
+  private Entry readEntry(int record, int move) {
+    int offset = HEADER_SIZE + record * RECORD_SIZE;
+    return new Entry(
+        records.getLong(offset),
+        move,
+        records.getFloat(offset + 8),
+        records.getShort(offset + 12) & MAX_COUNT,
+        records.get(offset + 15) & MAX_DEPTH);
+  }
+
+  /**
+   * Binary search for the record with the given key.
+   *
+   * @return The index of the record, or -1 if there is none.
+   */
+  private int find(long key) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long middleKey = records.getLong(HEADER_SIZE + middle * RECORD_SIZE);
+      if (middleKey < key) {
+        low = middle + 1;
+      } else if (middleKey > key) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Return the symmetry under which the position has the smallest hash.
+   *
+   * @param white The disks of the white player.
+   * @param black The disks of the black player.
+   * @param player The player to move.
+   * @return The symmetry that yields the key of the position in the book.
+   */
+  private static int canonicalSymmetry(long white, long black, Player player) {
+    int bestSymmetry = 0;
+    long bestKey = hash(white, black, player, 0);
+    for (int symmetry = 1; symmetry < Bitboard.SYMMETRY_COUNT; symmetry++) {
+      long key = hash(white, black, player, symmetry);
+      if (key < bestKey) {
+        bestKey = key;
+        bestSymmetry = symmetry;
+      }
+    }
+    return bestSymmetry;
+  }
+
+  private static long hash(long white, long black, Player player, int symmetry) {
+    return Zobrist.hash(
+        Bitboard.transform(white, symmetry), Bitboard.transform(black, symmetry), player);
+  }
+
+  /** The move of the book for a single position, together with its score. */
+  public static class Entry {
+
+    private final long key;
+    private final int move;
+    private final float score;
+    private final int count;
+    private final int depth;
+
+    private Entry(long key, int move, float score, int count, int depth) {
+      this.key = key;
+      this.move = move;
+      this.score = score;
+      this.count = count;
+      this.depth = depth;
+    }
+
+    /**
+     * Creates the entry of a position for writing it into a book. The move is stored for the
+     * symmetry under which the position has the smallest hash.
+     *
+     * @param gameState The position, which has to be running.
+     * @param move The move of the book for the position.
+     * @param score The score of the move.
+     * @param count The number of times the position was reached.
+     * @param depth The depth the move was searched with.
+     * @return The entry for the book.
+     */
+    public static Entry of(GameState gameState, Cell move, double score, int count, int depth) {
+      Player player = gameState.getCurrentPlayer();
+      long white = gameState.getDisksOnField(Player.WHITE);
+      long black = gameState.getDisksOnField(Player.BLACK);
+      int symmetry = canonicalSymmetry(white, black, player);
+      long storedMove = Bitboard.transform(1L << move.index(), symmetry);
+      return new Entry(
+          hash(white, black, player, symmetry),
+          Long.numberOfTrailingZeros(storedMove),
+          (float) score,
+          count,
+          depth);
+    }
+
+    /**
+     * Return a copy of this entry with another count, e.g. after the position was reached again.
+     *
+     * @param newCount The number of times the position was reached.
+     * @return The entry with the new count.
+     */
+    public Entry withCount(int newCount) {
+      return new Entry(key, move, score, newCount, depth);
+    }
+
+    /**
+     * Return the key of the position in the book, which is the same for all its symmetries.
+     *
+     * @return the key of the entry.
+     */
+    public long getKey() {
+      return key;
+    }
+
+    /**
+     * Return the move of the book. For an entry that was looked up, this is the move on the
+     * position that was looked up.
+     *
+     * @return the cell of the move.
+     */
+    public Cell getMove() {
+      return Cell.ofIndex(move);
+    }
+
+    /**
+     * Return the score of the move, from the view of the player to move.
+     *
+     * @return the score.
+     */
+    public double getScore() {
+      return score;
+    }
+
+    /**
+     * Return how often the position was reached while the book was built.
+     *
+     * @return the count of the position, at most 65535.
+     */
+    public int getCount() {
+      return count;
+    }
+
+    /**
+     * Return the depth the move was searched with.
+     *
+     * @return the search depth, at most 255.
+     */
+    public int getDepth() {
+      return depth;
+    }
+  }
+
+  /** Holds the default book, which is read once when it is used first. */
+  private static final class DefaultBook {
+
+    private static final OpeningBook BOOK = read();
+
+    private static OpeningBook read() {
+      try (InputStream in = OpeningBook.class.getResourceAsStream(DEFAULT_BOOK)) {
+        if (in == null) {
+          throw new IOException("Missing resource: " + DEFAULT_BOOK);
+        }
+        return OpeningBook.read(in);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Can't read the default opening book", e);
+      }
+    }
+  }
+}
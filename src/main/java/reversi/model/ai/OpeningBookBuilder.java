@@ -0,0 +1,394 @@
+package reversi.model.ai;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import reversi.model.Cell;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.Reversi;
+
+/**
+ * Builds an {@link OpeningBook} for the ai ({@link Player#WHITE}). Random self-play games find out
+ * how often the positions of the early game are reached, in which the ai follows the moves that are
+ * already in the book. The most frequent positions are then scored by a {@link MinimaxAlgorithm}
+ * with a high depth, and the positions after the scored move and every reply of the opponent are
+ * added to the positions to score.
+ *
+ * <p>The positions are scored in parallel on a work-stealing pool. The book is written to its file
+ * periodically, so a build that is interrupted can be resumed by running it again. Positions that
+ * are already in the book with at least the requested depth are never scored again, so running the
+ * builder on an existing book only scores the new positions.
+ *
+ * <p>Usage: <code>OpeningBookBuilder file [depth] [games] [max plies] [max positions]</code>, e.g.
+ * through the following command, which builds the {@link OpeningBook#getDefault() default book}:
+ * <code>gradle buildBook --args="src/main/resources/reversi/model/ai/opening.book 8 10000 12 5000"
+ * </code>.
+ */
+public class OpeningBookBuilder {
+
+  /** The default depth the positions of the book are searched with. */
+  public static final int DEFAULT_DEPTH = 8;
+
+  /** The default interval in which the book is written to its file, in milliseconds. */
+  public static final long DEFAULT_CHECKPOINT_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+  /** The size of the transposition table of every search, in megabytes. */
+  private static final int TABLE_SIZE = 4;
+
+  /** The number of positions that are scored at once per thread. */
+  private static final int POSITIONS_PER_THREAD = 4;
+
+  private final Path file;
+  private final int depth;
+  private final int maxPlies;
+  private final int maxPositions;
+  private final long checkpointInterval;
+  private final ForkJoinPool pool;
+  private final ThreadLocal<MinimaxAlgorithm> searches;
+
+  // the positions found so far, by the key of their book entries
+  private final Map<Long, Candidate> candidates = new HashMap<>();
+  private final Map<Long, OpeningBook.Entry> entries = new HashMap<>();
+
+  private int scoredPositions;
+  private int reusedPositions;
+
+  /**
+   * Creates a builder that uses all available processors.
+   *
+   * @param file The file of the book, which is extended if it already exists.
+   * @param depth The depth the positions are searched with, at least one.
+   * @param maxPlies The maximum number of disks on the field of a position in the book.
+   * @param maxPositions The maximum number of positions in the book.
+   */
+  public OpeningBookBuilder(Path file, int depth, int maxPlies, int maxPositions) {
+    this(
+        file,
+        depth,
+        maxPlies,
+        maxPositions,
+        Runtime.getRuntime().availableProcessors(),
+        DEFAULT_CHECKPOINT_INTERVAL);
+  }
+
+  /**
+   * Creates a new builder.
+   *
+   * @param file The file of the book, which is extended if it already exists.
+   * @param depth The depth the positions are searched with, at least one.
+   * @param maxPlies The maximum number of disks on the field of a position in the book.
+   * @param maxPositions The maximum number of positions in the book.
+   * @param threads The number of threads that score positions, at least one.
+   * @param checkpointInterval The interval in which the book is written, in milliseconds.
+   */
+  public OpeningBookBuilder(
+      Path file,
+      int depth,
+      int maxPlies,
+      int maxPositions,
+      int threads,
+      long checkpointInterval) {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Depth must be at least one: " + depth);
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be at least one: " + threads);
+    }
+
+    this.file = file;
+    this.depth = depth;
+    this.maxPlies = maxPlies;
+    this.maxPositions = maxPositions;
+    this.checkpointInterval = checkpointInterval;
+    pool = new ForkJoinPool(threads);
+    // the opening is never solved, so the endgame solver isn't needed
+    searches =
+        ThreadLocal.withInitial(
+            () ->
+                new MinimaxAlgorithm(
+                    depth,
+                    MinimaxAlgorithm.NO_LIMIT,
+                    MinimaxAlgorithm.NO_LIMIT,
+                    TABLE_SIZE,
+                    1,
+                    0));
+  }
+
+  /**
+   * Builds the book and writes it to its file.
+   *
+   * @param games The number of self-play games that find the frequent positions.
+   * @param seed The seed of the random moves of the self-play games.
+   * @throws IOException if the existing book can't be read or the book can't be written.
+   */
+  public void build(int games, long seed) throws IOException {
+    if (Files.exists(file)) {
+      for (OpeningBook.Entry entry : OpeningBook.open(file).entries()) {
+        entries.put(entry.getKey(), entry);
+      }
+    }
+
+    playGames(games, new SplittableRandom(seed));
+
+    long lastCheckpoint = System.currentTimeMillis();
+    int batchSize = pool.getParallelism() * POSITIONS_PER_THREAD;
+    List<Candidate> batch;
+    while (!(batch = nextBatch(batchSize)).isEmpty()) {
+      for (Candidate candidate : scoreAll(batch)) {
+        expand(candidate);
+      }
+
+      if (System.currentTimeMillis() - lastCheckpoint >= checkpointInterval) {
+        OpeningBook.write(file, entries.values());
+        lastCheckpoint = System.currentTimeMillis();
+      }
+    }
+
+    OpeningBook.write(file, entries.values());
+  }
+
+  /**
+   * Return the number of positions that were searched by the last build.
+   *
+   * @return the number of scored positions.
+   */
+  public int getScoredPositions() {
+    return scoredPositions;
+  }
+
+  /**
+   * Return the number of positions of the last build that were taken from the existing book
+   * instead of being searched again.
+   *
+   * @return the number of reused positions.
+   */
+  public int getReusedPositions() {
+    return reusedPositions;
+  }
+
+  /** Stops the threads of this builder. */
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Plays random games up to the maximum number of plies and counts the positions in which the ai
+   * has to move. The ai plays the move of the book if there is one.
+   */
+  private void playGames(int games, SplittableRandom random) {
+    for (int game = 0; game < games; game++) {
+      Reversi reversi = new Reversi();
+      GameState state = reversi.getState();
+
+      while (state.getCurrentPhase() == Phase.RUNNING && diskCount(state) < maxPlies) {
+        Player player = state.getCurrentPlayer();
+        Cell move = null;
+        if (player == Player.WHITE) {
+          addCandidate(state, 1);
+          move = bookMove(state).orElse(null);
+        }
+        if (move == null) {
+          long possibleMoves = reversi.getPossibleMoveMask(player);
+          move = Cell.ofIndex(nthBit(possibleMoves, random.nextInt(Long.bitCount(possibleMoves))));
+        }
+        reversi.move(move);
+      }
+    }
+  }
+
+  /**
+   * Return the most frequent positions that weren't expanded yet and have to be scored. Positions
+   * that are already in the book with a sufficient depth are expanded right away instead.
+   */
+  private List<Candidate> nextBatch(int batchSize) {
+    List<Candidate> batch = new ArrayList<>(batchSize);
+    boolean reused;
+    do {
+      reused = false;
+      List<Candidate> open = new ArrayList<>();
+      for (Candidate candidate : candidates.values()) {
+        if (!candidate.expanded) {
+          open.add(candidate);
+        }
+      }
+      open.sort(Comparator.comparingInt((Candidate candidate) -> candidate.count).reversed());
+
+      for (Candidate candidate : open) {
+        if (batch.size() >= batchSize) {
+          break;
+        }
+
+        OpeningBook.Entry entry = entries.get(candidate.key);
+        if (entry != null && entry.getDepth() >= depth) {
+          entries.put(candidate.key, entry.withCount(candidate.count));
+          reusedPositions++;
+          expand(candidate);
+          reused = true;
+        } else if (entries.size() + batch.size() < maxPositions) {
+          candidate.expanded = true;
+          batch.add(candidate);
+        }
+      }
+      // expanding reused positions may have found new positions to score
+    } while (batch.isEmpty() && reused);
+    return batch;
+  }
+
+  /** Searches all positions of the batch in parallel and stores their entries. */
+  private List<Candidate> scoreAll(List<Candidate> batch) {
+    List<Callable<OpeningBook.Entry>> tasks = new ArrayList<>(batch.size());
+    for (Candidate candidate : batch) {
+      tasks.add(
+          () -> {
+            MinimaxAlgorithm search = searches.get();
+            Cell move = search.determineCell(candidate.state.makeCopy());
+            return OpeningBook.Entry.of(
+                candidate.state, move, search.getScore(), candidate.count, depth);
+          });
+    }
+
+    List<Future<OpeningBook.Entry>> results = pool.invokeAll(tasks);
+    for (int i = 0; i < batch.size(); i++) {
+      try {
+        entries.put(batch.get(i).key, results.get(i).get());
+        scoredPositions++;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Building the opening book was interrupted", e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Scoring a position failed", e.getCause());
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Adds the positions after the move of the book and every reply of the opponent, which inherit
+   * the share of the frequency of the position that falls on them.
+   */
+  private void expand(Candidate candidate) {
+    candidate.expanded = true;
+    Optional<Cell> move = bookMove(candidate.state);
+    if (move.isEmpty()) {
+      return;
+    }
+
+    Reversi reversi = new Reversi(candidate.state.makeCopy());
+    reversi.move(move.get());
+    GameState afterMove = reversi.getState();
+    if (afterMove.getCurrentPhase() != Phase.RUNNING || diskCount(afterMove) + 1 >= maxPlies) {
+      return;
+    }
+
+    long replies = reversi.getPossibleMoveMask(Player.BLACK);
+    int count = Math.max(1, candidate.count / Long.bitCount(replies));
+    for (long mask = replies; mask != 0; mask &= mask - 1) {
+      reversi.move(Cell.ofIndex(Long.numberOfTrailingZeros(mask)));
+      if (afterMove.getCurrentPhase() == Phase.RUNNING) {
+        addCandidate(afterMove, count);
+      }
+      reversi.undoMove();
+    }
+  }
+
+  /**
+   * Counts a position in which the ai has to move.
+   *
+   * @param state The position, which is copied if it wasn't found before.
+   * @param count The number of times the position was reached.
+   */
+  private void addCandidate(GameState state, int count) {
+    long key = OpeningBook.keyOf(state);
+    Candidate candidate = candidates.get(key);
+    if (candidate == null) {
+      candidates.put(key, new Candidate(key, state.makeCopy(), count));
+    } else if (!candidate.expanded) {
+      candidate.count += count;
+    }
+  }
+
+  /** Return the move of the book being built for the given position, if there is one. */
+  private Optional<Cell> bookMove(GameState state) {
+    OpeningBook.Entry entry = entries.get(OpeningBook.keyOf(state));
+    if (entry == null) {
+      return Optional.empty();
+    }
+    return OpeningBook.moveOnPosition(state, entry.getMove().index());
+  }
+
+  private static int diskCount(GameState state) {
+    return Long.bitCount(
+        state.getDisksOnField(Player.WHITE) | state.getDisksOnField(Player.BLACK));
+  }
+
+  private static int nthBit(long mask, int n) {
+    long rest = mask;
+    for (int i = 0; i < n; i++) {
+      rest &= rest - 1;
+    }
+    return Long.numberOfTrailingZeros(rest);
+  }
+
+  /**
+   * Builds an opening book from the command line.
+   *
+   * @param args The file of the book, the search depth, the number of self-play games, the maximum
+   *     number of plies and the maximum number of positions.
+   * @throws IOException if the book can't be read or written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println(
+          "Usage: OpeningBookBuilder file [depth] [games] [max plies] [max positions]");
+      System.exit(1);
+    }
+    Path file = Paths.get(args[0]);
+    int depth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEPTH;
+    int games = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+    int maxPlies = args.length > 3 ? Integer.parseInt(args[3]) : 12;
+    int maxPositions = args.length > 4 ? Integer.parseInt(args[4]) : 5000;
+
+    OpeningBookBuilder builder = new OpeningBookBuilder(file, depth, maxPlies, maxPositions);
+    long start = System.nanoTime();
+    try {
+      builder.build(games, 20200126L);
+    } finally {
+      builder.shutdown();
+    }
+    System.out.printf(
+        "%d positions scored, %d reused in %.1f s%n",
+        builder.getScoredPositions(),
+        builder.getReusedPositions(),
+        (System.nanoTime() - start) / 1e9);
+  }
+
+  /** A position that may be added to the book. */
+  private static class Candidate {
+
+    private final long key;
+    private final GameState state;
+    private int count;
+    private boolean expanded;
+
+    Candidate(long key, GameState state, int count) {
+      this.key = key;
+      this.state = state;
+      this.count = count;
+    }
+  }
+}
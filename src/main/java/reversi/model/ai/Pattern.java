@@ -0,0 +1,270 @@
+package reversi.model.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import reversi.model.Bitboard;
+import reversi.model.GameField;
+
+/**
+ * A pattern of cells whose contents are rated as a whole by a {@link PatternAssessor}, e.g. an
+ * edge of the board. The pattern is placed on the board several times, once for every distinct
+ * set of cells that the {@link Bitboard#transform(long, int) symmetries} of the board map it to.
+ *
+ * <p>The contents of the cells of a placement are read as a number in base 3, whose digit
+ * <code>i</code> is the content of the <code>i</code>-th cell: 0 for an empty cell, 1 for a disk of
+ * {@link reversi.model.Player#WHITE} and 2 for a disk of {@link reversi.model.Player#BLACK}. This
+ * index selects the score of the placement from the table of the pattern.
+ *
+ * <p>Instead of reading the cells one by one, the contents of a placement are read from the
+ * transformed field on which the placement lies on the cells of the pattern itself: the disks of
+ * either player on these cells are gathered into the bits of an <code>int</code> by a few shifts
+ * and masks, which are then converted into base 3 by a lookup.
+ */
+enum Pattern {
+
+  /** The edges of the board. */
+  EDGE(cells(0, 0, 0, 1, 0, 2, 0, 3, 0, 4, 0, 5, 0, 6, 0, 7)),
+
+  /** The three by three cells in the corners of the board. */
+  CORNER(cells(0, 0, 0, 1, 0, 2, 1, 0, 1, 1, 1, 2, 2, 0, 2, 1, 2, 2)),
+
+  /** The two diagonals of the board. */
+  DIAGONAL(cells(0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7)),
+
+  /** The two by five cells along the edges next to the corners. */
+  CORNER_REGION(cells(0, 0, 1, 0, 2, 0, 3, 0, 4, 0, 0, 1, 1, 1, 2, 1, 3, 1, 4, 1));
+
+  /**
+   * All patterns a {@link PatternAssessor} rates, in the order of its tables.
+   */
+  static final List<Pattern> ALL = List.of(values());
+
+  private static final long DIAGONAL_MASK = 0x8040201008040201L;
+
+  private static final long FIRST_ROW_OF_FIVE_COLUMNS = 0x0000000101010101L;
+
+  // multiplying by these gathers the masked cells into the highest byte, without any carries
+  private static final long GATHER_DIAGONAL = 0x0101010101010101L;
+
+  private static final long GATHER_ROW = 0x0102040810000000L;
+
+  // the value in base 3 of the digits 0 and 1 that are the bits of the index
+  private static final int[] TERNARY = computeTernary(10);
+
+  private final int size;
+  private final int[][] placements;
+  private final int[] fieldSymmetries;
+  private final int[] canonicalIndices;
+
+  Pattern(int[] cells) {
+    size = cells.length;
+
+    // the placements are the transformed cells, in the transformed order
+    List<int[]> distinctPlacements = new ArrayList<>();
+    List<Integer> symmetries = new ArrayList<>();
+    List<Long> masks = new ArrayList<>();
+    List<int[]> selfSymmetries = new ArrayList<>();
+    for (int symmetry = 0; symmetry < Bitboard.SYMMETRY_COUNT; symmetry++) {
+      int[] placement = new int[size];
+      long mask = 0L;
+      for (int i = 0; i < size; i++) {
+        placement[i] = Long.numberOfTrailingZeros(Bitboard.transform(1L << cells[i], symmetry));
+        mask |= 1L << placement[i];
+      }
+
+      if (mask == maskOf(cells)) {
+        selfSymmetries.add(placement);
+      }
+      if (!masks.contains(mask)) {
+        masks.add(mask);
+        distinctPlacements.add(placement);
+        symmetries.add(inverse(symmetry));
+      }
+    }
+    placements = distinctPlacements.toArray(new int[0][]);
+    fieldSymmetries = symmetries.stream().mapToInt(Integer::intValue).toArray();
+    canonicalIndices = computeCanonicalIndices(cells, selfSymmetries);
+  }
+
+  /**
+   * Return the number of cells of this pattern.
+   *
+   * @return the size of the pattern.
+   */
+  int getSize() {
+    return size;
+  }
+
+  /**
+   * Return the number of different contents of this pattern, i.e. the size of its table.
+   *
+   * @return three to the power of the size.
+   */
+  int getIndexCount() {
+    return canonicalIndices.length;
+  }
+
+  /**
+   * Return the cells of all placements of this pattern on the board.
+   *
+   * @return the bit indices of the cells, per placement.
+   */
+  int[][] getPlacements() {
+    return placements;
+  }
+
+  /**
+   * Return the symmetry per placement under which the field has to be {@link
+   * Bitboard#transform(long, int) transformed}, so that the placement lies on the cells of the
+   * pattern and its index can be read by {@link #indexOf(long, long)}.
+   *
+   * @return the symmetries of the field, in the order of the placements.
+   */
+  int[] getFieldSymmetries() {
+    return fieldSymmetries;
+  }
+
+  /**
+   * Return the smallest index of all contents that a symmetry of the board turns into the given
+   * contents while keeping the cells of the pattern, e.g. the reversed contents of an edge. Such
+   * contents have to be rated equally, so that the rating doesn't depend on the symmetry of the
+   * board.
+   *
+   * @param index The index of the contents.
+   * @return The index that represents all equivalent contents.
+   */
+  int canonicalIndex(int index) {
+    return canonicalIndices[index];
+  }
+
+  /**
+   * Computes the index of the contents of the cells of this pattern itself, i.e. of the placement
+   * that isn't transformed.
+   *
+   * @param white The disks of the white player.
+   * @param black The disks of the black player.
+   * @return The index of the contents in base 3.
+   */
+  int indexOf(long white, long black) {
+    return TERNARY[gather(white)] + 2 * TERNARY[gather(black)];
+  }
+
+  /**
+   * Computes the index of the contents of one placement of this pattern cell by cell, as a
+   * reference for {@link #indexOf(long, long)}.
+   *
+   * @param placement The bit indices of the cells of the placement.
+   * @param white The disks of the white player.
+   * @param black The disks of the black player.
+   * @return The index of the contents in base 3.
+   */
+  static int indexOf(int[] placement, long white, long black) {
+    int index = 0;
+    for (int i = placement.length - 1; i >= 0; i--) {
+      int digit = (int) (white >>> placement[i]) & 1 | ((int) (black >>> placement[i]) & 1) << 1;
+      index = index * 3 + digit;
+    }
+    return index;
+  }
+
+  /**
+   * Gathers the bits of the cells of this pattern, so that bit <code>i</code> of the result is the
+   * <code>i</code>-th cell.
+   */
+  private int gather(long bits) {
+    switch (this) {
+      case EDGE:
+        return (int) bits & 0xFF;
+      case CORNER:
+        return (int) bits & 0x7 | (int) (bits >>> 5) & 0x38 | (int) (bits >>> 10) & 0x1C0;
+      case DIAGONAL:
+        return (int) ((bits & DIAGONAL_MASK) * GATHER_DIAGONAL >>> 56);
+      case CORNER_REGION:
+        return (int) ((bits & FIRST_ROW_OF_FIVE_COLUMNS) * GATHER_ROW >>> 56)
+            | (int) ((bits >>> 1 & FIRST_ROW_OF_FIVE_COLUMNS) * GATHER_ROW >>> 56) << 5;
+      default:
+        throw new AssertionError("Unknown pattern: " + this);
+    }
+  }
+
+  /**
+   * Return the symmetry that undoes the given one. Mirroring the columns after transposing equals
+   * transposing after mirroring the rows, so the mirrors are swapped if the symmetry transposes.
+   */
+  private static int inverse(int symmetry) {
+    if ((symmetry & 4) == 0) {
+      return symmetry;
+    }
+    return 4 | (symmetry & 1) << 1 | (symmetry & 2) >> 1;
+  }
+
+  private static int[] computeTernary(int bits) {
+    int[] ternary = new int[1 << bits];
+    for (int value = 1; value < ternary.length; value++) {
+      int highestBit = 31 - Integer.numberOfLeadingZeros(value);
+      ternary[value] = ternary[value & ~(1 << highestBit)] + power(highestBit);
+    }
+    return ternary;
+  }
+
+  private static int power(int exponent) {
+    int power = 1;
+    for (int i = 0; i < exponent; i++) {
+      power *= 3;
+    }
+    return power;
+  }
+
+  private static int[] computeCanonicalIndices(int[] cells, List<int[]> selfSymmetries) {
+    int indexCount = power(cells.length);
+    int[] canonical = new int[indexCount];
+    int[] digits = new int[cells.length];
+    for (int index = 0; index < indexCount; index++) {
+      int rest = index;
+      for (int i = 0; i < cells.length; i++) {
+        digits[i] = rest % 3;
+        rest /= 3;
+      }
+
+      // read the contents along every ordering of the cells that a symmetry yields
+      int smallest = index;
+      for (int[] placement : selfSymmetries) {
+        int permuted = 0;
+        for (int i = cells.length - 1; i >= 0; i--) {
+          permuted = permuted * 3 + digits[positionOf(cells, placement[i])];
+        }
+        smallest = Math.min(smallest, permuted);
+      }
+      canonical[index] = smallest;
+    }
+    return canonical;
+  }
+
+  private static int positionOf(int[] cells, int cell) {
+    for (int i = 0; i < cells.length; i++) {
+      if (cells[i] == cell) {
+        return i;
+      }
+    }
+    throw new AssertionError("Cell is not part of the pattern: " + cell);
+  }
+
+  private static long maskOf(int[] cells) {
+    return Arrays.stream(cells).mapToLong(cell -> 1L << cell).reduce(0L, (a, b) -> a | b);
+  }
+
+  /**
+   * Converts pairs of column and row into bit indices.
+   *
+   * @param columnsAndRows The column and the row of every cell.
+   * @return The bit indices of the cells.
+   */
+  private static int[] cells(int... columnsAndRows) {
+    int[] cells = new int[columnsAndRows.length / 2];
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = columnsAndRows[2 * i] * GameField.SIZE + columnsAndRows[2 * i + 1];
+    }
+    return cells;
+  }
+}
@@ -0,0 +1,256 @@
+package reversi.model.ai;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import reversi.model.Bitboard;
+import reversi.model.GameState;
+import reversi.model.Player;
+
+/**
+ * Assessment class that rates the {@link GameState} by looking up the contents of the edges, the
+ * corners, the diagonals and the regions next to the corners in precomputed tables, see {@link
+ * Pattern}. A rating takes one lookup per placement of a pattern, i.e. {@value #PLACEMENT_COUNT}
+ * lookups, instead of the several passes over the field of the {@link ReversiAssessor}.
+ *
+ * <p>Every pattern has a table per phase of the game, which is determined by the number of disks
+ * on the field, because the contents of the cells matter differently in the opening and in the
+ * endgame. The default tables are loaded from the resource <code>patterns.bin</code> and are
+ * fitted to the ratings of the {@link ReversiAssessor} by the {@link PatternTrainer}. Like the
+ * {@link WinVelocityAssessor}, won and lost games are rated by their number of moves in addition.
+ * During a search, the indices of the placements can be read from an {@link
+ * IncrementalEvaluation} instead.
+ *
+ * <p>The tables are stored as a gzip-compressed stream of big-endian values: the magic number, the
+ * version, the number of phases and the number of patterns, followed by the tables ordered by
+ * phase and pattern. Each table starts with its length, followed by the scores multiplied by
+ * {@value #SCALE} as <code>short</code>.
+ */
+public class PatternAssessor implements IncrementalAssessor {
+
+  /** The number of phases of the game that have their own tables. */
+  public static final int PHASE_COUNT = 4;
+
+  /** The number of table lookups of a rating. */
+  public static final int PLACEMENT_COUNT = 18;
+
+  /** The factor the scores of the tables are stored with, so that they fit into a short. */
+  static final int SCALE = 16;
+
+  /** The first four bytes of a table stream, i.e. "RVPT" in ASCII. */
+  private static final int MAGIC = 0x52565054;
+
+  private static final int VERSION = 1;
+
+  private static final String DEFAULT_TABLES = "patterns.bin";
+
+  private static final Pattern[] PATTERNS = Pattern.ALL.toArray(new Pattern[0]);
+
+  /** The pattern of every placement, in the order of the patterns and their placements. */
+  static final int[] PLACEMENT_PATTERNS = placementPatterns();
+
+  /** The pattern of every placement that is read under a symmetry of the field, per symmetry. */
+  private static final int[][] SYMMETRY_PATTERNS = symmetryPatterns();
+
+  private final short[][][] tables;
+  private final WinVelocityAssessor winVelocity = new WinVelocityAssessor();
+
+  /**
+   * Creates a new instance of the {@link PatternAssessor} with the default tables.
+   *
+   * @throws UncheckedIOException if the default tables can't be read.
+   */
+  public PatternAssessor() {
+    this(DefaultTables.TABLES);
+  }
+
+  /**
+   * Creates a new instance of the {@link PatternAssessor} with the given tables.
+   *
+   * @param tables The scores per phase, pattern and index, as stored in a table stream.
+   */
+  PatternAssessor(short[][][] tables) {
+    this.tables = tables;
+  }
+
+  /**
+   * Reads the tables of an assessor from a stream, e.g. one that was written by {@link
+   * #write(OutputStream, short[][][])}. The stream isn't closed.
+   *
+   * @param in The table stream.
+   * @return The assessor with the tables of the stream.
+   * @throws IOException if the stream can't be read or contains no valid tables.
+   */
+  public static PatternAssessor load(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(new GZIPInputStream(in));
+    if (data.readInt() != MAGIC) {
+      throw new IOException("Not a pattern table stream");
+    }
+    int version = data.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported version of pattern tables: " + version);
+    }
+    if (data.readInt() != PHASE_COUNT || data.readInt() != PATTERNS.length) {
+      throw new IOException("Pattern tables don't match the patterns");
+    }
+
+    short[][][] tables = new short[PHASE_COUNT][PATTERNS.length][];
+    for (int phase = 0; phase < PHASE_COUNT; phase++) {
+      for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+        if (data.readInt() != PATTERNS[pattern].getIndexCount()) {
+          throw new IOException("Pattern table has the wrong size: " + PATTERNS[pattern]);
+        }
+        short[] table = new short[PATTERNS[pattern].getIndexCount()];
+        for (int index = 0; index < table.length; index++) {
+          table[index] = data.readShort();
+        }
+        tables[phase][pattern] = table;
+      }
+    }
+    return new PatternAssessor(tables);
+  }
+
+  /**
+   * Writes tables to a stream in the format that {@link #load(InputStream)} reads. The stream isn't
+   * closed.
+   *
+   * @param out The stream to write to.
+   * @param tables The scores per phase, pattern and index, multiplied by {@value #SCALE}.
+   * @throws IOException if the stream can't be written.
+   */
+  static void write(OutputStream out, short[][][] tables) throws IOException {
+    GZIPOutputStream compressed = new GZIPOutputStream(out);
+    DataOutputStream data = new DataOutputStream(compressed);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(PHASE_COUNT);
+    data.writeInt(PATTERNS.length);
+    for (short[][] phaseTables : tables) {
+      for (short[] table : phaseTables) {
+        data.writeInt(table.length);
+        for (short score : table) {
+          data.writeShort(score);
+        }
+      }
+    }
+    data.flush();
+    compressed.finish();
+  }
+
+  /**
+   * Return the phase of the game, whose tables rate a field with the given number of disks.
+   *
+   * @param diskCount The number of disks on the field.
+   * @return The phase, from zero to {@link #PHASE_COUNT} (exclusive).
+   */
+  static int phaseOf(int diskCount) {
+    return Math.min(PHASE_COUNT - 1, diskCount * PHASE_COUNT / 64);
+  }
+
+  @Override
+  public double computeValue(GameState state, Player minPlayer, int depth) {
+    assert minPlayer == Player.BLACK; // minPlayer is the human player
+
+    long white = state.getDisksOnField(Player.WHITE);
+    long black = state.getDisksOnField(Player.BLACK);
+    short[][] phaseTables = tables[phaseOf(Long.bitCount(white | black))];
+
+    // the same as Bitboard.transform(long, int) for every symmetry, but only transposing once
+    int score = 0;
+    for (int transposed = 0; transposed < Bitboard.SYMMETRY_COUNT; transposed += 4) {
+      long w = transposed == 0 ? white : Bitboard.transform(white, transposed);
+      long b = transposed == 0 ? black : Bitboard.transform(black, transposed);
+      score += rate(phaseTables, transposed, w, b);
+      score += rate(phaseTables, transposed + 1, Long.reverseBytes(w), Long.reverseBytes(b));
+      score +=
+          rate(
+              phaseTables,
+              transposed + 2,
+              Long.reverse(Long.reverseBytes(w)),
+              Long.reverse(Long.reverseBytes(b)));
+      score += rate(phaseTables, transposed + 3, Long.reverse(w), Long.reverse(b));
+    }
+    return (double) score / SCALE + winVelocity.computeValue(state, minPlayer, depth);
+  }
+
+  @Override
+  public double computeValue(
+      IncrementalEvaluation evaluation, GameState state, Player minPlayer, int depth) {
+    assert minPlayer == Player.BLACK; // minPlayer is the human player
+
+    short[][] phaseTables = tables[phaseOf(evaluation.getDiskCount())];
+    int score = 0;
+    for (int placement = 0; placement < PLACEMENT_COUNT; placement++) {
+      score += phaseTables[PLACEMENT_PATTERNS[placement]][evaluation.getPatternIndex(placement)];
+    }
+    return (double) score / SCALE + winVelocity.computeValue(state, minPlayer, depth);
+  }
+
+  private static int[] placementPatterns() {
+    int[] placementPatterns = new int[PLACEMENT_COUNT];
+    int placementIndex = 0;
+    for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+      for (int i = 0; i < PATTERNS[pattern].getPlacements().length; i++) {
+        placementPatterns[placementIndex++] = pattern;
+      }
+    }
+    return placementPatterns;
+  }
+
+  private static int[][] symmetryPatterns() {
+    int[][] symmetryPatterns = new int[Bitboard.SYMMETRY_COUNT][];
+    for (int symmetry = 0; symmetry < Bitboard.SYMMETRY_COUNT; symmetry++) {
+      int count = 0;
+      int[] patterns = new int[PLACEMENT_COUNT];
+      for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+        for (int fieldSymmetry : PATTERNS[pattern].getFieldSymmetries()) {
+          if (fieldSymmetry == symmetry) {
+            patterns[count++] = pattern;
+          }
+        }
+      }
+      symmetryPatterns[symmetry] = Arrays.copyOf(patterns, count);
+    }
+    return symmetryPatterns;
+  }
+
+  /**
+   * Rates the placements that are read under the given symmetry.
+   *
+   * @param phaseTables The tables of the phase of the game.
+   * @param symmetry The symmetry of the field.
+   * @param white The disks of the white player, transformed by the symmetry.
+   * @param black The disks of the black player, transformed by the symmetry.
+   * @return the sum of the table entries of the placements.
+   */
+  private static int rate(short[][] phaseTables, int symmetry, long white, long black) {
+    int score = 0;
+    for (int pattern : SYMMETRY_PATTERNS[symmetry]) {
+      score += phaseTables[pattern][PATTERNS[pattern].indexOf(white, black)];
+    }
+    return score;
+  }
+
+  /** Holds the default tables, which are read once when they are used first. */
+  private static final class DefaultTables {
+
+    private static final short[][][] TABLES = read();
+
+    private static short[][][] read() {
+      try (InputStream in = PatternAssessor.class.getResourceAsStream(DEFAULT_TABLES)) {
+        if (in == null) {
+          throw new IOException("Missing resource: " + DEFAULT_TABLES);
+        }
+        return load(in).tables;
+      } catch (IOException e) {
+        throw new UncheckedIOException("Can't read the default pattern tables", e);
+      }
+    }
+  }
+}
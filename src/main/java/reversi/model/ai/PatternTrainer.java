@@ -0,0 +1,248 @@
+package reversi.model.ai;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import reversi.model.Bitboard;
+import reversi.model.Cell;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.Reversi;
+
+/**
+ * Computes the tables of a {@link PatternAssessor} by fitting them to the ratings of the {@link
+ * ReversiAssessor} on the positions of random games. The tables are fitted with stochastic gradient
+ * descent on the squared error, where all contents of a pattern that are equivalent under a
+ * symmetry share one score, see {@link Pattern#canonicalIndex(int)}.
+ *
+ * <p>Usage: <code>PatternTrainer file [games] [epochs]</code>, e.g. through <code>
+ * gradle trainPatterns --args="src/main/resources/reversi/model/ai/patterns.bin 30000 12"</code>.
+ */
+public class PatternTrainer {
+
+  /** The number of passes over all positions if none is given. */
+  public static final int DEFAULT_EPOCHS = 12;
+
+  private static final double LEARNING_RATE = 0.01;
+
+  private static final Pattern[] PATTERNS = Pattern.ALL.toArray(new Pattern[0]);
+
+  private final StateAssessor reference = new ReversiAssessor();
+
+  // the scores per phase, pattern and canonical index
+  private final float[][][] weights = new float[PatternAssessor.PHASE_COUNT][PATTERNS.length][];
+
+  private final List<Sample> samples = new ArrayList<>();
+
+  /**
+   * Creates a new instance of the {@link PatternTrainer} whose tables are all zero.
+   */
+  public PatternTrainer() {
+    for (float[][] phaseWeights : weights) {
+      for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+        phaseWeights[pattern] = new float[PATTERNS[pattern].getIndexCount()];
+      }
+    }
+  }
+
+  /**
+   * Adds the running positions of random games to the positions the tables are fitted to.
+   *
+   * @param games The number of games to play.
+   * @param seed The seed of the random moves.
+   */
+  public void addRandomGames(int games, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    for (int game = 0; game < games; game++) {
+      Reversi reversi = new Reversi();
+      while (reversi.getState().getCurrentPhase() == Phase.RUNNING) {
+        addPosition(reversi.getState());
+        Player player = reversi.getState().getCurrentPlayer();
+        List<Cell> cells = new ArrayList<>(reversi.getPossibleMovesForPlayer(player));
+        reversi.move(cells.get(random.nextInt(cells.size())));
+      }
+    }
+  }
+
+  /**
+   * Adds a position with its rating by the {@link ReversiAssessor} to the positions the tables are
+   * fitted to.
+   *
+   * @param gameState The position.
+   */
+  public void addPosition(GameState gameState) {
+    long white = gameState.getDisksOnField(Player.WHITE);
+    long black = gameState.getDisksOnField(Player.BLACK);
+    int[] indices = new int[PatternAssessor.PLACEMENT_COUNT];
+    int placementIndex = 0;
+    for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+      for (int symmetry : PATTERNS[pattern].getFieldSymmetries()) {
+        int index =
+            PATTERNS[pattern].indexOf(
+                Bitboard.transform(white, symmetry), Bitboard.transform(black, symmetry));
+        indices[placementIndex++] = PATTERNS[pattern].canonicalIndex(index);
+      }
+    }
+
+    samples.add(
+        new Sample(
+            PatternAssessor.phaseOf(Long.bitCount(white | black)),
+            indices,
+            (float) reference.computeValue(gameState, Player.BLACK, 1)));
+  }
+
+  /**
+   * Return the number of positions the tables are fitted to.
+   *
+   * @return the number of positions.
+   */
+  public int getPositionCount() {
+    return samples.size();
+  }
+
+  /**
+   * Fits the tables to the positions.
+   *
+   * @param epochs The number of passes over all positions.
+   * @param seed The seed of the order of the positions.
+   * @return The mean absolute error of the rating after the last pass.
+   */
+  public double train(int epochs, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    double learningRate = LEARNING_RATE;
+    for (int epoch = 0; epoch < epochs; epoch++) {
+      // visit the positions in a different order in every pass
+      for (int i = samples.size() - 1; i > 0; i--) {
+        int j = random.nextInt(i + 1);
+        Sample sample = samples.get(i);
+        samples.set(i, samples.get(j));
+        samples.set(j, sample);
+      }
+
+      for (Sample sample : samples) {
+        float[][] phaseWeights = weights[sample.phase];
+        float change = (float) (learningRate * (sample.target - predict(sample)));
+        for (int i = 0; i < sample.indices.length; i++) {
+          phaseWeights[PatternAssessor.PLACEMENT_PATTERNS[i]][sample.indices[i]] += change;
+        }
+      }
+      learningRate *= 0.8;
+    }
+    return meanAbsoluteError();
+  }
+
+  /**
+   * Return the mean absolute error of the rating by the current tables over all positions.
+   *
+   * @return the mean absolute error, or zero without positions.
+   */
+  public double meanAbsoluteError() {
+    double error = 0;
+    for (Sample sample : samples) {
+      error += Math.abs(sample.target - predict(sample));
+    }
+    return samples.isEmpty() ? 0 : error / samples.size();
+  }
+
+  /**
+   * Return the current tables in the format of a {@link PatternAssessor}, i.e. with the scores of
+   * all indices multiplied by {@link PatternAssessor#SCALE}.
+   *
+   * @return the scores per phase, pattern and index.
+   */
+  short[][][] getTables() {
+    short[][][] tables = new short[PatternAssessor.PHASE_COUNT][PATTERNS.length][];
+    for (int phase = 0; phase < PatternAssessor.PHASE_COUNT; phase++) {
+      for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+        short[] table = new short[PATTERNS[pattern].getIndexCount()];
+        for (int index = 0; index < table.length; index++) {
+          float score = weights[phase][pattern][PATTERNS[pattern].canonicalIndex(index)];
+          table[index] =
+              (short)
+                  Math.max(
+                      Short.MIN_VALUE,
+                      Math.min(Short.MAX_VALUE, Math.round(score * PatternAssessor.SCALE)));
+        }
+        tables[phase][pattern] = table;
+      }
+    }
+    return tables;
+  }
+
+  /**
+   * Return an assessor with the current tables.
+   *
+   * @return the pattern assessor.
+   */
+  public PatternAssessor toAssessor() {
+    return new PatternAssessor(getTables());
+  }
+
+  /**
+   * Writes the current tables to a file, which can be read by {@link
+   * PatternAssessor#load(java.io.InputStream)}.
+   *
+   * @param file The file to write.
+   * @throws IOException if the file can't be written.
+   */
+  public void write(Path file) throws IOException {
+    try (OutputStream out = Files.newOutputStream(file)) {
+      PatternAssessor.write(out, getTables());
+    }
+  }
+
+  private float predict(Sample sample) {
+    float[][] phaseWeights = weights[sample.phase];
+    float prediction = 0;
+    for (int i = 0; i < sample.indices.length; i++) {
+      prediction += phaseWeights[PatternAssessor.PLACEMENT_PATTERNS[i]][sample.indices[i]];
+    }
+    return prediction;
+  }
+
+  /**
+   * Fits the tables to random games and writes them to a file.
+   *
+   * @param args The file, the number of games and the number of passes.
+   * @throws IOException if the file can't be written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: PatternTrainer file [games] [epochs]");
+      System.exit(1);
+    }
+    Path file = Paths.get(args[0]);
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 30000;
+    int epochs = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_EPOCHS;
+
+    long start = System.nanoTime();
+    PatternTrainer trainer = new PatternTrainer();
+    trainer.addRandomGames(games, 4711);
+    double error = trainer.train(epochs, 42);
+    trainer.write(file);
+
+    System.out.printf(
+        "%d positions, mean absolute error %.2f in %.1f s%n",
+        trainer.getPositionCount(), error, (System.nanoTime() - start) / 1e9);
+  }
+
+  /** A position with its rating, reduced to what fitting the tables needs. */
+  private static final class Sample {
+
+    private final int phase;
+    private final int[] indices;
+    private final float target;
+
+    private Sample(int phase, int[] indices, float target) {
+      this.phase = phase;
+      this.indices = indices;
+      this.target = target;
+    }
+  }
+}
@@ -1,14 +1,22 @@
 package reversi.model.ai;
 
 import java.util.Arrays;
-import java.util.List;
+import reversi.model.GameField;
 import reversi.model.GameState;
 import reversi.model.Player;
+import reversi.model.Reversi;
 
 /**
  * A composite assessor class that allows to compute the score for a given {@link
- * GameState}-instance. The class consists of several other assessor classes that do the actual work
- * of rating the various parts in the state.
+ * GameState}-instance. The score is the sum of the ratings of several other assessor classes, which
+ * rate the various parts in the state.
+ *
+ * <p>Instead of calling the other assessors one after another, the ratings are all computed from
+ * the disks of both players at once: the disk count, the corners and the static weights are
+ * counted with masks, the mobility is computed from the possible moves without creating a {@link
+ * Reversi} instance. The ratings are added in the same order and with the same arithmetic as by
+ * the other assessors, so the score is exactly the same. During a search, the disk count, the
+ * corners and the weights can be read from an {@link IncrementalEvaluation} instead.
  *
  * @see DiskCountAssessor
  * @see CornerAssessor
@@ -16,23 +24,98 @@ import reversi.model.Player;
  * @see WeightAssessor
  * @see WinVelocityAssessor
  */
-public class ReversiAssessor implements StateAssessor {
+public class ReversiAssessor implements IncrementalAssessor {
+
+  static final long CORNERS =
+      1L | 1L << GameField.SIZE - 1 | 1L << GameField.SIZE * (GameField.SIZE - 1) | 1L << 63;
+
+  private static final int CORNER_SCORE = 50;
+
+  // the cells with the same static weight, as one mask per weight
+  private static final int[] WEIGHTS;
+  private static final long[] WEIGHT_MASKS;
+
+  static {
+    int[][] staticWeights = new WeightAssessor().staticWeights;
+    int[] weights = new int[GameField.SIZE * GameField.SIZE];
+    long[] masks = new long[weights.length];
+    int count = 0;
+    for (int column = 0; column < GameField.SIZE; column++) {
+      for (int row = 0; row < GameField.SIZE; row++) {
+        int weight = staticWeights[column][row];
+        int i = 0;
+        while (i < count && weights[i] != weight) {
+          i++;
+        }
+        if (i == count) {
+          weights[count++] = weight;
+        }
+        masks[i] |= 1L << column * GameField.SIZE + row;
+      }
+    }
+    WEIGHTS = Arrays.copyOf(weights, count);
+    WEIGHT_MASKS = Arrays.copyOf(masks, count);
+  }
 
-  private static final List<StateAssessor> ASSESSORS =
-          Arrays.asList(
-                  new DiskCountAssessor(),
-                  new CornerAssessor(),
-                  new MobilityAssessor(),
-                  new WeightAssessor(),
-                  new WinVelocityAssessor()
-          );
+  private final WinVelocityAssessor winVelocity = new WinVelocityAssessor();
 
   @Override
   public double computeValue(GameState state, Player minPlayer, int depth) {
+    assert minPlayer == Player.BLACK; // minPlayer is the human player
+
+    long aiDisks = state.getDisksOnField(Player.WHITE); // ai player
+    long humanDisks = state.getDisksOnField(Player.BLACK); // human player
+
+    int aiCorners = Long.bitCount(aiDisks & CORNERS);
+    int humanCorners = Long.bitCount(humanDisks & CORNERS);
+
     double result = 0;
-    for (StateAssessor assessor : ASSESSORS) {
-      result += assessor.computeValue(state, minPlayer, depth);
-    }
+    result += Long.bitCount(aiDisks) - Long.bitCount(humanDisks);
+    result += CORNER_SCORE * (aiCorners - humanCorners);
+    result += mobility(state);
+    result += positionValues(aiDisks, humanDisks);
+    result += winVelocity.computeValue(state, minPlayer, depth);
+    return result;
+  }
+
+  @Override
+  public double computeValue(
+      IncrementalEvaluation evaluation, GameState state, Player minPlayer, int depth) {
+    assert minPlayer == Player.BLACK; // minPlayer is the human player
+
+    double result = 0;
+    result += evaluation.getDiskDifference();
+    result += CORNER_SCORE * evaluation.getCornerDifference();
+    result += mobility(state);
+    result += evaluation.getWeightSum();
+    result += winVelocity.computeValue(state, minPlayer, depth);
     return result;
   }
+
+  /**
+   * Rates the possible moves of both players, like the {@link MobilityAssessor}.
+   */
+  private static double mobility(GameState state) {
+    int numOfAiMoves = Long.bitCount(Reversi.getPossibleMoveMask(state, Player.WHITE));
+    int numOfHumanMoves = Long.bitCount(Reversi.getPossibleMoveMask(state, Player.BLACK));
+    if (numOfAiMoves + numOfHumanMoves == 0) {
+      return 0;
+    }
+
+    // computed as float, like the mobility assessor, so that the scores are the same
+    return (float) 100 * (numOfAiMoves - numOfHumanMoves) / (numOfAiMoves + numOfHumanMoves);
+  }
+
+  /**
+   * Sums up the static weights of the disks, like the {@link WeightAssessor}.
+   */
+  private static int positionValues(long aiDisks, long humanDisks) {
+    int positionValues = 0;
+    for (int i = 0; i < WEIGHTS.length; i++) {
+      long mask = WEIGHT_MASKS[i];
+      int disks = Long.bitCount(aiDisks & mask) - Long.bitCount(humanDisks & mask);
+      positionValues += WEIGHTS[i] * disks;
+    }
+    return positionValues;
+  }
 }
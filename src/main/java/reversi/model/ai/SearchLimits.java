@@ -0,0 +1,71 @@
+package reversi.model.ai;
+
+/**
+ * The budget of a single search of an {@link Engine}: how many moves it looks ahead at most, how
+ * many positions it visits at most, and how long it may take. Every limit can be switched off with
+ * {@link #NO_LIMIT}. Engines ignore limits that don't apply to them, e.g. the {@link
+ * MonteCarloTreeSearch} has no fixed depth and counts playouts instead of positions.
+ */
+public final class SearchLimits {
+
+  /** Value for limits that are switched off. */
+  public static final int NO_LIMIT = 0;
+
+  private final int maxDepth;
+  private final long maxNodes;
+  private final long maxMillis;
+
+  /**
+   * Creates new search limits.
+   *
+   * @param maxDepth The maximum number of moves to look ahead, or {@link #NO_LIMIT}.
+   * @param maxNodes The maximum number of positions or playouts of a search, or {@link #NO_LIMIT}.
+   * @param maxMillis The time budget of a search in milliseconds, or {@link #NO_LIMIT}.
+   */
+  public SearchLimits(int maxDepth, long maxNodes, long maxMillis) {
+    if (maxDepth < 0 || maxNodes < 0 || maxMillis < 0) {
+      throw new IllegalArgumentException("Limits must not be negative");
+    }
+    this.maxDepth = maxDepth;
+    this.maxNodes = maxNodes;
+    this.maxMillis = maxMillis;
+  }
+
+  /**
+   * Return the maximum number of moves a search looks ahead.
+   *
+   * @return the maximum depth, or {@link #NO_LIMIT}.
+   */
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Return the maximum number of positions or playouts of a search.
+   *
+   * @return the maximum number of nodes, or {@link #NO_LIMIT}.
+   */
+  public long getMaxNodes() {
+    return maxNodes;
+  }
+
+  /**
+   * Return the time budget of a search.
+   *
+   * @return the time budget in milliseconds, or {@link #NO_LIMIT}.
+   */
+  public long getMaxMillis() {
+    return maxMillis;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "depth %s, nodes %s, time %s",
+        format(maxDepth), format(maxNodes), maxMillis == NO_LIMIT ? "-" : maxMillis + " ms");
+  }
+
+  private static String format(long limit) {
+    return limit == NO_LIMIT ? "-" : String.valueOf(limit);
+  }
+}
@@ -0,0 +1,160 @@
+package reversi.model.ai;
+
+/**
+ * The statistics of a single search of the {@link MinimaxAlgorithm}, see {@link
+ * MinimaxAlgorithm#getSearchReport()}. The counts are summed over all threads and include the
+ * endgame solver, while the hit rates only cover the probes of this search.
+ */
+public final class SearchReport {
+
+  private final int depth;
+  private final long nodes;
+  private final long evaluations;
+  private final long cutoffs;
+  private final long firstMoveCutoffs;
+  private final double tableHitRate;
+  private final double cacheHitRate;
+  private final long elapsedNanos;
+
+  /**
+   * Creates a new report.
+   *
+   * @param depth The depth of the deepest completed iteration.
+   * @param nodes The number of visited positions.
+   * @param evaluations The number of positions rated at the end of the search.
+   * @param cutoffs The number of positions whose remaining moves were cut off.
+   * @param firstMoveCutoffs The number of cutoffs caused by the first move of a position.
+   * @param tableHitRate The share of transposition table probes that found their position.
+   * @param cacheHitRate The share of evaluation cache probes that found their position.
+   * @param elapsedNanos The duration of the search in nanoseconds.
+   */
+  SearchReport(
+      int depth,
+      long nodes,
+      long evaluations,
+      long cutoffs,
+      long firstMoveCutoffs,
+      double tableHitRate,
+      double cacheHitRate,
+      long elapsedNanos) {
+    this.depth = depth;
+    this.nodes = nodes;
+    this.evaluations = evaluations;
+    this.cutoffs = cutoffs;
+    this.firstMoveCutoffs = firstMoveCutoffs;
+    this.tableHitRate = tableHitRate;
+    this.cacheHitRate = cacheHitRate;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Return the depth of the deepest iteration that was completed, or the number of empty cells if
+   * the endgame was solved.
+   *
+   * @return the depth reached, or zero if the move was taken from the opening book.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Return the number of positions that were visited.
+   *
+   * @return the number of nodes.
+   */
+  public long getNodeCount() {
+    return nodes;
+  }
+
+  /**
+   * Return the number of positions that were rated at the end of the search, whether the rating
+   * was taken from the evaluation cache or not.
+   *
+   * @return the number of leaf evaluations.
+   */
+  public long getEvaluationCount() {
+    return evaluations;
+  }
+
+  /**
+   * Return the number of positions in which the search of the remaining moves was cut off.
+   *
+   * @return the number of beta cutoffs.
+   */
+  public long getCutoffCount() {
+    return cutoffs;
+  }
+
+  /**
+   * Return the share of cutoffs that were caused by the first move searched, which shows how well
+   * the moves are ordered.
+   *
+   * @return the first-move cutoff rate, from 0 to 1.
+   */
+  public double getFirstMoveCutoffRate() {
+    return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+  }
+
+  /**
+   * Return the effective branching factor, i.e. the number of moves per position a search of the
+   * reached depth without any pruning would need to visit the same number of positions.
+   *
+   * @return the effective branching factor, or zero if no depth was reached.
+   */
+  public double getEffectiveBranchingFactor() {
+    return depth == 0 || nodes == 0 ? 0 : Math.pow(nodes, 1.0 / depth);
+  }
+
+  /**
+   * Return the share of transposition table probes of this search that found their position.
+   *
+   * @return the hit rate, from 0 to 1.
+   */
+  public double getTableHitRate() {
+    return tableHitRate;
+  }
+
+  /**
+   * Return the share of evaluation cache probes of this search that found their position.
+   *
+   * @return the hit rate, from 0 to 1.
+   */
+  public double getCacheHitRate() {
+    return cacheHitRate;
+  }
+
+  /**
+   * Return the duration of the search.
+   *
+   * @return the elapsed time in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Return the throughput of the search over all threads.
+   *
+   * @return the number of nodes per second.
+   */
+  public double getNodesPerSecond() {
+    return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "depth %d, %d nodes, %d evaluations, %.0f nodes/s, branching factor %.2f, %d cutoffs "
+            + "(%.1f%% first move), table hits %.1f%%, cache hits %.1f%%, %.3f ms",
+        depth,
+        nodes,
+        evaluations,
+        getNodesPerSecond(),
+        getEffectiveBranchingFactor(),
+        cutoffs,
+        100 * getFirstMoveCutoffRate(),
+        100 * tableHitRate,
+        100 * cacheHitRate,
+        elapsedNanos / 1e6);
+  }
+}
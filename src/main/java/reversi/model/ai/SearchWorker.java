@@ -0,0 +1,528 @@
+package reversi.model.ai;
+
+import static reversi.model.Player.getOpponentOf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import reversi.model.Cell;
+import reversi.model.GameField;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.Reversi;
+
+/**
+ * A single thread of the search of a {@link MinimaxAlgorithm}. Each worker searches on its own copy
+ * of the game state and keeps its own move ordering and principal variation, while the {@link
+ * TranspositionTable} and the {@link EvaluationCache} are shared by all workers of an algorithm.
+ * The results the workers store in the table steer the other workers into different parts of the
+ * search tree.
+ */
+class SearchWorker {
+
+  /** The number of nodes searched between two checks of the budget of the search. */
+  static final int NODES_PER_CHECK = 1024;
+
+  private static final int CELL_COUNT = GameField.SIZE * GameField.SIZE;
+
+  /** The maximum depth of a search, as a game can't last longer than there are cells. */
+  private static final int MAX_PLY = CELL_COUNT;
+
+  private static final int KILLERS_PER_PLY = 2;
+
+  private static final int HASH_MOVE_SCORE = 1 << 30;
+  private static final int KILLER_MOVE_SCORE = 1 << 29;
+  private static final int MAX_HISTORY_SCORE = 1 << 20;
+
+  /**
+   * The static rank of each cell, which decides the order of moves that have no other score:
+   * corners first, then edges and inner cells, then the cells next to a corner, as they usually
+   * give the corner away to the opponent.
+   */
+  private static final int[] STATIC_RANKS = new int[CELL_COUNT];
+
+  static {
+    int last = GameField.SIZE - 1;
+    for (int index = 0; index < CELL_COUNT; index++) {
+      int column = index / GameField.SIZE;
+      int row = index % GameField.SIZE;
+      int columnDistance = Math.min(column, last - column);
+      int rowDistance = Math.min(row, last - row);
+
+      int rank;
+      if (columnDistance == 0 && rowDistance == 0) {
+        rank = 15; // corner
+      } else if (columnDistance == 1 && rowDistance == 1) {
+        rank = 0; // X-square, diagonally next to a corner
+      } else if (columnDistance + rowDistance == 1) {
+        rank = 4; // C-square, next to a corner on the edge
+      } else if (columnDistance == 0 || rowDistance == 0) {
+        rank = 10; // edge
+      } else {
+        rank = 8;
+      }
+      STATIC_RANKS[index] = rank;
+    }
+  }
+
+  private final MinimaxAlgorithm algorithm;
+  private final StateAssessor assessor;
+
+  /** The assessor as incremental one, or <code>null</code> if it doesn't support it. */
+  private final IncrementalAssessor incrementalAssessor;
+  private final TranspositionTable table;
+  private final TranspositionTable.Entry tableEntry = new TranspositionTable.Entry();
+  private final EvaluationCache evaluationCache;
+
+  /** Per ply of the search, the possible moves ordered by their scores. */
+  private final int[][] moveBuffers = new int[MAX_PLY][CELL_COUNT];
+  private final int[][] scoreBuffers = new int[MAX_PLY][CELL_COUNT];
+
+  /** Per ply, the last moves that caused a cutoff. */
+  private final int[][] killerMoves = new int[MAX_PLY][KILLERS_PER_PLY];
+
+  /** Per player and cell, how often and how deep moves to the cell caused a cutoff. */
+  private final int[][] historyScores = new int[Player.values().length][CELL_COUNT];
+
+  /**
+   * The principal variations of the current search, as a triangular table: the row of a ply holds
+   * the best line found for the position at that ply, starting at the column of the same ply.
+   */
+  private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+
+  private final int[] pvLengths = new int[MAX_PLY + 1];
+
+  private Reversi reversi;
+  private IncrementalEvaluation evaluation;
+  private boolean caching;
+  private Player maxPlayer; // the AI player
+  private Player minPlayer; // the human player
+  private int lookAhead;
+  private int completedDepth;
+  private long nodes;
+  private long evaluations;
+  private long cutoffs;
+  private long firstMoveCutoffs;
+  private boolean aborted;
+
+  /**
+   * Creates a new worker that searches for the given algorithm.
+   *
+   * @param algorithm The algorithm whose budget the worker keeps and to which it reports.
+   * @param assessor The assessor of the positions at the end of the search.
+   * @param table The transposition table shared by all workers of the algorithm.
+   * @param evaluationCache The cache of the ratings shared by all workers of the algorithm.
+   */
+  SearchWorker(
+      MinimaxAlgorithm algorithm,
+      StateAssessor assessor,
+      TranspositionTable table,
+      EvaluationCache evaluationCache) {
+    this.algorithm = algorithm;
+    this.assessor = assessor;
+    incrementalAssessor =
+        assessor instanceof IncrementalAssessor ? (IncrementalAssessor) assessor : null;
+    this.table = table;
+    this.evaluationCache = evaluationCache;
+  }
+
+  /**
+   * Prepares the worker for a new search of the given state.
+   *
+   * @param gameState A copy of the state to search, which is owned by this worker.
+   * @param incremental Whether to rate the positions with an {@link IncrementalEvaluation}, if the
+   *     assessor supports it.
+   * @param caching Whether to look up the ratings of running games in the evaluation cache.
+   */
+  void prepare(GameState gameState, boolean incremental, boolean caching) {
+    // create a new reversi instance with a reference to this gameState,
+    // so that we get access to methods like move(), undoMove(), etc.
+    reversi = new Reversi(gameState);
+    if (incremental && incrementalAssessor != null) {
+      evaluation = new IncrementalEvaluation(gameState);
+      reversi.setMoveObserver(evaluation);
+    } else {
+      evaluation = null;
+    }
+    this.caching = caching;
+    maxPlayer = gameState.getCurrentPlayer();
+    minPlayer = getOpponentOf(maxPlayer);
+    completedDepth = 0;
+    clearStatistics();
+    aborted = false;
+    prepareMoveOrdering();
+  }
+
+  /** Clears the counters of the last search, also if the next move is found without searching. */
+  void clearStatistics() {
+    nodes = 0;
+    evaluations = 0;
+    cutoffs = 0;
+    firstMoveCutoffs = 0;
+  }
+
+  /**
+   * Searches with iterative deepening from the given depth on, and reports every completed
+   * iteration to the algorithm, until the depth limit is reached or the algorithm stops the search.
+   *
+   * @param firstDepth The depth of the first iteration.
+   * @param depthLimit The depth of the last iteration.
+   */
+  void run(int firstDepth, int depthLimit) {
+    for (lookAhead = firstDepth; lookAhead <= depthLimit; lookAhead++) {
+      double value = search(maxPlayer, 0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+      if (aborted) {
+        break;
+      }
+      completedDepth = lookAhead;
+      algorithm.reportIteration(lookAhead, value, copyPrincipalVariation());
+    }
+  }
+
+  /**
+   * Return the depth of the deepest iteration this worker completed in the current search.
+   *
+   * @return the completed depth, or zero if no iteration was completed.
+   */
+  int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Return the number of positions this worker visited in the current search.
+   *
+   * @return the number of nodes.
+   */
+  long getNodeCount() {
+    return nodes;
+  }
+
+  /**
+   * Return the number of cutoffs this worker had in the current search.
+   *
+   * @return the number of cutoffs.
+   */
+  long getCutoffCount() {
+    return cutoffs;
+  }
+
+  /**
+   * Return the number of positions this worker rated at the end of the current search.
+   *
+   * @return the number of leaf evaluations.
+   */
+  long getEvaluationCount() {
+    return evaluations;
+  }
+
+  /**
+   * Return the number of cutoffs this worker had in the current search that were caused by the
+   * first move of a position, i.e. by the best move according to the move ordering.
+   *
+   * @return the number of first-move cutoffs.
+   */
+  long getFirstMoveCutoffCount() {
+    return firstMoveCutoffs;
+  }
+
+  private List<Cell> copyPrincipalVariation() {
+    List<Cell> variation = new ArrayList<>(pvLengths[0]);
+    for (int ply = 0; ply < pvLengths[0]; ply++) {
+      variation.add(Cell.ofIndex(pvTable[0][ply]));
+    }
+    return Collections.unmodifiableList(variation);
+  }
+
+  /**
+   * Resets the killer moves of the previous search and ages its history scores, so that they still
+   * help ordering the moves but can be outweighed by the new search.
+   */
+  private void prepareMoveOrdering() {
+    for (int[] killers : killerMoves) {
+      Arrays.fill(killers, TranspositionTable.NO_MOVE);
+    }
+    for (int[] scores : historyScores) {
+      for (int index = 0; index < CELL_COUNT; index++) {
+        scores[index] /= 2;
+      }
+    }
+  }
+
+  /**
+   * Searches the current position with a principal variation search in negamax form. The value of
+   * a position is always seen from the player to move, so the value of a move is the negated value
+   * of the position it leads to. Only the first move of a position is searched with the full
+   * window; all further moves are searched with a null window that only proves them worse, and are
+   * searched again with the full window if that fails.
+   *
+   * @param player The player to move.
+   * @param ply The distance of the position to the root.
+   * @param alpha The value the player is already guaranteed.
+   * @param beta The value the opponent is already guaranteed, negated.
+   * @return The value of the position for the player to move. A value at or below alpha is an upper
+   *     bound, a value at or above beta a lower bound of the real value.
+   */
+  private double search(Player player, int ply, double alpha, double beta) {
+    if (++nodes % NODES_PER_CHECK == 0 && !aborted) {
+      aborted = algorithm.isOutOfBudget(this, NODES_PER_CHECK);
+    }
+    if (aborted) {
+      return 0;
+    }
+
+    pvLengths[ply] = ply;
+    GameState state = reversi.getState();
+    if (state.getCurrentPhase() == Phase.FINISHED || ply >= lookAhead) {
+      evaluations++;
+      double value = evaluate(state, ply);
+      return player == maxPlayer ? value : -value;
+    }
+
+    long key = state.getZobristKey();
+    int remainingDepth = lookAhead - ply;
+    int hashMove = probeTable(key);
+    // the root is always searched, as it has to determine the cell to move to
+    if (ply > 0 && isTableCutoff(remainingDepth, alpha, beta)) {
+      return tableEntry.getValue();
+    }
+
+    double alphaAtStart = alpha;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    int bestMove = TranspositionTable.NO_MOVE;
+    Player opponent = getOpponentOf(player);
+
+    int[] moves = moveBuffers[ply];
+    int moveCount = orderMoves(player, ply, hashMove);
+
+    for (int i = 0; i < moveCount; i++) {
+      reversi.move(Cell.ofIndex(moves[i]));
+
+      double value;
+      if (i == 0) {
+        value = -search(opponent, ply + 1, -beta, -alpha);
+      } else {
+        value = -search(opponent, ply + 1, -Math.nextUp(alpha), -alpha);
+        if (value > alpha && value < beta && !aborted) {
+          value = -search(opponent, ply + 1, -beta, -value);
+        }
+      }
+
+      reversi.undoMove();
+
+      if (aborted) {
+        // the result of an aborted search is incomplete and must not be used
+        return 0;
+      }
+
+      if (value > bestValue) {
+        bestValue = value;
+        bestMove = moves[i];
+      }
+
+      if (value > alpha) {
+        alpha = value;
+        updatePrincipalVariation(ply, moves[i]);
+      }
+
+      if (alpha >= beta) {
+        if (i == 0) {
+          firstMoveCutoffs++;
+        }
+        recordCutoff(player, ply, moves[i], remainingDepth);
+        break;
+      }
+    }
+
+    int bound =
+        bestValue <= alphaAtStart
+            ? TranspositionTable.UPPER_BOUND
+            : bestValue >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+    table.store(key, remainingDepth, bestValue, bound, bestMove);
+
+    return bestValue;
+  }
+
+  /**
+   * Rates a position at the end of the search. Ratings of running games don't depend on the ply, so
+   * they are looked up in and stored to the evaluation cache.
+   *
+   * @param state The position to rate.
+   * @param ply The distance of the position to the root.
+   * @return The rating of the position for the maximizing player.
+   */
+  private double evaluate(GameState state, int ply) {
+    if (!caching || state.getCurrentPhase() != Phase.RUNNING) {
+      return assess(state, ply);
+    }
+
+    long key = state.getZobristKey();
+    double value = evaluationCache.probe(key);
+    if (Double.isNaN(value)) {
+      value = assess(state, ply);
+      evaluationCache.store(key, value);
+    }
+    assert Double.compare(value, assessor.computeValue(state, minPlayer, ply)) == 0
+        : "Cached rating differs from the full rating";
+    return value;
+  }
+
+  /**
+   * Assesses a position, with the incremental evaluation if there is one. With assertions enabled,
+   * the incremental rating is checked against the full one.
+   *
+   * @param state The position to rate.
+   * @param ply The distance of the position to the root.
+   * @return The rating of the position for the maximizing player.
+   */
+  private double assess(GameState state, int ply) {
+    if (evaluation == null) {
+      return assessor.computeValue(state, minPlayer, ply);
+    }
+
+    double value = incrementalAssessor.computeValue(evaluation, state, minPlayer, ply);
+    assert evaluation.matches(state) : "Incremental evaluation is out of date";
+    assert Double.compare(value, assessor.computeValue(state, minPlayer, ply)) == 0
+        : "Incremental rating differs from the full rating";
+    return value;
+  }
+
+  /**
+   * Sets the principal variation of a position to the given move, followed by the principal
+   * variation of the position the move leads to.
+   *
+   * @param ply The distance of the position to the root.
+   * @param move The index of the cell of the best move of the position.
+   */
+  private void updatePrincipalVariation(int ply, int move) {
+    int[] variation = pvTable[ply];
+    variation[ply] = move;
+
+    int childLength = pvLengths[ply + 1];
+    System.arraycopy(pvTable[ply + 1], ply + 1, variation, ply + 1, childLength - ply - 1);
+    pvLengths[ply] = childLength;
+  }
+
+  /**
+   * Writes the possible moves of the player into the move buffer of the given ply, ordered from
+   * the most to the least promising one: the best move stored in the transposition table, the
+   * killer moves of the ply, and then all other moves by their history scores and {@link
+   * #STATIC_RANKS static ranks}.
+   *
+   * @param player The player to order the moves for.
+   * @param ply The distance of the position to the root.
+   * @param hashMove The best move stored for the position, or {@link TranspositionTable#NO_MOVE}.
+   * @return The number of possible moves.
+   */
+  private int orderMoves(Player player, int ply, int hashMove) {
+    int[] moves = moveBuffers[ply];
+    int[] scores = scoreBuffers[ply];
+    int[] killers = killerMoves[ply];
+    int[] history = historyScores[player.ordinal()];
+
+    int count = 0;
+    for (long mask = reversi.getPossibleMoveMask(player); mask != 0; mask &= mask - 1) {
+      int index = Long.numberOfTrailingZeros(mask);
+      int score;
+      if (index == hashMove) {
+        score = HASH_MOVE_SCORE;
+      } else if (index == killers[0]) {
+        score = KILLER_MOVE_SCORE + 1;
+      } else if (index == killers[1]) {
+        score = KILLER_MOVE_SCORE;
+      } else {
+        score = history[index] * 16 + STATIC_RANKS[index];
+      }
+
+      // insertion sort, which keeps moves with equal scores in their natural order
+      int position = count++;
+      while (position > 0 && scores[position - 1] < score) {
+        moves[position] = moves[position - 1];
+        scores[position] = scores[position - 1];
+        position--;
+      }
+      moves[position] = index;
+      scores[position] = score;
+    }
+    return count;
+  }
+
+  /**
+   * Remembers a move that caused a cutoff, so that it is tried early in other positions.
+   *
+   * @param player The player that made the move.
+   * @param ply The distance of the position to the root.
+   * @param move The index of the cell of the move.
+   * @param remainingDepth The depth the position was searched with.
+   */
+  private void recordCutoff(Player player, int ply, int move, int remainingDepth) {
+    cutoffs++;
+
+    int[] killers = killerMoves[ply];
+    if (killers[0] != move) {
+      killers[1] = killers[0];
+      killers[0] = move;
+    }
+
+    int[] history = historyScores[player.ordinal()];
+    history[move] += remainingDepth * remainingDepth;
+    if (history[move] > MAX_HISTORY_SCORE) {
+      for (int index = 0; index < CELL_COUNT; index++) {
+        history[index] /= 2;
+      }
+    }
+  }
+
+  /**
+   * Looks up a position in the transposition table. In case of success, the stored result can be
+   * read from {@link #tableEntry}.
+   *
+   * @param key The hash of the position.
+   * @return The best move stored for the position, or {@link TranspositionTable#NO_MOVE}.
+   */
+  private int probeTable(long key) {
+    if (!table.probe(key, tableEntry)) {
+      tableEntry.clear();
+    }
+    return tableEntry.getMove();
+  }
+
+  /**
+   * Checks whether the result of the last {@link #probeTable(long) probe} allows to skip the search
+   * of the position. In case of success, the stored value can be read from {@link #tableEntry}.
+   *
+   * @param remainingDepth The depth the position would have to be searched with.
+   * @param alpha The lower bound of the current search window.
+   * @param beta The upper bound of the current search window.
+   * @return <code>true</code> if the stored value can be returned, <code>false</code> otherwise.
+   */
+  private boolean isTableCutoff(int remainingDepth, double alpha, double beta) {
+    // values depend on the distance to the root, so only entries stored from the same root ply
+    // can be reused
+    if (!tableEntry.isFromCurrentSearch() || tableEntry.getDepth() < remainingDepth) {
+      return false;
+    }
+
+    boolean isCutoff;
+    switch (tableEntry.getBound()) {
+      case TranspositionTable.EXACT:
+        isCutoff = true;
+        break;
+      case TranspositionTable.LOWER_BOUND:
+        isCutoff = tableEntry.getValue() >= beta;
+        break;
+      case TranspositionTable.UPPER_BOUND:
+        isCutoff = tableEntry.getValue() <= alpha;
+        break;
+      default:
+        throw new AssertionError("Unhandled bound: " + tableEntry.getBound());
+    }
+
+    if (isCutoff) {
+      table.recordCutoff();
+    }
+    return isCutoff;
+  }
+}
@@ -0,0 +1,304 @@
+package reversi.model.ai;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table that stores the results of already searched positions, so that a
+ * position reached again through a different order of moves (a transposition) doesn't have to be
+ * searched again. Positions are identified by their {@link reversi.model.GameState#getZobristKey()
+ * Zobrist hash}.
+ *
+ * <p>The table consists of a power-of-two number of buckets with two entries each. The first entry
+ * of a bucket keeps the result of the deepest search (depth-preferred), unless it stems from an
+ * older search; the second entry always takes the newest result (always-replace). Each call of
+ * {@link #newSearch()} starts a new generation, which ages the entries of all previous searches.
+ *
+ * <p>Entries are written without locks. Every entry stores its key XOR-ed with its data, so an
+ * entry that was torn by concurrent writes simply doesn't match any key and is treated as a miss.
+ * The statistics aren't synchronized either, so they are only approximate while several threads
+ * share the table.
+ */
+public class TranspositionTable {
+
+  /** The value of the entry is the exact value of the position. */
+  public static final int EXACT = 0;
+
+  /** The value of the entry is a lower bound of the value of the position. */
+  public static final int LOWER_BOUND = 1;
+
+  /** The value of the entry is an upper bound of the value of the position. */
+  public static final int UPPER_BOUND = 2;
+
+  /** The move of an entry that has no best move. */
+  public static final int NO_MOVE = -1;
+
+  private static final int ENTRIES_PER_BUCKET = 2;
+  private static final int LONGS_PER_ENTRY = 3;
+  private static final int BYTES_PER_BUCKET = ENTRIES_PER_BUCKET * LONGS_PER_ENTRY * Long.BYTES;
+  private static final int BYTES_PER_MEGABYTE = 1 << 20;
+
+  private static final int DEPTH_BITS = 8;
+  private static final int BOUND_BITS = 2;
+  private static final int MOVE_BITS = 7;
+  private static final int BOUND_SHIFT = DEPTH_BITS;
+  private static final int MOVE_SHIFT = BOUND_SHIFT + BOUND_BITS;
+  private static final int GENERATION_SHIFT = MOVE_SHIFT + MOVE_BITS;
+  private static final int GENERATION_MASK = 0xFF;
+
+  /** Per entry: the key XOR-ed with the data, the value as raw bits, and the packed data. */
+  private final long[] table;
+  private final int bucketMask;
+
+  private int generation;
+
+  private long probes;
+  private long hits;
+  private long cutoffs;
+  private long stores;
+
+  /**
+   * Creates a new transposition table that uses at most the given amount of memory. The number of
+   * buckets is rounded down to a power of two.
+   *
+   * @param sizeInMegabytes The maximum size of the table in megabytes, at least one.
+   */
+  public TranspositionTable(int sizeInMegabytes) {
+    if (sizeInMegabytes < 1) {
+      throw new IllegalArgumentException("Size must be at least one megabyte: " + sizeInMegabytes);
+    }
+
+    long maxBuckets = (long) sizeInMegabytes * BYTES_PER_MEGABYTE / BYTES_PER_BUCKET;
+    int buckets = Integer.highestOneBit((int) Math.min(maxBuckets, 1 << 26));
+    table = new long[buckets * ENTRIES_PER_BUCKET * LONGS_PER_ENTRY];
+    bucketMask = buckets - 1;
+  }
+
+  /**
+   * Starts a new search. Entries stored by previous searches are kept, but may be replaced by
+   * results of the new search even if they were searched deeper.
+   */
+  public void newSearch() {
+    generation = (generation + 1) & GENERATION_MASK;
+  }
+
+  /** Removes all entries from the table and resets its statistics. */
+  public void clear() {
+    Arrays.fill(table, 0L);
+    probes = 0;
+    hits = 0;
+    cutoffs = 0;
+    stores = 0;
+  }
+
+  /**
+   * Looks up a position in the table. In case of success, the stored result is copied into the
+   * given entry.
+   *
+   * @param key The hash of the position.
+   * @param entry The entry to copy the result into.
+   * @return <code>true</code> if the position was found, <code>false</code> otherwise.
+   */
+  public boolean probe(long key, Entry entry) {
+    probes++;
+    int bucket = bucketOf(key);
+
+    for (int i = 0; i < ENTRIES_PER_BUCKET; i++) {
+      int slot = bucket + i * LONGS_PER_ENTRY;
+      long valueBits = table[slot + 1];
+      long data = table[slot + 2];
+      if ((table[slot] ^ valueBits ^ data) == key && data != 0) {
+        hits++;
+        entry.depth = (int) (data & ((1 << DEPTH_BITS) - 1));
+        entry.bound = (int) ((data >>> BOUND_SHIFT) & ((1 << BOUND_BITS) - 1));
+        entry.move = (int) ((data >>> MOVE_SHIFT) & ((1 << MOVE_BITS) - 1)) - 1;
+        entry.value = Double.longBitsToDouble(valueBits);
+        entry.fromCurrentSearch = (data >>> GENERATION_SHIFT) - 1 == generation;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Stores the result of a searched position.
+   *
+   * @param key The hash of the position.
+   * @param depth The remaining depth the position was searched with.
+   * @param value The value of the position.
+   * @param bound The type of the value, i.e. {@link #EXACT}, {@link #LOWER_BOUND} or {@link
+   *     #UPPER_BOUND}.
+   * @param move The index of the best move found, or {@link #NO_MOVE}.
+   */
+  public void store(long key, int depth, double value, int bound, int move) {
+    stores++;
+    int bucket = bucketOf(key);
+
+    // the data is never zero, as the generation part always has a bit set
+    long data =
+        Math.min(depth, (1 << DEPTH_BITS) - 1)
+            | (long) bound << BOUND_SHIFT
+            | (long) (move + 1) << MOVE_SHIFT
+            | (long) (generation + 1) << GENERATION_SHIFT;
+
+    long preferredData = table[bucket + 2];
+    boolean samePosition =
+        (table[bucket] ^ table[bucket + 1] ^ preferredData) == key && preferredData != 0;
+    boolean preferredIsStale =
+        preferredData == 0 || ((preferredData >>> GENERATION_SHIFT) - 1) != generation;
+    int preferredDepth = (int) (preferredData & ((1 << DEPTH_BITS) - 1));
+
+    int slot =
+        samePosition || preferredIsStale || depth >= preferredDepth
+            ? bucket
+            : bucket + LONGS_PER_ENTRY;
+
+    long valueBits = Double.doubleToLongBits(value);
+    table[slot] = key ^ valueBits ^ data;
+    table[slot + 1] = valueBits;
+    table[slot + 2] = data;
+  }
+
+  /**
+   * Records that a probed entry allowed to cut off the search of a position. This is only used for
+   * the statistics of the table.
+   */
+  public void recordCutoff() {
+    cutoffs++;
+  }
+
+  /**
+   * Return the share of probes that found their position in the table.
+   *
+   * @return the hit rate, from 0 to 1.
+   */
+  public double getHitRate() {
+    return probes == 0 ? 0 : (double) hits / probes;
+  }
+
+  /**
+   * Return the share of probes that allowed to cut off the search of the position.
+   *
+   * @return the cutoff rate, from 0 to 1.
+   */
+  public double getCutoffRate() {
+    return probes == 0 ? 0 : (double) cutoffs / probes;
+  }
+
+  /**
+   * Return the number of lookups since the table was created or cleared.
+   *
+   * @return the number of probes.
+   */
+  public long getProbes() {
+    return probes;
+  }
+
+  /**
+   * Return the number of lookups that found their position.
+   *
+   * @return the number of hits.
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Return the number of lookups that allowed to cut off the search.
+   *
+   * @return the number of cutoffs.
+   */
+  public long getCutoffs() {
+    return cutoffs;
+  }
+
+  /**
+   * Return the number of stored results.
+   *
+   * @return the number of stores.
+   */
+  public long getStores() {
+    return stores;
+  }
+
+  /**
+   * Return the number of entries the table can hold.
+   *
+   * @return the capacity of the table.
+   */
+  public int getCapacity() {
+    return table.length / LONGS_PER_ENTRY;
+  }
+
+  private int bucketOf(long key) {
+    return ((int) (key >>> 32 ^ key) & bucketMask) * ENTRIES_PER_BUCKET * LONGS_PER_ENTRY;
+  }
+
+  /**
+   * A mutable copy of a single entry of the table. Searches can reuse one instance for every probe,
+   * so probing doesn't allocate any objects.
+   */
+  public static class Entry {
+
+    private int depth;
+    private int bound;
+    private int move;
+    private double value;
+    private boolean fromCurrentSearch;
+
+    /**
+     * Return the remaining depth the position was searched with.
+     *
+     * @return the depth of the search.
+     */
+    public int getDepth() {
+      return depth;
+    }
+
+    /**
+     * Return the type of the value.
+     *
+     * @return {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}.
+     */
+    public int getBound() {
+      return bound;
+    }
+
+    /**
+     * Return the index of the best move found for the position.
+     *
+     * @return the cell index of the move, or {@link #NO_MOVE}.
+     */
+    public int getMove() {
+      return move;
+    }
+
+    /**
+     * Return the value of the position.
+     *
+     * @return the stored value.
+     */
+    public double getValue() {
+      return value;
+    }
+
+    /**
+     * Checks whether the entry was stored since the last call of {@link #newSearch()}, i.e. whether
+     * it belongs to the current generation.
+     *
+     * @return <code>true</code> if the entry belongs to the current search, <code>false</code>
+     *     otherwise.
+     */
+    public boolean isFromCurrentSearch() {
+      return fromCurrentSearch;
+    }
+
+    /** Resets the entry to one without any result, as if its position was never searched. */
+    void clear() {
+      depth = 0;
+      bound = EXACT;
+      move = NO_MOVE;
+      value = 0;
+      fromCurrentSearch = false;
+    }
+  }
+}
@@ -1,6 +1,5 @@
 package reversi.model.ai;
 
-import java.util.Set;
 import reversi.model.Cell;
 import reversi.model.GameState;
 import reversi.model.Player;
@@ -29,16 +28,18 @@ public class WeightAssessor implements StateAssessor {
 
     assert minPlayer == Player.BLACK; // minPlayer is the human player
 
-    Set<Cell> aiCells = state.getAllCellsOfPlayer(Player.WHITE); // ai player
-    Set<Cell> humanCells = state.getAllCellsOfPlayer(Player.BLACK); // human player
+    long aiDisks = state.getDisksOnField(Player.WHITE); // ai player
+    long humanDisks = state.getDisksOnField(Player.BLACK); // human player
 
     int positionValues = 0;
 
-    for (Cell cell : aiCells) {
+    for (long disks = aiDisks; disks != 0; disks &= disks - 1) {
+      Cell cell = Cell.ofIndex(Long.numberOfTrailingZeros(disks));
       positionValues += staticWeights[cell.getColumn()][cell.getRow()];
     }
 
-    for (Cell cell : humanCells) {
+    for (long disks = humanDisks; disks != 0; disks &= disks - 1) {
+      Cell cell = Cell.ofIndex(Long.numberOfTrailingZeros(disks));
       positionValues -= staticWeights[cell.getColumn()][cell.getRow()];
     }
 
@@ -85,10 +85,11 @@ public class DrawBoard extends JPanel implements PropertyChangeListener {
     // According to the game field place the disks on the reversi board.
     for (int i = 0; i < NUMBER_OF_ROWS; i++) {
       for (int j = 0; j < NUMBER_OF_COLUMNS; j++) {
-        if (model.getState().getField().get(new Cell(i, j)).isEmpty()) {
+        Cell cell = Cell.of(i, j);
+        if (model.getState().getField().get(cell).isEmpty()) {
 
           // Paint the disks, according to the state of the model.
-        } else if (model.getState().getField().get(new Cell(i, j)).get().getPlayer()
+        } else if (model.getState().getField().get(cell).get().getPlayer()
             == Player.WHITE) {
           g2d.setColor(DISK_COLOR_BRIGHT);
           g2d.fillOval(
@@ -96,7 +97,7 @@ public class DrawBoard extends JPanel implements PropertyChangeListener {
               j * FIELD_SIZE + Y_COORDINATE_ABOVE_LEFT,
               FIELD_SIZE,
               FIELD_SIZE);
-        } else if (model.getState().getField().get(new Cell(i, j)).get().getPlayer()
+        } else if (model.getState().getField().get(cell).get().getPlayer()
             == Player.BLACK) {
           g2d.setColor(DISK_COLOR_BLACK);
           g2d.fillOval(
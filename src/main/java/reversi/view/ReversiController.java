@@ -67,10 +67,16 @@ public class ReversiController extends MouseAdapter implements Controller {
     view.showLobby(model);
   }
 
-  /** Stops the current game and shows a message if an error occurred. */
+  /**
+   * Stops the current game and shows a message if an error occurred. A game against the ai is
+   * closed, as it is replaced by a new model for the next game.
+   */
   private void leaveCurrentGame() {
     try {
       Objects.requireNonNull(model).stopGame();
+      if (model instanceof AiReversi) {
+        ((AiReversi) model).close();
+      }
     } catch (IOException e) {
       JOptionPane.showMessageDialog(
           null,
@@ -153,8 +159,8 @@ public class ReversiController extends MouseAdapter implements Controller {
     if (mouseX > LAST_ROW || mouseY > LAST_ROW || mouseX < FIRST_ROW || mouseY < FIRST_ROW) {
 
       // Check which field the user has clicked.
-    } else if (model.getState().getField().get(new Cell(mouseX, mouseY)).isEmpty()) {
-      Cell to = new Cell(mouseX, mouseY);
+    } else if (model.getState().getField().get(Cell.of(mouseX, mouseY)).isEmpty()) {
+      Cell to = Cell.of(mouseX, mouseY);
       if (possibleMoves != null) {
         possibleMoves.clear();
       }
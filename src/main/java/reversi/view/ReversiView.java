@@ -7,7 +7,6 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.util.HashSet;
 import java.util.Optional;
 
 import javax.swing.JButton;
@@ -16,6 +15,7 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 
+import reversi.model.CellSet;
 import reversi.model.Model;
 import reversi.model.Phase;
 import reversi.model.Player;
@@ -246,7 +246,7 @@ public class ReversiView extends JPanel implements PropertyChangeListener {
   /** Deletes all current shown possible moves from the game board. */
   private void deletePossibleMoves() {
     if (controller.getPossibleMoves() != null) {
-      controller.setPossibleMoves(new HashSet<>());
+      controller.setPossibleMoves(new CellSet());
     }
     drawBoard.repaint();
   }
@@ -1,8 +1,18 @@
 package reversi.model;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import reversi.model.ai.Difficulty;
+import reversi.model.ai.Engine;
+import reversi.model.ai.MinimaxAlgorithm;
+import reversi.model.ai.SearchLimits;
 
 public class AiReversiTest {
 
@@ -18,11 +28,13 @@ public class AiReversiTest {
 
     Cell humanCell = new Cell(3, 3);
     aiReversi.move(humanCell);
+    aiReversi.getAiMove().join();
     Cell aiCell = new Cell(3, 4);
     Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
 
     humanCell = new Cell(4, 4);
     aiReversi.move(humanCell);
+    aiReversi.getAiMove().join();
     aiCell = new Cell(4, 3);
     Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
   }
@@ -31,31 +43,298 @@ public class AiReversiTest {
   void testMove() {
 
     aiReversi.move(new Cell(3, 3));
+    aiReversi.getAiMove().join();
     aiReversi.move(new Cell(4, 4));
+    aiReversi.getAiMove().join();
 
     Cell humanCell = new Cell(2, 4);
     aiReversi.move(humanCell);
+    aiReversi.getAiMove().join();
     Cell aiCell = new Cell(4, 5);
     Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
 
     humanCell = new Cell(5, 4);
     aiReversi.move(humanCell);
+    aiReversi.getAiMove().join();
     aiCell = new Cell(2, 3);
     Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
 
     humanCell = new Cell(2, 2);
     aiReversi.move(humanCell);
+    aiReversi.getAiMove().join();
     aiCell = new Cell(1, 3);
     Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
 
     humanCell = new Cell(4, 2);
     aiReversi.move(humanCell);
+    aiReversi.getAiMove().join();
     aiCell = new Cell(1, 4);
     Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
 
     humanCell = new Cell(0, 4);
     aiReversi.move(humanCell);
+    aiReversi.getAiMove().join();
     aiCell = new Cell(0, 5);
     Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
   }
+
+  @Test
+  void testDifficulty_easyAiMoves() {
+    aiReversi = new AiReversi(Difficulty.EASY);
+    aiReversi.move(new Cell(3, 3));
+    Cell aiCell = aiReversi.getAiMove().join();
+
+    Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
+    Assertions.assertEquals(Player.BLACK, aiReversi.getState().getCurrentPlayer());
+  }
+
+  @Test
+  void testMove_rejectedWhileAiIsThinking() {
+    // the ai doesn't finish its search before the move of the human player was tried
+    CountDownLatch moveTried = new CountDownLatch(1);
+    Engine engine =
+        new MinimaxAlgorithm() {
+          @Override
+          public Cell determineCell(GameState gameState) {
+            try {
+              moveTried.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return super.determineCell(gameState);
+          }
+        };
+    aiReversi = new AiReversi(engine);
+    aiReversi.move(new Cell(3, 3));
+
+    Assertions.assertFalse(aiReversi.move(new Cell(4, 4)));
+    Assertions.assertFalse(aiReversi.getAiMove().isDone());
+    moveTried.countDown();
+    Assertions.assertNotNull(aiReversi.getAiMove().join());
+    Assertions.assertEquals(Player.BLACK, aiReversi.getState().getCurrentPlayer());
+  }
+
+  /**
+   * Starts an unlimited search of the ai and waits until it runs. The ai searches on a single
+   * thread, so once the next search started, the one before is done.
+   *
+   * @return the engine of the ai.
+   */
+  private CountingEngine startUnlimitedSearch() throws InterruptedException {
+    CountingEngine engine =
+        new CountingEngine(new MinimaxAlgorithm(60, 0, MinimaxAlgorithm.NO_LIMIT, 1));
+    aiReversi = new AiReversi(engine);
+    aiReversi.move(new Cell(3, 3));
+    engine.awaitSearch();
+    return engine;
+  }
+
+  /**
+   * Plays the first move again after the running search was cancelled, and checks that the
+   * cancelled search didn't place a disk.
+   */
+  private void assertCancelledSearchDidNotMove(CountingEngine engine)
+      throws InterruptedException {
+    Assertions.assertTrue(aiReversi.move(new Cell(3, 3)));
+    engine.awaitSearch();
+    Assertions.assertEquals(1, aiReversi.getState().getField().getCellsOccupiedWithDisks().size());
+  }
+
+  @Test
+  void testNewGameAndStopGame_cancelAiMove() throws InterruptedException {
+    CountingEngine engine = startUnlimitedSearch();
+    CompletableFuture<Cell> aiMove = aiReversi.getAiMove();
+
+    aiReversi.newGame();
+    Assertions.assertTrue(aiMove.isCancelled());
+    // the stopped search must not place its disk on the new board
+    assertCancelledSearchDidNotMove(engine);
+
+    aiMove = aiReversi.getAiMove();
+    aiReversi.stopGame();
+    Assertions.assertTrue(aiMove.isCancelled());
+  }
+
+  @Test
+  void testUndoMove_cancelsAiMove() throws InterruptedException {
+    final CountingEngine engine = startUnlimitedSearch();
+    CompletableFuture<Cell> aiMove = aiReversi.getAiMove();
+
+    aiReversi.undoMove();
+    Assertions.assertTrue(aiMove.isCancelled());
+    Assertions.assertTrue(aiReversi.getState().getField().getCellsOccupiedWithDisks().isEmpty());
+    // the stopped search must not place its disk on the position before the undone move
+    assertCancelledSearchDidNotMove(engine);
+    aiReversi.stopGame();
+  }
+
+  @Test
+  void testUndoMove_takesBackReplyOfAi() {
+    aiReversi = new AiReversi(Difficulty.EASY);
+    aiReversi.move(new Cell(3, 3));
+    aiReversi.getAiMove().join();
+    aiReversi.move(new Cell(4, 4));
+    aiReversi.getAiMove().join();
+
+    aiReversi.undoMove();
+    Assertions.assertEquals(Player.BLACK, aiReversi.getState().getCurrentPlayer());
+    Assertions.assertEquals(2, aiReversi.getState().getField().getCellsOccupiedWithDisks().size());
+    Assertions.assertTrue(aiReversi.getAiMove().isDone());
+
+    aiReversi.undoMove();
+    Assertions.assertEquals(Player.BLACK, aiReversi.getState().getCurrentPlayer());
+    Assertions.assertTrue(aiReversi.getState().getField().getCellsOccupiedWithDisks().isEmpty());
+  }
+
+  @Test
+  void testSetState_cancelsAiMove() throws InterruptedException {
+    final CountingEngine engine = startUnlimitedSearch();
+    CompletableFuture<Cell> aiMove = aiReversi.getAiMove();
+
+    aiReversi.setState(new GameState(new GameField()));
+    Assertions.assertTrue(aiMove.isCancelled());
+    Assertions.assertEquals(Player.BLACK, aiReversi.getState().getCurrentPlayer());
+    assertCancelledSearchDidNotMove(engine);
+    aiReversi.stopGame();
+  }
+
+  @Test
+  void testSetState_startsAiMoveOnItsTurn() {
+    Reversi reversi = new Reversi();
+    reversi.move(new Cell(3, 3));
+
+    aiReversi.setState(reversi.getState());
+    Cell aiCell = aiReversi.getAiMove().join();
+    Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
+    Assertions.assertEquals(Player.BLACK, aiReversi.getState().getCurrentPlayer());
+  }
+
+  @Test
+  void testAiMove_failsWithoutMove() {
+    Engine engine =
+        new MinimaxAlgorithm() {
+          @Override
+          public Cell determineCell(GameState gameState) {
+            return null;
+          }
+        };
+    aiReversi = new AiReversi(engine);
+    aiReversi.move(new Cell(3, 3));
+
+    CompletionException e =
+        Assertions.assertThrows(CompletionException.class, () -> aiReversi.getAiMove().join());
+    Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+  }
+
+  @Test
+  void testAiMove_failsWithIllegalMove() {
+    Engine engine =
+        new MinimaxAlgorithm() {
+          @Override
+          public Cell determineCell(GameState gameState) {
+            return new Cell(0, 0);
+          }
+        };
+    aiReversi = new AiReversi(engine, true);
+    aiReversi.move(new Cell(3, 3));
+
+    CompletionException e =
+        Assertions.assertThrows(CompletionException.class, () -> aiReversi.getAiMove().join());
+    Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+    Assertions.assertEquals(1, aiReversi.getState().getField().getCellsOccupiedWithDisks().size());
+    Assertions.assertTrue(aiReversi.getPonderMove().isEmpty());
+  }
+
+  @Test
+  void testClose_cancelsAiMoveAndClosesEngine() throws InterruptedException {
+    CountingEngine engine = startUnlimitedSearch();
+    CompletableFuture<Cell> aiMove = aiReversi.getAiMove();
+
+    aiReversi.close();
+    Assertions.assertTrue(aiMove.isCancelled());
+    Assertions.assertTrue(engine.closed);
+    Assertions.assertEquals(Phase.FINISHED, aiReversi.getState().getCurrentPhase());
+  }
+
+  @Test
+  void testPondering_hitUsesSearchOfPredictedMove() {
+    aiReversi = new AiReversi(new MinimaxAlgorithm(), true);
+    aiReversi.move(new Cell(3, 3));
+    aiReversi.getAiMove().join();
+
+    Cell predictedMove = aiReversi.getPonderMove().orElseThrow();
+    Assertions.assertTrue(aiReversi.move(predictedMove));
+    Cell aiCell = aiReversi.getAiMove().join();
+
+    Assertions.assertEquals(1, aiReversi.getPonderHits());
+    Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
+    Assertions.assertEquals(Player.BLACK, aiReversi.getState().getCurrentPlayer());
+  }
+
+  @Test
+  void testPondering_missSearchesActualMove() {
+    aiReversi = new AiReversi(new MinimaxAlgorithm(), true);
+    aiReversi.move(new Cell(3, 3));
+    aiReversi.getAiMove().join();
+
+    Cell predictedMove = aiReversi.getPonderMove().orElseThrow();
+    Cell otherMove =
+        aiReversi.getPossibleMovesForPlayer(Player.BLACK).stream()
+            .filter(cell -> !cell.equals(predictedMove))
+            .findFirst()
+            .orElseThrow();
+    Assertions.assertTrue(aiReversi.move(otherMove));
+    Cell aiCell = aiReversi.getAiMove().join();
+
+    Assertions.assertEquals(0, aiReversi.getPonderHits());
+    Assertions.assertTrue(aiReversi.getState().getField().isCellOfPlayer(Player.WHITE, aiCell));
+    Assertions.assertEquals(Player.BLACK, aiReversi.getState().getCurrentPlayer());
+  }
+
+  /**
+   * An engine that searches like the given one and counts the searches that started and whether it
+   * was closed.
+   */
+  private static class CountingEngine implements Engine {
+
+    private final Engine engine;
+    private final Semaphore searchesStarted = new Semaphore(0);
+    private volatile boolean closed;
+
+    CountingEngine(Engine engine) {
+      this.engine = engine;
+    }
+
+    /** Waits until the next search started. */
+    void awaitSearch() throws InterruptedException {
+      Assertions.assertTrue(searchesStarted.tryAcquire(10, TimeUnit.SECONDS));
+    }
+
+    @Override
+    public Cell determineCell(GameState gameState) {
+      searchesStarted.release();
+      return engine.determineCell(gameState);
+    }
+
+    @Override
+    public List<Cell> getPrincipalVariation() {
+      return engine.getPrincipalVariation();
+    }
+
+    @Override
+    public SearchLimits getSearchLimits() {
+      return engine.getSearchLimits();
+    }
+
+    @Override
+    public void stop() {
+      engine.stop();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      engine.close();
+    }
+  }
 }
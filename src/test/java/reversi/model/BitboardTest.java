@@ -0,0 +1,149 @@
+package reversi.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BitboardTest {
+
+  private static long bitOf(int column, int row) {
+    return 1L << (column * GameField.SIZE + row);
+  }
+
+  @Test
+  void testPossibleMoves_startPosition() {
+    // arrange
+    long black = bitOf(3, 3) | bitOf(4, 4);
+    long white = bitOf(3, 4) | bitOf(4, 3);
+
+    // act
+    long moves = Bitboard.possibleMoves(black, white);
+
+    // assert
+    long expected = bitOf(3, 5) | bitOf(5, 3) | bitOf(2, 4) | bitOf(4, 2);
+    Assertions.assertEquals(expected, moves);
+  }
+
+  @Test
+  void testPossibleMoves_noWrapAroundTheEdges() {
+    // a line running over the last row must not continue in the first row of the next column
+    long own = bitOf(0, 6);
+    long opponent = bitOf(0, 7);
+
+    long moves = Bitboard.possibleMoves(own, opponent);
+
+    Assertions.assertEquals(0L, moves);
+  }
+
+  @Test
+  void testPossibleMoves_longestLine() {
+    long own = bitOf(0, 0);
+    long opponent = 0L;
+    for (int i = 1; i < GameField.SIZE - 1; i++) {
+      opponent |= bitOf(i, i);
+    }
+
+    long moves = Bitboard.possibleMoves(own, opponent);
+
+    Assertions.assertEquals(bitOf(7, 7), moves);
+  }
+
+  @Test
+  void testFlips_matchListBasedFlipsOnRandomGames() {
+    Random random = new Random(20200126);
+
+    for (int game = 0; game < 200; game++) {
+      Reversi reversi = new Reversi();
+
+      while (reversi.getState().getCurrentPhase() == Phase.RUNNING) {
+        Player player = reversi.getState().getCurrentPlayer();
+        Cell move = RandomGames.chooseMove(reversi, random);
+
+        GameField before = new GameField(reversi.getState().getField());
+        long expected = listBasedFlips(before, move, player);
+        long actual =
+            Bitboard.flips(
+                move.getColumn() * GameField.SIZE + move.getRow(),
+                before.getDisksOf(player),
+                before.getDisksOf(Player.getOpponentOf(player)));
+        Assertions.assertEquals(expected, actual, "Flips differ for move to " + move);
+
+        Assertions.assertTrue(reversi.move(move));
+        GameField after = reversi.getState().getField();
+        Assertions.assertEquals(
+            before.getDisksOf(player) | actual | bitOf(move.getColumn(), move.getRow()),
+            after.getDisksOf(player));
+        Assertions.assertEquals(
+            before.getDisksOf(Player.getOpponentOf(player)) & ~actual,
+            after.getDisksOf(Player.getOpponentOf(player)));
+      }
+    }
+  }
+
+  /**
+   * Computes the flipped disks by walking a list of cells in every direction, the way the
+   * flips were computed before the bitboards were introduced.
+   */
+  private static long listBasedFlips(GameField field, Cell cell, Player player) {
+    long flips = 0L;
+
+    for (int dc = -1; dc <= 1; dc++) {
+      for (int dr = -1; dr <= 1; dr++) {
+        if (dc == 0 && dr == 0) {
+          continue;
+        }
+
+        List<Cell> line = new ArrayList<>();
+        for (int i = 1; i < GameField.SIZE; i++) {
+          Cell c = new Cell(cell.getColumn() + i * dc, cell.getRow() + i * dr);
+          if (!GameField.isWithinBounds(c)) {
+            break;
+          }
+          line.add(c);
+        }
+
+        List<Cell> enclosed = new ArrayList<>();
+        for (Cell c : line) {
+          if (field.get(c).isEmpty()) {
+            break;
+          } else if (field.isCellOfPlayer(player, c)) {
+            for (Cell flipped : enclosed) {
+              flips |= bitOf(flipped.getColumn(), flipped.getRow());
+            }
+            break;
+          }
+          enclosed.add(c);
+        }
+      }
+    }
+
+    return flips;
+  }
+
+  @Test
+  void testTransform_matchesCellwiseSymmetries() {
+    for (int symmetry = 0; symmetry < Bitboard.SYMMETRY_COUNT; symmetry++) {
+      for (int column = 0; column < GameField.SIZE; column++) {
+        for (int row = 0; row < GameField.SIZE; row++) {
+          int newColumn = (symmetry & 4) != 0 ? row : column;
+          int newRow = (symmetry & 4) != 0 ? column : row;
+          newColumn = (symmetry & 1) != 0 ? GameField.SIZE - 1 - newColumn : newColumn;
+          newRow = (symmetry & 2) != 0 ? GameField.SIZE - 1 - newRow : newRow;
+
+          Assertions.assertEquals(
+              bitOf(newColumn, newRow), Bitboard.transform(bitOf(column, row), symmetry));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testTransform_keepsMiddleFourCells() {
+    for (int symmetry = 0; symmetry < Bitboard.SYMMETRY_COUNT; symmetry++) {
+      Assertions.assertEquals(
+          Bitboard.MIDDLE_FOUR_CELLS, Bitboard.transform(Bitboard.MIDDLE_FOUR_CELLS, symmetry));
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package reversi.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CellSetTest {
+
+  @Test
+  void testContains_andSize() {
+    CellSet set = new CellSet(Bitboard.MIDDLE_FOUR_CELLS);
+
+    Assertions.assertEquals(4, set.size());
+    Assertions.assertTrue(set.contains(Cell.of(3, 4)));
+    Assertions.assertFalse(set.contains(Cell.of(0, 0)));
+    Assertions.assertFalse(set.contains(new Cell(-1, 3)));
+  }
+
+  @Test
+  void testIterator_naturalOrder() {
+    CellSet set = new CellSet(-1L);
+
+    List<Cell> iterated = new ArrayList<>(set);
+
+    Assertions.assertEquals(new ArrayList<>(new TreeSet<>(set)), iterated);
+    Assertions.assertEquals(GameField.SIZE * GameField.SIZE, iterated.size());
+  }
+
+  @Test
+  void testAddRemoveClear() {
+    CellSet set = new CellSet();
+
+    Assertions.assertTrue(set.add(Cell.of(7, 0)));
+    Assertions.assertFalse(set.add(Cell.of(7, 0)));
+    Assertions.assertTrue(set.add(Cell.of(0, 7)));
+    Assertions.assertTrue(set.remove(Cell.of(7, 0)));
+    Assertions.assertEquals(Set.of(Cell.of(0, 7)), set);
+
+    Iterator<Cell> iterator = set.iterator();
+    iterator.next();
+    iterator.remove();
+    Assertions.assertTrue(set.isEmpty());
+
+    set.add(Cell.of(1, 1));
+    set.clear();
+    Assertions.assertEquals(0L, set.getMask());
+  }
+}
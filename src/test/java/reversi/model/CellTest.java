@@ -0,0 +1,35 @@
+package reversi.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CellTest {
+
+  @Test
+  void testOf_returnsSharedInstance() {
+    Cell cell = Cell.of(2, 6);
+
+    Assertions.assertSame(cell, Cell.of(2, 6));
+    Assertions.assertSame(cell, Cell.ofIndex(cell.index()));
+    Assertions.assertEquals(new Cell(2, 6), cell);
+  }
+
+  @Test
+  void testOfIndex_roundTrip() {
+    for (int index = 0; index < GameField.SIZE * GameField.SIZE; index++) {
+      Cell cell = Cell.ofIndex(index);
+
+      Assertions.assertEquals(index, cell.index());
+      Assertions.assertEquals(
+          cell.hashCode(), new Cell(cell.getColumn(), cell.getRow()).hashCode());
+    }
+  }
+
+  @Test
+  void testOf_outOfBounds() {
+    Cell cell = Cell.of(1, -1);
+
+    Assertions.assertFalse(GameField.isWithinBounds(cell));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Cell.ofIndex(64));
+  }
+}
@@ -47,4 +47,29 @@ class GameFieldTest {
 
     Assertions.assertEquals(Optional.empty(), pawnOnField);
   }
+
+  @Test
+  void testSet_overridesOpponentDisk() {
+    final Cell cell = new Cell(2, 5);
+
+    field.set(cell, new Disk(Player.BLACK));
+    field.set(cell, new Disk(Player.WHITE));
+
+    Assertions.assertTrue(field.isCellOfPlayer(Player.WHITE, cell));
+    Assertions.assertFalse(field.isCellOfPlayer(Player.BLACK, cell));
+    Assertions.assertEquals(1L << (2 * GameField.SIZE + 5), field.getDisksOf(Player.WHITE));
+    Assertions.assertEquals(0L, field.getDisksOf(Player.BLACK));
+  }
+
+  @Test
+  void testCopy_isIndependentOfOriginal() {
+    final Cell cell = new Cell(7, 7);
+    field.set(cell, new Disk(Player.BLACK));
+
+    GameField copy = new GameField(field);
+    copy.remove(cell);
+
+    Assertions.assertTrue(field.isCellOfPlayer(Player.BLACK, cell));
+    Assertions.assertTrue(copy.getCellsOccupiedWithDisks().isEmpty());
+  }
 }
@@ -23,4 +23,27 @@ class GameStateTest {
     Assertions.assertTrue(cellsWhite.isEmpty());
     Assertions.assertTrue(cellsBlack.isEmpty());
   }
+
+  @Test
+  void testDiskCountOnField_followsMoveAndUndo() {
+    Reversi reversi = new Reversi();
+    reversi.move(new Cell(3, 3));
+    reversi.move(new Cell(3, 4));
+    reversi.move(new Cell(4, 4));
+    reversi.move(new Cell(4, 3));
+    GameState state = reversi.getState();
+
+    reversi.move(new Cell(3, 5));
+    int blackAfterMove = state.getDiskCountOnField(Player.BLACK);
+    int whiteAfterMove = state.getDiskCountOnField(Player.WHITE);
+    reversi.undoMove();
+
+    Assertions.assertEquals(4, blackAfterMove);
+    Assertions.assertEquals(1, whiteAfterMove);
+    Assertions.assertEquals(2, state.getDiskCountOnField(Player.BLACK));
+    Assertions.assertEquals(2, state.getDiskCountOnField(Player.WHITE));
+    Assertions.assertEquals(
+        state.getAllCellsOfPlayer(Player.WHITE),
+        new CellSet(state.getDisksOnField(Player.WHITE)));
+  }
 }
@@ -0,0 +1,58 @@
+package reversi.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+
+/**
+ * Plays random moves for the tests and benchmarks that need the positions of arbitrary games. The
+ * moves only depend on the given {@link Random}, so a fixed seed always plays the same games.
+ */
+public final class RandomGames {
+
+  private RandomGames() {
+    // not meant to be instantiated
+  }
+
+  /**
+   * Chooses one of the possible moves of the current player at random, without playing it.
+   *
+   * @param reversi The running game to choose the move in.
+   * @param random The source of the choice.
+   * @return the chosen cell.
+   */
+  public static Cell chooseMove(Reversi reversi, Random random) {
+    Player player = reversi.getState().getCurrentPlayer();
+    List<Cell> cells = new ArrayList<>(reversi.getPossibleMovesForPlayer(player));
+    return cells.get(random.nextInt(cells.size()));
+  }
+
+  /**
+   * Plays one of the possible moves of the current player, chosen at random.
+   *
+   * @param reversi The running game to move in.
+   * @param random The source of the choice.
+   * @return the cell that was played.
+   */
+  public static Cell playMove(Reversi reversi, Random random) {
+    Cell cell = chooseMove(reversi, random);
+    Assertions.assertTrue(reversi.move(cell));
+    return cell;
+  }
+
+  /**
+   * Plays the given number of random moves, or fewer if the game ends before.
+   *
+   * @param reversi The game to move in.
+   * @param random The source of the choices.
+   * @param moves The number of moves to play.
+   * @return <code>true</code> if the game is still running afterwards.
+   */
+  public static boolean playMoves(Reversi reversi, Random random, int moves) {
+    for (int i = 0; i < moves && reversi.getState().getCurrentPhase() == Phase.RUNNING; i++) {
+      playMove(reversi, random);
+    }
+    return reversi.getState().getCurrentPhase() == Phase.RUNNING;
+  }
+}
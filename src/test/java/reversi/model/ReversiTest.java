@@ -243,4 +243,30 @@ class ReversiTest {
 
     Assertions.assertEquals(winner, Optional.of(Player.BLACK));
   }
+
+  @Test
+  void testUndo_Move() {
+    // set up board as in testEnd_Game2, where the move ends the game
+    reversi.newGame();
+    reversi.getState().setCurrentPlayer(Player.BLACK);
+    reversi.getState().setDiskCount(Player.BLACK, 1);
+    reversi.getState().setDiskCount(Player.WHITE, 3);
+    reversi.getState().getField().set(new Cell(3, 3), new Disk(Player.BLACK));
+    reversi.getState().getField().set(new Cell(4, 4), new Disk(Player.BLACK));
+    reversi.getState().getField().set(new Cell(3, 4), new Disk(Player.WHITE));
+    reversi.getState().getField().set(new Cell(4, 3), new Disk(Player.WHITE));
+    final GameField fieldBeforeMove = new GameField(reversi.getState().getField());
+
+    boolean move = reversi.move(new Cell(5, 3));
+    reversi.undoMove();
+
+    Assertions.assertTrue(move);
+    Assertions.assertEquals(reversi.getState().getCurrentPhase(), Phase.RUNNING);
+    Assertions.assertEquals(reversi.getState().getCurrentPlayer(), Player.BLACK);
+    Assertions.assertEquals(reversi.getState().getDiskCount(Player.BLACK), 1);
+    Assertions.assertEquals(reversi.getState().getMoveCounter(), 0);
+    Assertions.assertEquals(
+        reversi.getState().getField().getCellsOccupiedWithDisks(),
+        fieldBeforeMove.getCellsOccupiedWithDisks());
+  }
 }
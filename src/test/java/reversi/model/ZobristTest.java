@@ -0,0 +1,64 @@
+package reversi.model;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ZobristTest {
+
+  private static long fullHash(GameState state) {
+    GameField field = state.getField();
+    return Zobrist.hash(
+        field.getDisksOf(Player.WHITE), field.getDisksOf(Player.BLACK), state.getCurrentPlayer());
+  }
+
+  @Test
+  void testIncrementalKey_matchesFullHashOnRandomGames() {
+    Random random = new Random(4711);
+
+    for (int game = 0; game < 100; game++) {
+      Reversi reversi = new Reversi();
+      Assertions.assertEquals(fullHash(reversi.getState()), reversi.getState().getZobristKey());
+
+      while (reversi.getState().getCurrentPhase() == Phase.RUNNING) {
+        long keyBeforeMove = reversi.getState().getZobristKey();
+
+        RandomGames.playMove(reversi, random);
+        Assertions.assertEquals(fullHash(reversi.getState()), reversi.getState().getZobristKey());
+
+        if (random.nextInt(4) == 0) {
+          reversi.undoMove();
+          Assertions.assertEquals(keyBeforeMove, reversi.getState().getZobristKey());
+          RandomGames.playMove(reversi, random);
+        }
+      }
+    }
+  }
+
+  @Test
+  void testTransposition_sameKey() {
+    Reversi first = new Reversi();
+    first.move(Cell.of(3, 3));
+    first.move(Cell.of(3, 4));
+    first.move(Cell.of(4, 4));
+    first.move(Cell.of(4, 3));
+
+    Reversi second = new Reversi();
+    second.move(Cell.of(4, 4));
+    second.move(Cell.of(4, 3));
+    second.move(Cell.of(3, 3));
+    second.move(Cell.of(3, 4));
+
+    Assertions.assertEquals(first.getState().getZobristKey(), second.getState().getZobristKey());
+  }
+
+  @Test
+  void testSideToMove_changesKey() {
+    GameState state = new GameState(new GameField());
+    long blackToMove = state.getZobristKey();
+
+    state.setCurrentPlayer(Player.WHITE);
+
+    Assertions.assertNotEquals(blackToMove, state.getZobristKey());
+  }
+}
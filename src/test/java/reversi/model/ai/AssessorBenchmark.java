@@ -0,0 +1,92 @@
+package reversi.model.ai;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.RandomGames;
+import reversi.model.Reversi;
+
+/**
+ * Measures the evaluations per second of the {@link ReversiAssessor}, of the single assessors it
+ * consists of, called one after another, and of the {@link PatternAssessor} on the positions of
+ * random games.
+ *
+ * <p>Usage: <code>AssessorBenchmark [games] [rounds]</code>, e.g. through <code>
+ * gradle assessorBenchmark --args="200 20"</code>.
+ */
+public final class AssessorBenchmark {
+
+  private AssessorBenchmark() {
+    // not meant to be instantiated
+  }
+
+  /**
+   * Runs the benchmark and prints the time and evaluations per second per assessor.
+   *
+   * @param args The number of games and the number of times all positions are rated.
+   */
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    List<GameState> positions = createPositions(games, new Random(4711));
+    System.out.printf("%d positions, %d rounds%n", positions.size(), rounds);
+
+    Map<String, StateAssessor> assessors = new LinkedHashMap<>();
+    assessors.put(
+        "separate:", (state, minPlayer, depth) -> ReversiAssessorTest.rateSeparately(state, depth));
+    assessors.put("reversi:", new ReversiAssessor());
+    assessors.put("pattern:", new PatternAssessor());
+    for (Map.Entry<String, StateAssessor> entry : assessors.entrySet()) {
+      StateAssessor assessor = entry.getValue();
+      // warm up the jit compiler before measuring
+      double checksum = rate(assessor, positions, rounds);
+
+      long start = System.nanoTime();
+      checksum += rate(assessor, positions, rounds);
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      System.out.printf(
+          "%-10s %8.3f s, %12.0f evals/s (checksum %.1f)%n",
+          entry.getKey(),
+          seconds,
+          positions.size() * (double) rounds / seconds,
+          checksum);
+    }
+  }
+
+  private static double rate(StateAssessor assessor, List<GameState> positions, int rounds) {
+    double sum = 0;
+    for (int round = 0; round < rounds; round++) {
+      for (GameState position : positions) {
+        sum += assessor.computeValue(position, Player.BLACK, 1);
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Plays random games and keeps all their positions, including the finished ones.
+   *
+   * @param games The number of games to play.
+   * @param random The source of the random moves.
+   * @return The positions.
+   */
+  static List<GameState> createPositions(int games, Random random) {
+    List<GameState> positions = new ArrayList<>();
+    for (int game = 0; game < games; game++) {
+      Reversi reversi = new Reversi();
+      positions.add(reversi.getState().makeCopy());
+      while (reversi.getState().getCurrentPhase() == Phase.RUNNING) {
+        RandomGames.playMove(reversi, random);
+        positions.add(reversi.getState().makeCopy());
+      }
+    }
+    return positions;
+  }
+}
@@ -0,0 +1,100 @@
+package reversi.model.ai;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reversi.model.Cell;
+import reversi.model.GameState;
+import reversi.model.Player;
+import reversi.model.Reversi;
+
+class DifficultyTest {
+
+  @Test
+  void testCreateEngine_playsLegalMoves() {
+    GameState state = MinimaxAlgorithmTest.createOpening();
+    for (Difficulty difficulty : new Difficulty[] {Difficulty.EASY, Difficulty.MEDIUM}) {
+      Engine engine = difficulty.createEngine();
+      Cell cell = engine.determineCell(state);
+      Assertions.assertTrue(
+          new Reversi(state).getPossibleMovesForPlayer(Player.WHITE).contains(cell));
+    }
+  }
+
+  @Test
+  void testGetThreadCount() {
+    Assertions.assertEquals(1, Difficulty.HARD.getThreadCount());
+    Assertions.assertEquals(
+        Runtime.getRuntime().availableProcessors(), Difficulty.EXPERT.getThreadCount());
+    MinimaxAlgorithm expert = (MinimaxAlgorithm) Difficulty.EXPERT.createEngine();
+    Assertions.assertEquals(Difficulty.EXPERT.getThreadCount(), expert.getThreadCount());
+  }
+
+  @Test
+  void testCreateEngine_usesLimits() {
+    for (Difficulty difficulty : Difficulty.values()) {
+      SearchLimits limits = difficulty.createEngine().getSearchLimits();
+      SearchLimits expected = difficulty.getSearchLimits();
+      Assertions.assertEquals(expected.getMaxMillis(), limits.getMaxMillis());
+      Assertions.assertEquals(expected.getMaxNodes(), limits.getMaxNodes());
+      if (expected.getMaxDepth() != SearchLimits.NO_LIMIT) {
+        Assertions.assertEquals(expected.getMaxDepth(), limits.getMaxDepth());
+      }
+    }
+  }
+
+  @Test
+  void testMedium_sameAsDefaultAlgorithm() {
+    GameState state = MinimaxAlgorithmTest.createOpening();
+    MinimaxAlgorithm medium = (MinimaxAlgorithm) Difficulty.MEDIUM.createEngine();
+    MinimaxAlgorithm standard = new MinimaxAlgorithm();
+
+    Assertions.assertEquals(standard.determineCell(state), medium.determineCell(state));
+    Assertions.assertEquals(standard.getScore(), medium.getScore());
+    Assertions.assertEquals(standard.getNodeCount(), medium.getNodeCount());
+  }
+
+  @Test
+  void testEasy_takesMostDisks() {
+    GameState state = MinimaxAlgorithmTest.createOpening();
+    Engine easy = Difficulty.EASY.createEngine();
+    Reversi reversi = new Reversi(state.makeCopy());
+    reversi.move(easy.determineCell(state));
+
+    int mostDisks = 0;
+    for (Cell cell : new Reversi(state).getPossibleMovesForPlayer(Player.WHITE)) {
+      Reversi other = new Reversi(state.makeCopy());
+      other.move(cell);
+      mostDisks = Math.max(mostDisks, other.getState().getDiskCountOnField(Player.WHITE));
+    }
+    Assertions.assertEquals(mostDisks, reversi.getState().getDiskCountOnField(Player.WHITE));
+  }
+
+  @Test
+  void testCreateEngine_usesOpeningBook() {
+    Assertions.assertFalse(Difficulty.EASY.usesOpeningBook());
+    Assertions.assertFalse(Difficulty.MEDIUM.usesOpeningBook());
+    Assertions.assertTrue(Difficulty.HARD.usesOpeningBook());
+    Assertions.assertTrue(Difficulty.EXPERT.usesOpeningBook());
+
+    GameState state = MinimaxAlgorithmTest.createOpening();
+    MinimaxAlgorithm hard = (MinimaxAlgorithm) Difficulty.HARD.createEngine();
+    Assertions.assertEquals(
+        OpeningBook.getDefault().lookup(state).get().getMove(), hard.determineCell(state));
+    Assertions.assertEquals(0, hard.getNodeCount());
+  }
+
+  @Test
+  void testSearchLimits_negativeLimit() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new SearchLimits(-1, 0, 0));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new SearchLimits(0, 0, -1));
+  }
+
+  @Test
+  void testMonteCarloTreeSearch_takesLimits() {
+    SearchLimits limits = new SearchLimits(SearchLimits.NO_LIMIT, 300, SearchLimits.NO_LIMIT);
+    MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(limits, 1);
+    mcts.determineCell(MinimaxAlgorithmTest.createOpening());
+    Assertions.assertEquals(300, mcts.getPlayoutCount());
+    Assertions.assertEquals(300, mcts.getSearchLimits().getMaxNodes());
+  }
+}
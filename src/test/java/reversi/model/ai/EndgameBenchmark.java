@@ -0,0 +1,75 @@
+package reversi.model.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import reversi.model.GameState;
+import reversi.model.RandomGames;
+import reversi.model.Reversi;
+
+/**
+ * Measures the throughput of the {@link EndgameSolver} on random positions with a fixed number of
+ * empty cells, both for exact scores and for win/loss/draw only.
+ *
+ * <p>Usage: <code>EndgameBenchmark [empty cells] [positions]</code>, e.g. through <code>
+ * gradle endgameBenchmark --args="14 20"</code>.
+ */
+public final class EndgameBenchmark {
+
+  private EndgameBenchmark() {
+    // not meant to be instantiated
+  }
+
+  /**
+   * Runs the benchmark and prints the time, nodes and nodes per second per mode.
+   *
+   * @param args The number of empty cells and the number of positions.
+   */
+  public static void main(String[] args) {
+    int emptyCells =
+        args.length > 0 ? Integer.parseInt(args[0]) : EndgameSolver.DEFAULT_MAX_EMPTIES;
+    int positionCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    List<GameState> positions = createPositions(emptyCells, positionCount, new Random(4711));
+    System.out.printf("%d empty cells, %d positions%n", emptyCells, positions.size());
+
+    for (boolean exact : new boolean[] {true, false}) {
+      EndgameSolver solver = new EndgameSolver(exact);
+
+      // warm up the jit compiler before measuring
+      solver.determineCell(positions.get(0));
+
+      long nodes = 0;
+      long start = System.nanoTime();
+      for (GameState position : positions) {
+        solver.determineCell(position);
+        nodes += solver.getNodeCount();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      System.out.printf(
+          "%-14s %8.3f s, %12d nodes, %10.0f nodes/s%n",
+          exact ? "exact:" : "win/loss/draw:", seconds, nodes, nodes / seconds);
+    }
+  }
+
+  /**
+   * Plays random games until the given number of cells is empty and keeps the running ones.
+   *
+   * @param emptyCells The number of empty cells of the positions.
+   * @param count The number of positions to create.
+   * @param random The source of the random moves.
+   * @return The positions.
+   */
+  static List<GameState> createPositions(int emptyCells, int count, Random random) {
+    List<GameState> positions = new ArrayList<>(count);
+    while (positions.size() < count) {
+      Reversi reversi = new Reversi();
+      int moves = 64 - emptyCells;
+      if (RandomGames.playMoves(reversi, random, moves)) {
+        positions.add(reversi.getState());
+      }
+    }
+    return positions;
+  }
+}
@@ -0,0 +1,142 @@
+package reversi.model.ai;
+
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reversi.model.Cell;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.RandomGames;
+import reversi.model.Reversi;
+
+class EndgameSolverTest {
+
+  /**
+   * Plays a random game until the given number of cells is empty.
+   *
+   * @return the game, or <code>null</code> if it ended before.
+   */
+  private static Reversi playRandomGame(Random random, int emptyCells) {
+    Reversi reversi = new Reversi();
+    return RandomGames.playMoves(reversi, random, 64 - emptyCells) ? reversi : null;
+  }
+
+  /** Full-width search with the rules of the model, as a reference for the solver. */
+  private static int bruteForce(Reversi reversi, Player player) {
+    GameState state = reversi.getState();
+    if (state.getCurrentPhase() == Phase.FINISHED) {
+      return state.getDiskCountOnField(player)
+          - state.getDiskCountOnField(Player.getOpponentOf(player));
+    }
+
+    boolean maximizing = state.getCurrentPlayer() == player;
+    int best = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    for (Cell cell : new ArrayList<>(reversi.getPossibleMovesForPlayer(state.getCurrentPlayer()))) {
+      reversi.move(cell);
+      int value = bruteForce(reversi, player);
+      reversi.undoMove();
+      best = maximizing ? Math.max(best, value) : Math.min(best, value);
+    }
+    return best;
+  }
+
+  private static void assertSolvesRandomGames(boolean exact) {
+    Random random = new Random(64);
+    EndgameSolver solver = new EndgameSolver(exact);
+
+    for (int emptyCells = 2; emptyCells <= 8; emptyCells++) {
+      for (int game = 0; game < 15; game++) {
+        Reversi reversi = playRandomGame(random, emptyCells);
+        if (reversi == null) {
+          continue;
+        }
+
+        Player player = reversi.getState().getCurrentPlayer();
+        int expected = bruteForce(reversi, player);
+        int expectedScore = exact ? expected : Integer.signum(expected);
+        Cell cell = solver.determineCell(reversi.getState());
+        Assertions.assertEquals(expectedScore, solver.getScore());
+
+        // the move has to reach the score as well
+        Assertions.assertTrue(reversi.move(cell));
+        int value = bruteForce(reversi, player);
+        Assertions.assertEquals(expectedScore, exact ? value : Integer.signum(value));
+        reversi.undoMove();
+      }
+    }
+  }
+
+  @Test
+  void testDetermineCell_matchesBruteForceOnRandomGames() {
+    assertSolvesRandomGames(true);
+  }
+
+  @Test
+  void testDetermineCell_winLossDrawMatchesBruteForce() {
+    assertSolvesRandomGames(false);
+  }
+
+  @Test
+  void testDetermineCell_finishedGame() {
+    Reversi reversi = new Reversi();
+    reversi.stopGame();
+    Assertions.assertNull(new EndgameSolver().determineCell(reversi.getState()));
+  }
+
+  @Test
+  void testDetermineCell_stopped() {
+    Reversi reversi = playRandomGame(new Random(3), 50);
+    Assertions.assertNotNull(reversi);
+    Assertions.assertNull(new EndgameSolver().determineCell(reversi.getState(), () -> true));
+  }
+
+  @Test
+  void testGetNodesPerSecond_afterSolving() {
+    Reversi reversi = playRandomGame(new Random(5), 10);
+    Assertions.assertNotNull(reversi);
+    EndgameSolver solver = new EndgameSolver();
+    solver.determineCell(reversi.getState());
+
+    Assertions.assertTrue(solver.getNodeCount() > 0);
+    Assertions.assertTrue(solver.getNodesPerSecond() > 0);
+  }
+
+  @Test
+  void testMinimax_solvesEndgame() {
+    // with an odd number of empty cells, it's the turn of the ai (white)
+    Random random = new Random(8);
+    Reversi reversi;
+    do {
+      reversi = playRandomGame(random, 7);
+    } while (reversi == null);
+
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(1, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 1, 7);
+    Cell cell = minimax.determineCell(reversi.getState());
+    Assertions.assertEquals(7, minimax.getCompletedDepth());
+
+    int expected = bruteForce(reversi, Player.WHITE);
+    Assertions.assertTrue(reversi.move(cell));
+    Assertions.assertEquals(expected, bruteForce(reversi, Player.WHITE));
+  }
+
+  @Test
+  void testMinimax_solverLeavesBudgetToSearch() {
+    Random random = new Random(8);
+    Reversi reversi;
+    do {
+      reversi = playRandomGame(random, 21);
+    } while (reversi == null);
+
+    // the solver can't finish with half of the nodes, so the regular search plays the move
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(60, MinimaxAlgorithm.NO_LIMIT, 100_000, 1, 1, 21);
+    Cell cell = minimax.determineCell(reversi.getState());
+    long solverNodes = minimax.getEndgameSolver().getNodeCount();
+    Assertions.assertTrue(solverNodes > 50_000 && solverNodes <= 50_000 + 4096);
+    Assertions.assertTrue(minimax.getCompletedDepth() >= 1);
+    Assertions.assertTrue(reversi.move(cell));
+  }
+}
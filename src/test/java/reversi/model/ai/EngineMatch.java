@@ -0,0 +1,94 @@
+package reversi.model.ai;
+
+import java.util.Random;
+import reversi.model.GameField;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.RandomGames;
+import reversi.model.Reversi;
+
+/**
+ * Plays the {@link MonteCarloTreeSearch} against the {@link MinimaxAlgorithm} with the same time
+ * budget per move and the same number of threads, starting from random openings. The assessors of
+ * the minimax algorithm only rate positions for the white player, so it always plays white.
+ *
+ * <p>Usage: <code>EngineMatch [games] [milliseconds per move] [threads]</code>, e.g. through <code>
+ * gradle engineMatch --args="20 100 1"</code>.
+ */
+public final class EngineMatch {
+
+  private EngineMatch() {
+    // not meant to be instantiated
+  }
+
+  /**
+   * Plays the games and prints the result of every game and the score of the monte carlo tree
+   * search.
+   *
+   * @param args The number of games, the time per move in milliseconds and the number of threads.
+   */
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+    long timePerMove = args.length > 1 ? Long.parseLong(args[1]) : 100;
+    int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+    System.out.printf(
+        "%d games, %d ms per move, %d threads, mcts plays black%n", games, timePerMove, threads);
+
+    Random random = new Random(4711);
+    int[] results = new int[3]; // losses, draws and wins of the monte carlo tree search
+    for (int game = 0; game < games; game++) {
+      MonteCarloTreeSearch mcts =
+          new MonteCarloTreeSearch(MonteCarloTreeSearch.NO_LIMIT, timePerMove, threads);
+      MinimaxAlgorithm minimax =
+          new MinimaxAlgorithm(
+              GameField.SIZE * GameField.SIZE,
+              timePerMove,
+              MinimaxAlgorithm.NO_LIMIT,
+              MinimaxAlgorithm.DEFAULT_TABLE_SIZE,
+              threads);
+
+      Reversi reversi = createOpening(random);
+      long playouts = 0;
+      int mctsMoves = 0;
+      while (reversi.getState().getCurrentPhase() == Phase.RUNNING) {
+        GameState state = reversi.getState();
+        if (state.getCurrentPlayer() == Player.BLACK) {
+          reversi.move(mcts.determineCell(state));
+          playouts += mcts.getPlayoutCount();
+          mctsMoves++;
+        } else {
+          reversi.move(minimax.determineCell(state));
+        }
+      }
+      // every game gets new engines, so the threads of the old ones are ended
+      mcts.close();
+      minimax.close();
+
+      GameState state = reversi.getState();
+      int difference =
+          state.getDiskCountOnField(Player.BLACK) - state.getDiskCountOnField(Player.WHITE);
+      results[Integer.signum(difference) + 1]++;
+      System.out.printf(
+          "game %3d: disk difference %+3d, %8.0f playouts per move%n",
+          game + 1, difference, (double) playouts / Math.max(mctsMoves, 1));
+    }
+
+    double score = results[2] + results[1] / 2.0;
+    System.out.printf(
+        "mcts: %d wins, %d draws, %d losses, score %.1f%%%n",
+        results[2], results[1], results[0], 100 * score / games);
+  }
+
+  /** Plays an even number of random moves, so that black is to move. */
+  private static Reversi createOpening(Random random) {
+    while (true) {
+      Reversi reversi = new Reversi();
+      int moves = 4 + 2 * random.nextInt(3);
+      if (RandomGames.playMoves(reversi, random, moves)) {
+        return reversi;
+      }
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package reversi.model.ai;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reversi.model.GameState;
+import reversi.model.Player;
+import reversi.model.RandomGames;
+import reversi.model.Reversi;
+
+class EvaluationCacheTest {
+
+  private EvaluationCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new EvaluationCache(1);
+  }
+
+  /** Plays random moves until it's the turn of white, which the ai always plays. */
+  private static Reversi playRandomly(Random random, int moves) {
+    Reversi reversi = new Reversi();
+    RandomGames.playMoves(reversi, random, moves);
+    Assertions.assertEquals(Player.WHITE, reversi.getState().getCurrentPlayer());
+    return reversi;
+  }
+
+  @Test
+  void testProbe_returnsStoredRating() {
+    cache.store(0x1234_5678_9ABC_DEF0L, -12.5);
+    cache.store(42L, 0.0);
+
+    Assertions.assertEquals(-12.5, cache.probe(0x1234_5678_9ABC_DEF0L));
+    Assertions.assertEquals(0.0, cache.probe(42L));
+    Assertions.assertEquals(1.0, cache.getHitRate());
+  }
+
+  @Test
+  void testProbe_missesUnknownKey() {
+    cache.store(42L, 1.0);
+
+    Assertions.assertTrue(Double.isNaN(cache.probe(43L)));
+    Assertions.assertTrue(Double.isNaN(cache.probe(0L)));
+    Assertions.assertEquals(2, cache.getProbes());
+    Assertions.assertEquals(0, cache.getHits());
+  }
+
+  @Test
+  void testStore_replacesOtherPosition() {
+    // the entry only depends on the lower bits of both halves of the key
+    long other = 42L + ((long) cache.getCapacity() << 32);
+    cache.store(42L, 1.0);
+    cache.store(other, 2.0);
+
+    Assertions.assertTrue(Double.isNaN(cache.probe(42L)));
+    Assertions.assertEquals(2.0, cache.probe(other));
+  }
+
+  @Test
+  void testClear_removesRatingsAndStatistics() {
+    cache.store(42L, 1.0);
+    cache.probe(42L);
+    cache.clear();
+
+    Assertions.assertEquals(0, cache.getProbes());
+    Assertions.assertEquals(0, cache.getHitRate());
+    Assertions.assertTrue(Double.isNaN(cache.probe(42L)));
+  }
+
+  @Test
+  void testMinimax_sameResultWithoutCache() {
+    Random random = new Random(9);
+    for (int game = 0; game < 5; game++) {
+      GameState state = playRandomly(random, 15 + 4 * game).getState();
+
+      MinimaxAlgorithm cached =
+          new MinimaxAlgorithm(4, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 1, 0);
+      MinimaxAlgorithm uncached =
+          new MinimaxAlgorithm(4, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 1, 0);
+      uncached.setEvaluationCaching(false);
+
+      Assertions.assertEquals(uncached.determineCell(state), cached.determineCell(state));
+      Assertions.assertEquals(uncached.getScore(), cached.getScore());
+      Assertions.assertEquals(uncached.getNodeCount(), cached.getNodeCount());
+      Assertions.assertEquals(0, uncached.getEvaluationCache().getProbes());
+    }
+  }
+
+  @Test
+  void testMinimax_keepsRatingsBetweenSearches() {
+    Reversi reversi = playRandomly(new Random(3), 21);
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(4, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 1, 0);
+    minimax.determineCell(reversi.getState());
+    minimax.getTranspositionTable().clear();
+    EvaluationCache evaluationCache = minimax.getEvaluationCache();
+    double firstHitRate = evaluationCache.getHitRate();
+    long probes = evaluationCache.getProbes();
+    long hits = evaluationCache.getHits();
+
+    // without the transposition table, the search rates many of the same positions again
+    minimax.determineCell(reversi.getState());
+    double secondHitRate =
+        (double) (evaluationCache.getHits() - hits) / (evaluationCache.getProbes() - probes);
+    Assertions.assertTrue(secondHitRate > 0.5, firstHitRate + " -> " + secondHitRate);
+  }
+}
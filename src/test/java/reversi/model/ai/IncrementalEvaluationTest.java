@@ -0,0 +1,97 @@
+package reversi.model.ai;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reversi.model.Cell;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.RandomGames;
+import reversi.model.Reversi;
+
+class IncrementalEvaluationTest {
+
+  /**
+   * Plays random moves and takes some of them back, and checks the evaluation after every step.
+   */
+  private static void walkRandomly(long seed, IncrementalStep check) {
+    Random random = new Random(seed);
+    Reversi reversi = new Reversi();
+    IncrementalEvaluation evaluation = new IncrementalEvaluation(reversi.getState());
+    reversi.setMoveObserver(evaluation);
+
+    int played = 0;
+    for (int step = 0; step < 400; step++) {
+      boolean running = reversi.getState().getCurrentPhase() == Phase.RUNNING;
+      if (played > 0 && (!running || random.nextInt(3) == 0)) {
+        reversi.undoMove();
+        played--;
+      } else {
+        RandomGames.playMove(reversi, random);
+        played++;
+      }
+      check.accept(evaluation, reversi.getState());
+    }
+  }
+
+  private interface IncrementalStep {
+    void accept(IncrementalEvaluation evaluation, GameState state);
+  }
+
+  @Test
+  void testMoveAndUndo_matchesFullEvaluation() {
+    for (long seed = 0; seed < 10; seed++) {
+      walkRandomly(seed, (evaluation, state) -> Assertions.assertTrue(evaluation.matches(state)));
+    }
+  }
+
+  @Test
+  void testGetters_afterStart() {
+    Reversi reversi = new Reversi();
+    IncrementalEvaluation evaluation = new IncrementalEvaluation(reversi.getState());
+    reversi.setMoveObserver(evaluation);
+    Assertions.assertTrue(reversi.move(Cell.of(3, 3)));
+
+    Assertions.assertEquals(1, evaluation.getDiskCount());
+    Assertions.assertEquals(-1, evaluation.getDiskDifference());
+    Assertions.assertEquals(0, evaluation.getCornerDifference());
+  }
+
+  @Test
+  void testComputeValue_sameAsFullRating() {
+    List<IncrementalAssessor> assessors = List.of(new ReversiAssessor(), new PatternAssessor());
+    for (IncrementalAssessor assessor : assessors) {
+      walkRandomly(
+          42,
+          (evaluation, state) ->
+              Assertions.assertEquals(
+                  Double.doubleToLongBits(assessor.computeValue(state, Player.BLACK, 3)),
+                  Double.doubleToLongBits(
+                      assessor.computeValue(evaluation, state, Player.BLACK, 3))));
+    }
+  }
+
+  @Test
+  void testMinimax_sameResultWithoutIncrementalEvaluation() {
+    Random random = new Random(5);
+    for (int game = 0; game < 5; game++) {
+      Reversi reversi = new Reversi();
+      // the ai is white, so search positions in which it's the turn of white
+      RandomGames.playMoves(reversi, random, 20 + 4 * game + 1);
+      GameState state = reversi.getState();
+      Assertions.assertEquals(Player.WHITE, state.getCurrentPlayer());
+
+      MinimaxAlgorithm incremental =
+          new MinimaxAlgorithm(4, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 1, 0);
+      MinimaxAlgorithm full =
+          new MinimaxAlgorithm(4, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 1, 0);
+      full.setIncrementalEvaluation(false);
+
+      Assertions.assertEquals(full.determineCell(state), incremental.determineCell(state));
+      Assertions.assertEquals(full.getScore(), incremental.getScore());
+      Assertions.assertEquals(full.getNodeCount(), incremental.getNodeCount());
+    }
+  }
+}
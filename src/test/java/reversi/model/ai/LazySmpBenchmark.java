@@ -0,0 +1,94 @@
+package reversi.model.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import reversi.model.GameState;
+import reversi.model.RandomGames;
+import reversi.model.Reversi;
+
+/**
+ * Measures the time the {@link MinimaxAlgorithm} needs to complete a search of a fixed depth with 1
+ * up to N threads, on the same set of midgame positions.
+ *
+ * <p>Usage: <code>LazySmpBenchmark [depth] [max threads] [positions]</code>, e.g. through <code>
+ * gradle benchmark --args="8 16 20"</code>.
+ */
+public final class LazySmpBenchmark {
+
+  private LazySmpBenchmark() {
+    // not meant to be instantiated
+  }
+
+  /**
+   * Runs the benchmark and prints the time to depth and the speedup per thread count.
+   *
+   * @param args The search depth, the maximum number of threads and the number of positions.
+   */
+  public static void main(String[] args) {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+    int maxThreads =
+        args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    int positionCount = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+    List<GameState> positions = createPositions(positionCount, new Random(4711));
+    System.out.printf("depth %d, %d positions%n", depth, positions.size());
+
+    // powers of two up to the maximum, and the maximum itself
+    List<Integer> threadCounts = new ArrayList<>();
+    for (int threads = 1; threads < maxThreads; threads *= 2) {
+      threadCounts.add(threads);
+    }
+    threadCounts.add(maxThreads);
+
+    double singleThreadTime = 0;
+    for (int threads : threadCounts) {
+      MinimaxAlgorithm minimax =
+          new MinimaxAlgorithm(
+              depth,
+              MinimaxAlgorithm.NO_LIMIT,
+              MinimaxAlgorithm.NO_LIMIT,
+              MinimaxAlgorithm.DEFAULT_TABLE_SIZE,
+              threads);
+
+      // warm up the jit compiler before measuring
+      minimax.determineCell(positions.get(0));
+
+      long nodes = 0;
+      long start = System.nanoTime();
+      for (GameState position : positions) {
+        minimax.getTranspositionTable().clear();
+        minimax.determineCell(position);
+        nodes += minimax.getNodeCount();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      if (threads == 1) {
+        singleThreadTime = seconds;
+      }
+      System.out.printf(
+          "%3d threads: %8.3f s, %12d nodes, %10.0f nodes/s, speedup %5.2f%n",
+          threads, seconds, nodes, nodes / seconds, singleThreadTime / seconds);
+      minimax.close();
+    }
+  }
+
+  /**
+   * Plays random games up to the midgame and keeps the positions in which the ai has to move.
+   *
+   * @param count The number of positions to create.
+   * @param random The source of the random moves.
+   * @return The positions.
+   */
+  static List<GameState> createPositions(int count, Random random) {
+    List<GameState> positions = new ArrayList<>(count);
+    while (positions.size() < count) {
+      Reversi reversi = new Reversi();
+      int moves = 9 + 2 * random.nextInt(10);
+      if (RandomGames.playMoves(reversi, random, moves)) {
+        positions.add(reversi.getState());
+      }
+    }
+    return positions;
+  }
+}
@@ -0,0 +1,260 @@
+package reversi.model.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reversi.model.Cell;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.RandomGames;
+import reversi.model.Reversi;
+
+class MinimaxAlgorithmTest {
+
+  private GameState state;
+
+  /**
+   * Plays some moves, so that the ai (white) has a few moves to choose from. Shared by the tests of
+   * the other engines and their settings.
+   *
+   * @return the state after the opening.
+   */
+  static GameState createOpening() {
+    Reversi reversi = new Reversi();
+    reversi.move(Cell.of(3, 3));
+    reversi.move(Cell.of(3, 4));
+    reversi.move(Cell.of(4, 4));
+    reversi.move(Cell.of(4, 3));
+    Assertions.assertTrue(reversi.move(Cell.of(2, 4)));
+    return reversi.getState();
+  }
+
+  @BeforeEach
+  void setUp() {
+    state = createOpening();
+  }
+
+  private void assertLegalMove(Cell cell) {
+    Assertions.assertNotNull(cell);
+    Assertions.assertTrue(
+        new Reversi(state).getPossibleMovesForPlayer(Player.WHITE).contains(cell));
+  }
+
+  @Test
+  void testDetermineCell_completesMaxDepth() {
+    MinimaxAlgorithm minimax = new MinimaxAlgorithm();
+    assertLegalMove(minimax.determineCell(state));
+    Assertions.assertEquals(MinimaxAlgorithm.DEFAULT_MAX_DEPTH, minimax.getCompletedDepth());
+  }
+
+  @Test
+  void testDetermineCell_stopsAtNodeLimit() {
+    MinimaxAlgorithm minimax = new MinimaxAlgorithm(60, MinimaxAlgorithm.NO_LIMIT, 500, 1);
+    assertLegalMove(minimax.determineCell(state));
+    Assertions.assertTrue(minimax.getCompletedDepth() >= 1);
+    Assertions.assertTrue(minimax.getCompletedDepth() < 60);
+  }
+
+  @Test
+  void testDetermineCell_stopsAtTimeLimit() {
+    MinimaxAlgorithm minimax = new MinimaxAlgorithm(60, 50, MinimaxAlgorithm.NO_LIMIT, 1);
+    long start = System.nanoTime();
+    assertLegalMove(minimax.determineCell(state));
+    Assertions.assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    Assertions.assertTrue(minimax.getCompletedDepth() >= 1);
+  }
+
+  @Test
+  void testDetermineCell_keepsStateUnchanged() {
+    long key = state.getZobristKey();
+    new MinimaxAlgorithm(60, MinimaxAlgorithm.NO_LIMIT, 500, 1).determineCell(state);
+    Assertions.assertEquals(key, state.getZobristKey());
+  }
+
+  @Test
+  void testPrincipalVariation_startsWithCellAndIsPlayable() {
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(4, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1);
+    Cell cell = minimax.determineCell(state);
+    List<Cell> variation = minimax.getPrincipalVariation();
+
+    Assertions.assertFalse(variation.isEmpty());
+    Assertions.assertEquals(cell, variation.get(0));
+    Reversi reversi = new Reversi(state);
+    for (Cell move : variation) {
+      Assertions.assertTrue(reversi.move(move));
+    }
+    for (int i = 0; i < variation.size(); i++) {
+      reversi.undoMove();
+    }
+  }
+
+  /** Full-width negamax with the same assessment, as a reference for the pruned search. */
+  private static double negamax(Reversi reversi, Player player, int ply, int depth) {
+    if (reversi.getState().getCurrentPhase() == Phase.FINISHED || ply >= depth) {
+      double value = new ReversiAssessor().computeValue(reversi.getState(), Player.BLACK, ply);
+      return player == Player.WHITE ? value : -value;
+    }
+
+    double best = Double.NEGATIVE_INFINITY;
+    for (Cell cell : new ArrayList<>(reversi.getPossibleMovesForPlayer(player))) {
+      reversi.move(cell);
+      best = Math.max(best, -negamax(reversi, Player.getOpponentOf(player), ply + 1, depth));
+      reversi.undoMove();
+    }
+    return best;
+  }
+
+  private static void assertFindsMinimaxValueOnRandomGames(int threads) {
+    Random random = new Random(11);
+    int depth = 3;
+    // without the endgame solver, which doesn't play by the assessment
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(
+            depth, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, threads, 0);
+
+    for (int game = 0; game < 20; game++) {
+      Reversi reversi = new Reversi();
+      int moves = 5 + 2 * random.nextInt(25);
+      if (!RandomGames.playMoves(reversi, random, moves)) {
+        continue;
+      }
+
+      Cell cell = minimax.determineCell(reversi.getState());
+      double best = negamax(reversi, Player.WHITE, 0, depth);
+      reversi.move(cell);
+      Assertions.assertEquals(best, -negamax(reversi, Player.BLACK, 1, depth));
+      reversi.undoMove();
+    }
+  }
+
+  @Test
+  void testDetermineCell_findsMinimaxValueOnRandomGames() {
+    assertFindsMinimaxValueOnRandomGames(1);
+  }
+
+  @Test
+  void testDetermineCell_findsMinimaxValueWithSeveralThreads() {
+    assertFindsMinimaxValueOnRandomGames(4);
+  }
+
+  @Test
+  void testDetermineCell_severalThreadsCompleteMaxDepth() {
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(5, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 3);
+    // the searches must not change the state, so its key is taken before them
+    final long key = state.getZobristKey();
+
+    assertLegalMove(minimax.determineCell(state));
+    Assertions.assertEquals(5, minimax.getCompletedDepth());
+    Assertions.assertEquals(minimax.getPrincipalVariation().get(0), minimax.determineCell(state));
+    Assertions.assertEquals(key, state.getZobristKey());
+  }
+
+  @Test
+  void testDetermineCell_interruptedSearchAwaitsHelpers() {
+    // the searching thread is interrupted as soon as a helper rated its first position
+    Thread searchThread = Thread.currentThread();
+    Set<Thread> raters = ConcurrentHashMap.newKeySet();
+    StateAssessor reversiAssessor = new ReversiAssessor();
+    StateAssessor assessor =
+        (position, minPlayer, depth) -> {
+          if (raters.add(Thread.currentThread()) && Thread.currentThread() != searchThread) {
+            searchThread.interrupt();
+          }
+          return reversiAssessor.computeValue(position, minPlayer, depth);
+        };
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(
+            assessor, 60, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 4, 0);
+    minimax.setEvaluationCaching(false);
+
+    minimax.determineCell(state);
+    // the interrupt status is kept, and cleared here for the following tests
+    Assertions.assertTrue(Thread.interrupted());
+
+    // no helper may still be searching once the search returned
+    for (Thread rater : raters) {
+      for (StackTraceElement frame : rater.getStackTrace()) {
+        Assertions.assertNotEquals(SearchWorker.class.getName(), frame.getClassName());
+      }
+    }
+  }
+
+  @Test
+  void testDetermineCell_searchAfterInterruptedSearch() {
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(60, MinimaxAlgorithm.NO_LIMIT, 5000, 1, 4);
+    Thread.currentThread().interrupt();
+    minimax.determineCell(state);
+    Assertions.assertTrue(Thread.interrupted());
+
+    // the next search starts from prepared workers and runs to its own budget
+    assertLegalMove(minimax.determineCell(state));
+    Assertions.assertTrue(minimax.getNodeCount() > 5000);
+    Assertions.assertTrue(minimax.getCompletedDepth() >= 1);
+  }
+
+  @Test
+  void testClose_endsHelperThreads() throws InterruptedException {
+    Set<Thread> raters = ConcurrentHashMap.newKeySet();
+    StateAssessor reversiAssessor = new ReversiAssessor();
+    StateAssessor assessor =
+        (position, minPlayer, depth) -> {
+          raters.add(Thread.currentThread());
+          return reversiAssessor.computeValue(position, minPlayer, depth);
+        };
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(
+            assessor, 4, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 4, 0);
+    minimax.setEvaluationCaching(false);
+    assertLegalMove(minimax.determineCell(state));
+
+    minimax.close();
+    raters.remove(Thread.currentThread());
+    Assertions.assertFalse(raters.isEmpty());
+    for (Thread helper : raters) {
+      helper.join(TimeUnit.SECONDS.toMillis(10));
+      Assertions.assertFalse(helper.isAlive());
+    }
+  }
+
+  @Test
+  void testStop_endsSearchFromOtherThread() throws Exception {
+    // the first iteration rates one position per move, so it is done long before the 1000th rating
+    CountDownLatch ratings = new CountDownLatch(1000);
+    StateAssessor reversiAssessor = new ReversiAssessor();
+    StateAssessor assessor =
+        (position, minPlayer, depth) -> {
+          ratings.countDown();
+          return reversiAssessor.computeValue(position, minPlayer, depth);
+        };
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(
+            assessor, 60, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 1, 0);
+    CompletableFuture<Cell> cell =
+        CompletableFuture.supplyAsync(() -> minimax.determineCell(state));
+
+    Assertions.assertTrue(ratings.await(10, TimeUnit.SECONDS));
+    minimax.stop();
+    assertLegalMove(cell.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testConstructor_invalidDepth() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new MinimaxAlgorithm(0, 0, 0, 1));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> new MinimaxAlgorithm(1, 0, 0, 1, 0));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> new MinimaxAlgorithm(1, 0, 0, 1, 1, -1));
+  }
+}
@@ -0,0 +1,225 @@
+package reversi.model.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reversi.model.AiReversi;
+import reversi.model.Cell;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.RandomGames;
+import reversi.model.Reversi;
+
+class MonteCarloTreeSearchTest {
+
+  private GameState state;
+
+  @BeforeEach
+  void setUp() {
+    state = MinimaxAlgorithmTest.createOpening();
+  }
+
+  private void assertLegalMove(Cell cell) {
+    Assertions.assertNotNull(cell);
+    Assertions.assertTrue(
+        new Reversi(state).getPossibleMovesForPlayer(Player.WHITE).contains(cell));
+  }
+
+  @Test
+  void testPossibleMoves_sameAsReversi() {
+    Random random = new Random(7);
+    for (int game = 0; game < 20; game++) {
+      Reversi reversi = new Reversi();
+      while (reversi.getState().getCurrentPhase() == Phase.RUNNING) {
+        GameState current = reversi.getState();
+        Player player = current.getCurrentPlayer();
+        Player opponent = Player.getOpponentOf(player);
+        long own = current.getDisksOnField(player);
+        long other = current.getDisksOnField(opponent);
+        Assertions.assertEquals(
+            Reversi.getPossibleMoveMask(current, player),
+            MonteCarloTreeSearch.possibleMoves(own, other, true));
+        Assertions.assertEquals(
+            Reversi.getPossibleMoveMask(current, opponent),
+            MonteCarloTreeSearch.possibleMoves(other, own, false));
+
+        RandomGames.playMove(reversi, random);
+      }
+
+      // the game is over as soon as one of the players can't move, and the current player stays
+      // the one who made the last move
+      GameState finished = reversi.getState();
+      Player lastPlayer = finished.getCurrentPlayer();
+      long last = finished.getDisksOnField(lastPlayer);
+      long next = finished.getDisksOnField(Player.getOpponentOf(lastPlayer));
+      Assertions.assertTrue(
+          MonteCarloTreeSearch.possibleMoves(next, last, true) == 0
+              || MonteCarloTreeSearch.possibleMoves(last, next, false) == 0);
+    }
+  }
+
+  @Test
+  void testPlayout_fromStartPosition() {
+    SplittableRandom random = new SplittableRandom(3);
+    int[] results = new int[3];
+    for (int i = 0; i < 1000; i++) {
+      results[MonteCarloTreeSearch.playout(0L, 0L, random)]++;
+    }
+    // random games are won by both players
+    Assertions.assertTrue(results[0] > 100);
+    Assertions.assertTrue(results[2] > 100);
+  }
+
+  @Test
+  void testDetermineCell_playsPlayoutLimit() {
+    MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(2000, MonteCarloTreeSearch.NO_LIMIT);
+    assertLegalMove(mcts.determineCell(state));
+    Assertions.assertEquals(2000, mcts.getPlayoutCount());
+    Assertions.assertEquals(0, mcts.getReusedPlayouts());
+    Assertions.assertTrue(mcts.getWinRate() >= 0 && mcts.getWinRate() <= 1);
+  }
+
+  @Test
+  void testGetPrincipalVariation_startsWithDeterminedCell() {
+    MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(2000, MonteCarloTreeSearch.NO_LIMIT);
+    Cell cell = mcts.determineCell(state);
+    Assertions.assertEquals(cell, mcts.getPrincipalVariation().get(0));
+    Assertions.assertTrue(mcts.getPrincipalVariation().size() > 1);
+  }
+
+  @Test
+  void testDetermineCell_repeatableWithSeed() {
+    MonteCarloTreeSearch first =
+        new MonteCarloTreeSearch(3000, MonteCarloTreeSearch.NO_LIMIT, 1, 5);
+    MonteCarloTreeSearch second =
+        new MonteCarloTreeSearch(3000, MonteCarloTreeSearch.NO_LIMIT, 1, 5);
+    Assertions.assertEquals(first.determineCell(state), second.determineCell(state));
+    Assertions.assertEquals(first.getPrincipalVariation(), second.getPrincipalVariation());
+    Assertions.assertEquals(first.getWinRate(), second.getWinRate());
+  }
+
+  @Test
+  void testDetermineCell_stopsAtTimeLimit() {
+    MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(MonteCarloTreeSearch.NO_LIMIT, 50, 2);
+    long start = System.nanoTime();
+    assertLegalMove(mcts.determineCell(state));
+    Assertions.assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    Assertions.assertTrue(mcts.getPlayoutCount() > 0);
+  }
+
+  @Test
+  void testDetermineCell_threadsPlayPlayoutLimit() {
+    MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(5000, MonteCarloTreeSearch.NO_LIMIT, 4);
+    assertLegalMove(mcts.determineCell(state));
+    Assertions.assertEquals(5000, mcts.getPlayoutCount());
+  }
+
+  @Test
+  void testDetermineCell_reusesSubtree() {
+    MonteCarloTreeSearch mcts =
+        new MonteCarloTreeSearch(5000, MonteCarloTreeSearch.NO_LIMIT, 1, 1);
+    Reversi reversi = new Reversi(state.makeCopy());
+    Assertions.assertTrue(reversi.move(mcts.determineCell(reversi.getState())));
+    Assertions.assertTrue(reversi.move(mcts.getPrincipalVariation().get(1)));
+
+    mcts.determineCell(reversi.getState());
+    Assertions.assertTrue(mcts.getReusedPlayouts() > 0);
+    Assertions.assertEquals(5000, mcts.getPlayoutCount());
+  }
+
+  @Test
+  void testStop_endsSearchFromOtherThread() throws Exception {
+    MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(MonteCarloTreeSearch.NO_LIMIT, 60_000);
+    CompletableFuture<Cell> cell = CompletableFuture.supplyAsync(() -> mcts.determineCell(state));
+
+    // a stop before the search started has no effect, so it is repeated until the search ended
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!cell.isDone() && System.nanoTime() - deadline < 0) {
+      mcts.stop();
+      try {
+        cell.get(10, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        // the search didn't see the stop yet
+      }
+    }
+
+    // a search stopped before its first playout has no move
+    Cell determined = cell.getNow(null);
+    Assertions.assertTrue(cell.isDone());
+    if (determined != null) {
+      assertLegalMove(determined);
+    }
+  }
+
+  @Test
+  void testDetermineCell_interruptedSearchAwaitsHelpers() {
+    MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(5000, MonteCarloTreeSearch.NO_LIMIT, 4);
+    Thread.currentThread().interrupt();
+    mcts.determineCell(state);
+    // the interrupt status is kept, and cleared here for the following tests
+    Assertions.assertTrue(Thread.interrupted());
+
+    // no helper may still be searching once the search returned
+    for (Map.Entry<Thread, StackTraceElement[]> thread : Thread.getAllStackTraces().entrySet()) {
+      if (thread.getKey().getName().equals("reversi-mcts-helper")) {
+        for (StackTraceElement frame : thread.getValue()) {
+          Assertions.assertNotEquals(MonteCarloTreeSearch.class.getName(), frame.getClassName());
+        }
+      }
+    }
+
+    // the next search runs to its own budget
+    assertLegalMove(mcts.determineCell(state));
+    Assertions.assertEquals(5000, mcts.getPlayoutCount());
+  }
+
+  @Test
+  void testClose_endsHelperThreads() throws InterruptedException {
+    // the helpers of the engines of other tests are left out
+    Set<Thread> otherThreads = Thread.getAllStackTraces().keySet();
+    MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(5000, MonteCarloTreeSearch.NO_LIMIT, 4);
+    assertLegalMove(mcts.determineCell(state));
+    List<Thread> helpers = new ArrayList<>();
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().equals("reversi-mcts-helper") && !otherThreads.contains(thread)) {
+        helpers.add(thread);
+      }
+    }
+
+    mcts.close();
+    Assertions.assertFalse(helpers.isEmpty());
+    for (Thread helper : helpers) {
+      helper.join(TimeUnit.SECONDS.toMillis(10));
+      Assertions.assertFalse(helper.isAlive());
+    }
+  }
+
+  @Test
+  void testConstructor_needsLimit() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new MonteCarloTreeSearch(MonteCarloTreeSearch.NO_LIMIT, MonteCarloTreeSearch.NO_LIMIT));
+  }
+
+  @Test
+  void testAiReversi_playsWithMonteCarloTreeSearch() {
+    AiReversi aiReversi = new AiReversi(new MonteCarloTreeSearch(500, 0));
+    aiReversi.move(Cell.of(3, 3));
+    Cell aiCell = aiReversi.getAiMove().join();
+
+    long white = aiReversi.getState().getDisksOnField(Player.WHITE);
+    Assertions.assertTrue((white & 1L << aiCell.index()) != 0);
+    Assertions.assertEquals(Player.BLACK, aiReversi.getState().getCurrentPlayer());
+  }
+}
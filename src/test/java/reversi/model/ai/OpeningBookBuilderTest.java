@@ -0,0 +1,63 @@
+package reversi.model.ai;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reversi.model.Cell;
+import reversi.model.Player;
+import reversi.model.Reversi;
+
+class OpeningBookBuilderTest {
+
+  @TempDir Path directory;
+
+  private Path file;
+
+  @BeforeEach
+  void setUp() {
+    file = directory.resolve("opening.book");
+  }
+
+  private int build(int maxPositions) throws IOException {
+    OpeningBookBuilder builder = new OpeningBookBuilder(file, 2, 10, maxPositions, 2, 0);
+    try {
+      builder.build(50, 7);
+    } finally {
+      builder.shutdown();
+    }
+    return builder.getScoredPositions();
+  }
+
+  @Test
+  void testBuild_scoresFrequentPositions() throws IOException {
+    Assertions.assertEquals(20, build(20));
+
+    OpeningBook book = OpeningBook.open(file);
+    Assertions.assertEquals(20, book.size());
+    for (OpeningBook.Entry entry : book.entries()) {
+      Assertions.assertEquals(2, entry.getDepth());
+    }
+
+    // every first move of black is reached by the self-play games
+    Reversi reversi = new Reversi();
+    reversi.move(Cell.of(3, 3));
+    Optional<OpeningBook.Entry> entry = book.lookup(reversi.getState());
+    Assertions.assertTrue(entry.isPresent());
+    Assertions.assertTrue(
+        reversi.getPossibleMovesForPlayer(Player.WHITE).contains(entry.get().getMove()));
+  }
+
+  @Test
+  void testBuild_isIncremental() throws IOException {
+    build(20);
+
+    // positions in the book are only counted again, and only the new positions are scored
+    Assertions.assertEquals(0, build(20));
+    Assertions.assertEquals(10, build(30));
+    Assertions.assertEquals(30, OpeningBook.open(file).size());
+  }
+}
@@ -0,0 +1,159 @@
+package reversi.model.ai;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reversi.model.Cell;
+import reversi.model.GameState;
+import reversi.model.Reversi;
+
+class OpeningBookTest {
+
+  @TempDir Path directory;
+
+  private Path file;
+  private GameState state;
+
+  @BeforeEach
+  void setUp() {
+    file = directory.resolve("opening.book");
+    state = MinimaxAlgorithmTest.createOpening();
+  }
+
+  /** Plays the moves of the shared opening, mirrored at the middle of the columns. */
+  private static GameState mirroredState() {
+    Reversi reversi = new Reversi();
+    reversi.move(Cell.of(4, 3));
+    reversi.move(Cell.of(4, 4));
+    reversi.move(Cell.of(3, 4));
+    reversi.move(Cell.of(3, 3));
+    Assertions.assertTrue(reversi.move(Cell.of(5, 4)));
+    return reversi.getState();
+  }
+
+  @Test
+  void testLookup_findsWrittenPosition() throws IOException {
+    OpeningBook.write(file, List.of(OpeningBook.Entry.of(state, Cell.of(2, 5), 1.5, 7, 4)));
+
+    OpeningBook book = OpeningBook.open(file);
+    Optional<OpeningBook.Entry> entry = book.lookup(state);
+
+    Assertions.assertEquals(1, book.size());
+    Assertions.assertTrue(entry.isPresent());
+    Assertions.assertEquals(Cell.of(2, 5), entry.get().getMove());
+    Assertions.assertEquals(1.5, entry.get().getScore());
+    Assertions.assertEquals(7, entry.get().getCount());
+    Assertions.assertEquals(4, entry.get().getDepth());
+  }
+
+  @Test
+  void testLookup_findsMirroredPosition() throws IOException {
+    OpeningBook.write(file, List.of(OpeningBook.Entry.of(state, Cell.of(2, 5), 1.5, 7, 4)));
+
+    Optional<OpeningBook.Entry> entry = OpeningBook.open(file).lookup(mirroredState());
+
+    Assertions.assertTrue(entry.isPresent());
+    Assertions.assertEquals(Cell.of(5, 5), entry.get().getMove());
+  }
+
+  @Test
+  void testLookup_missingPosition() throws IOException {
+    OpeningBook.write(file, List.of(OpeningBook.Entry.of(state, Cell.of(2, 5), 1.5, 7, 4)));
+
+    Assertions.assertTrue(OpeningBook.open(file).lookup(new Reversi().getState()).isEmpty());
+  }
+
+  @Test
+  void testLookup_manyPositions() throws IOException {
+    // every position along a game, so that the binary search has to find records in the middle
+    Reversi reversi = new Reversi();
+    List<GameState> states = new ArrayList<>();
+    List<OpeningBook.Entry> entries = new ArrayList<>();
+    reversi.move(Cell.of(3, 3));
+    for (int i = 0; i < 20; i++) {
+      GameState position = reversi.getState().makeCopy();
+      Cell move = reversi.getPossibleMovesForPlayer(position.getCurrentPlayer()).iterator().next();
+      states.add(position);
+      entries.add(OpeningBook.Entry.of(position, move, i, 1, 4));
+      reversi.move(move);
+    }
+    OpeningBook.write(file, entries);
+
+    OpeningBook book = OpeningBook.open(file);
+    for (int i = 0; i < states.size(); i++) {
+      Assertions.assertEquals(i, book.lookup(states.get(i)).get().getScore());
+    }
+  }
+
+  @Test
+  void testWrite_duplicateKey() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            OpeningBook.write(
+                file,
+                List.of(
+                    OpeningBook.Entry.of(state, Cell.of(2, 5), 1, 1, 4),
+                    OpeningBook.Entry.of(mirroredState(), Cell.of(5, 5), 1, 1, 4))));
+  }
+
+  @Test
+  void testOpen_invalidFile() throws IOException {
+    Files.write(file, new byte[OpeningBook.HEADER_SIZE + 3]);
+    Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+  }
+
+  @Test
+  void testRead_sameAsOpen() throws IOException {
+    OpeningBook.write(file, List.of(OpeningBook.Entry.of(state, Cell.of(2, 5), 1.5, 7, 4)));
+
+    OpeningBook book = OpeningBook.read(new ByteArrayInputStream(Files.readAllBytes(file)));
+
+    Assertions.assertEquals(1, book.size());
+    Assertions.assertEquals(Cell.of(2, 5), book.lookup(state).get().getMove());
+    Assertions.assertThrows(
+        IOException.class, () -> OpeningBook.read(new ByteArrayInputStream(new byte[3])));
+  }
+
+  @Test
+  void testGetDefault_knowsOpening() {
+    OpeningBook book = OpeningBook.getDefault();
+
+    Assertions.assertSame(book, OpeningBook.getDefault());
+    Assertions.assertTrue(book.size() > 0);
+    Assertions.assertTrue(book.lookup(state).isPresent());
+  }
+
+  @Test
+  void testMinimax_playsBookMove() throws IOException {
+    OpeningBook.write(file, List.of(OpeningBook.Entry.of(state, Cell.of(2, 5), 1.5, 7, 4)));
+    MinimaxAlgorithm minimax = new MinimaxAlgorithm();
+    minimax.setOpeningBook(OpeningBook.open(file));
+
+    Assertions.assertEquals(Cell.of(2, 5), minimax.determineCell(state));
+    Assertions.assertEquals(0, minimax.getNodeCount());
+    Assertions.assertEquals(Cell.of(5, 5), minimax.determineCell(mirroredState()));
+  }
+
+  @Test
+  void testMinimax_bookMoveAfterSearch() throws IOException {
+    MinimaxAlgorithm minimax = new MinimaxAlgorithm();
+    minimax.determineCell(state);
+    Assertions.assertTrue(minimax.getNodeCount() > 0);
+
+    // the counters of the last search are cleared, although the workers aren't prepared
+    OpeningBook.write(file, List.of(OpeningBook.Entry.of(state, Cell.of(2, 5), 1.5, 7, 4)));
+    minimax.setOpeningBook(OpeningBook.open(file));
+    Assertions.assertEquals(Cell.of(2, 5), minimax.determineCell(state));
+    Assertions.assertEquals(0, minimax.getNodeCount());
+    Assertions.assertEquals(0, minimax.getSearchReport().getEvaluationCount());
+  }
+}
@@ -0,0 +1,189 @@
+package reversi.model.ai;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reversi.model.Bitboard;
+import reversi.model.Cell;
+import reversi.model.GameState;
+import reversi.model.Phase;
+import reversi.model.Player;
+import reversi.model.RandomGames;
+import reversi.model.Reversi;
+
+class PatternAssessorTest {
+
+  private final PatternAssessor assessor = new PatternAssessor();
+
+  /** Plays a random game and returns its moves. */
+  private static List<Cell> playRandomGame(Random random) {
+    List<Cell> moves = new ArrayList<>();
+    Reversi reversi = new Reversi();
+    while (reversi.getState().getCurrentPhase() == Phase.RUNNING) {
+      moves.add(RandomGames.playMove(reversi, random));
+    }
+    return moves;
+  }
+
+  private static Cell transform(Cell cell, int symmetry) {
+    long bit = Bitboard.transform(1L << cell.index(), symmetry);
+    return Cell.ofIndex(Long.numberOfTrailingZeros(bit));
+  }
+
+  @Test
+  void testPlacements_count() {
+    int placements = 0;
+    for (Pattern pattern : Pattern.ALL) {
+      placements += pattern.getPlacements().length;
+      Assertions.assertEquals(pattern.getPlacements().length, pattern.getFieldSymmetries().length);
+    }
+    Assertions.assertEquals(PatternAssessor.PLACEMENT_COUNT, placements);
+    Assertions.assertEquals(4, Pattern.EDGE.getPlacements().length);
+    Assertions.assertEquals(8, Pattern.CORNER_REGION.getPlacements().length);
+  }
+
+  @Test
+  void testIndexOf_matchesCellwiseReading() {
+    Random random = new Random(17);
+    for (int game = 0; game < 20; game++) {
+      Reversi reversi = new Reversi();
+      for (Cell cell : playRandomGame(random)) {
+        reversi.move(cell);
+        long white = reversi.getState().getDisksOnField(Player.WHITE);
+        long black = reversi.getState().getDisksOnField(Player.BLACK);
+
+        for (Pattern pattern : Pattern.ALL) {
+          for (int i = 0; i < pattern.getPlacements().length; i++) {
+            int symmetry = pattern.getFieldSymmetries()[i];
+            Assertions.assertEquals(
+                Pattern.indexOf(pattern.getPlacements()[i], white, black),
+                pattern.indexOf(
+                    Bitboard.transform(white, symmetry), Bitboard.transform(black, symmetry)));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void testCanonicalIndex_reversedEdge() {
+    // a white disk on the first cell of an edge equals a white disk on the last one
+    int first = 1;
+    int last = 2187; // 3^7
+    Assertions.assertEquals(Pattern.EDGE.canonicalIndex(first), Pattern.EDGE.canonicalIndex(last));
+    Assertions.assertNotEquals(
+        Pattern.EDGE.canonicalIndex(first), Pattern.EDGE.canonicalIndex(2 * last));
+  }
+
+  @Test
+  void testComputeValue_sameForSymmetricPositions() {
+    List<Cell> moves = playRandomGame(new Random(23));
+    for (int symmetry = 1; symmetry < Bitboard.SYMMETRY_COUNT; symmetry++) {
+      Reversi reversi = new Reversi();
+      Reversi transformed = new Reversi();
+      for (Cell cell : moves) {
+        reversi.move(cell);
+        Assertions.assertTrue(transformed.move(transform(cell, symmetry)));
+        Assertions.assertEquals(
+            assessor.computeValue(reversi.getState(), Player.BLACK, 2),
+            assessor.computeValue(transformed.getState(), Player.BLACK, 2));
+      }
+    }
+  }
+
+  @Test
+  void testComputeValue_finishedGameIncludesWinVelocity() {
+    Random random = new Random(31);
+    GameState state;
+    do {
+      Reversi reversi = new Reversi();
+      for (Cell cell : playRandomGame(random)) {
+        reversi.move(cell);
+      }
+      state = reversi.getState();
+    } while (state.getWinner().isEmpty() || state.getWinner().get() != Player.WHITE);
+
+    // only the rating of the win depends on the depth
+    Assertions.assertEquals(
+        5000.0 - 2500.0,
+        assessor.computeValue(state, Player.BLACK, 1)
+            - assessor.computeValue(state, Player.BLACK, 2),
+        1e-9);
+  }
+
+  @Test
+  void testComputeValue_approximatesReversiAssessor() {
+    StateAssessor reference = new ReversiAssessor();
+    Random random = new Random(37);
+    double error = 0;
+    double magnitude = 0;
+    for (int game = 0; game < 50; game++) {
+      Reversi reversi = new Reversi();
+      for (Cell cell : playRandomGame(random)) {
+        reversi.move(cell);
+        if (reversi.getState().getCurrentPhase() == Phase.RUNNING) {
+          double expected = reference.computeValue(reversi.getState(), Player.BLACK, 1);
+          error += Math.abs(expected - assessor.computeValue(reversi.getState(), Player.BLACK, 1));
+          magnitude += Math.abs(expected);
+        }
+      }
+    }
+    Assertions.assertTrue(error < 0.3 * magnitude, "relative error " + error / magnitude);
+  }
+
+  @Test
+  void testLoad_readsWrittenTables() throws IOException {
+    PatternTrainer trainer = new PatternTrainer();
+    trainer.addRandomGames(20, 3);
+    trainer.train(2, 5);
+    PatternAssessor trained = trainer.toAssessor();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PatternAssessor.write(out, trainer.getTables());
+    PatternAssessor loaded = PatternAssessor.load(new ByteArrayInputStream(out.toByteArray()));
+
+    Reversi reversi = new Reversi();
+    for (Cell cell : playRandomGame(new Random(41))) {
+      reversi.move(cell);
+      Assertions.assertEquals(
+          trained.computeValue(reversi.getState(), Player.BLACK, 1),
+          loaded.computeValue(reversi.getState(), Player.BLACK, 1));
+    }
+  }
+
+  @Test
+  void testLoad_invalidStream() {
+    byte[] invalid = {1, 2, 3, 4};
+    Assertions.assertThrows(
+        IOException.class, () -> PatternAssessor.load(new ByteArrayInputStream(invalid)));
+  }
+
+  @Test
+  void testMinimax_ratesWithPatternAssessor() {
+    GameState state = MinimaxAlgorithmTest.createOpening();
+    MinimaxAlgorithm minimax =
+        new MinimaxAlgorithm(
+            assessor, 1, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 1, 1, 0);
+    Cell cell = minimax.determineCell(state);
+
+    // looking one move ahead, the ai takes the move whose position the pattern tables rate best
+    double best = Double.NEGATIVE_INFINITY;
+    double rating = 0;
+    for (Cell move : new Reversi(state).getPossibleMovesForPlayer(Player.WHITE)) {
+      Reversi reversi = new Reversi(state.makeCopy());
+      reversi.move(move);
+      double value = assessor.computeValue(reversi.getState(), Player.BLACK, 1);
+      best = Math.max(best, value);
+      if (move.equals(cell)) {
+        rating = value;
+      }
+    }
+    Assertions.assertEquals(best, minimax.getScore());
+    Assertions.assertEquals(best, rating);
+  }
+}
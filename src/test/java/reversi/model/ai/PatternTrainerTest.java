@@ -0,0 +1,42 @@
+package reversi.model.ai;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PatternTrainerTest {
+
+  @Test
+  void testTrain_reducesError() {
+    PatternTrainer trainer = new PatternTrainer();
+    trainer.addRandomGames(200, 11);
+    Assertions.assertTrue(trainer.getPositionCount() > 200);
+
+    double untrained = trainer.meanAbsoluteError();
+    double trained = trainer.train(4, 13);
+    Assertions.assertTrue(trained < untrained / 2, untrained + " -> " + trained);
+  }
+
+  @Test
+  void testGetTables_equivalentContentsShareScore() {
+    PatternTrainer trainer = new PatternTrainer();
+    trainer.addRandomGames(50, 19);
+    trainer.train(2, 29);
+
+    short[][][] tables = trainer.getTables();
+    for (short[][] phaseTables : tables) {
+      for (int pattern = 0; pattern < Pattern.ALL.size(); pattern++) {
+        Pattern current = Pattern.ALL.get(pattern);
+        for (int index = 0; index < current.getIndexCount(); index++) {
+          Assertions.assertEquals(
+              phaseTables[pattern][current.canonicalIndex(index)], phaseTables[pattern][index]);
+        }
+      }
+    }
+  }
+
+  @Test
+  void testTrain_withoutPositions() {
+    PatternTrainer trainer = new PatternTrainer();
+    Assertions.assertEquals(0, trainer.train(1, 0));
+  }
+}
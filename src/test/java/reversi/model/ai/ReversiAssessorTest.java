@@ -0,0 +1,49 @@
+package reversi.model.ai;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reversi.model.GameState;
+import reversi.model.Player;
+import reversi.model.Reversi;
+
+class ReversiAssessorTest {
+
+  /** The ratings of the single assessors, added up one after another. */
+  private static final List<StateAssessor> SEPARATE_ASSESSORS =
+      List.of(
+          new DiskCountAssessor(),
+          new CornerAssessor(),
+          new MobilityAssessor(),
+          new WeightAssessor(),
+          new WinVelocityAssessor());
+
+  static double rateSeparately(GameState state, int depth) {
+    double result = 0;
+    for (StateAssessor assessor : SEPARATE_ASSESSORS) {
+      result += assessor.computeValue(state, Player.BLACK, depth);
+    }
+    return result;
+  }
+
+  @Test
+  void testComputeValue_sameAsSeparateAssessorsOnRandomPositions() {
+    ReversiAssessor assessor = new ReversiAssessor();
+    List<GameState> positions = AssessorBenchmark.createPositions(300, new Random(97));
+    for (GameState position : positions) {
+      for (int depth = 1; depth <= 4; depth++) {
+        // the scores have to be exactly the same, not only close
+        Assertions.assertEquals(
+            Double.doubleToLongBits(rateSeparately(position, depth)),
+            Double.doubleToLongBits(assessor.computeValue(position, Player.BLACK, depth)));
+      }
+    }
+  }
+
+  @Test
+  void testComputeValue_startPosition() {
+    GameState state = new Reversi().getState();
+    Assertions.assertEquals(0, new ReversiAssessor().computeValue(state, Player.BLACK, 1));
+  }
+}
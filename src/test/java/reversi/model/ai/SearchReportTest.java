@@ -0,0 +1,71 @@
+package reversi.model.ai;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reversi.model.GameState;
+
+class SearchReportTest {
+
+  private static MinimaxAlgorithm createAlgorithm(int maxDepth) {
+    return new MinimaxAlgorithm(
+        maxDepth, MinimaxAlgorithm.NO_LIMIT, MinimaxAlgorithm.NO_LIMIT, 16);
+  }
+
+  @Test
+  void testGetSearchReport_matchesCounters() {
+    MinimaxAlgorithm algorithm = createAlgorithm(5);
+    algorithm.determineCell(MinimaxAlgorithmTest.createOpening());
+    SearchReport report = algorithm.getSearchReport();
+
+    Assertions.assertEquals(algorithm.getCompletedDepth(), report.getDepth());
+    Assertions.assertEquals(algorithm.getNodeCount(), report.getNodeCount());
+    Assertions.assertEquals(algorithm.getCutoffCount(), report.getCutoffCount());
+    Assertions.assertTrue(report.getEvaluationCount() > 0);
+    Assertions.assertTrue(report.getEvaluationCount() <= report.getNodeCount());
+    Assertions.assertTrue(report.getElapsedNanos() > 0);
+    Assertions.assertTrue(report.getNodesPerSecond() > 0);
+    Assertions.assertTrue(report.getFirstMoveCutoffRate() > 0);
+    Assertions.assertTrue(report.getFirstMoveCutoffRate() <= 1);
+    Assertions.assertTrue(report.getEffectiveBranchingFactor() > 1);
+  }
+
+  @Test
+  void testGetSearchReport_hitRatesOfLastSearch() {
+    MinimaxAlgorithm algorithm = createAlgorithm(5);
+    GameState state = MinimaxAlgorithmTest.createOpening();
+    algorithm.determineCell(state);
+    double firstCacheHitRate = algorithm.getSearchReport().getCacheHitRate();
+
+    // the second search of the same position finds most of its ratings and positions stored
+    algorithm.determineCell(state);
+    SearchReport report = algorithm.getSearchReport();
+    Assertions.assertTrue(report.getCacheHitRate() > firstCacheHitRate);
+    Assertions.assertTrue(report.getTableHitRate() > 0);
+    Assertions.assertTrue(report.getTableHitRate() <= 1);
+  }
+
+  @Test
+  void testGetSearchReport_cachingDisabled() {
+    MinimaxAlgorithm algorithm = createAlgorithm(4);
+    algorithm.setEvaluationCaching(false);
+    algorithm.determineCell(MinimaxAlgorithmTest.createOpening());
+    Assertions.assertEquals(0, algorithm.getSearchReport().getCacheHitRate());
+  }
+
+  @Test
+  void testEffectiveBranchingFactor() {
+    SearchReport report = new SearchReport(3, 1000, 800, 100, 90, 0.5, 0.25, 2_000_000);
+    Assertions.assertEquals(10, report.getEffectiveBranchingFactor(), 1e-9);
+    Assertions.assertEquals(0.9, report.getFirstMoveCutoffRate(), 1e-9);
+    Assertions.assertEquals(500_000, report.getNodesPerSecond(), 1e-6);
+  }
+
+  @Test
+  void testEmptyReport() {
+    SearchReport report = new SearchReport(0, 0, 0, 0, 0, 0, 0, 0);
+    Assertions.assertEquals(0, report.getEffectiveBranchingFactor());
+    Assertions.assertEquals(0, report.getFirstMoveCutoffRate());
+    Assertions.assertEquals(0, report.getNodesPerSecond());
+    Assertions.assertFalse(report.toString().isEmpty());
+  }
+}
@@ -0,0 +1,109 @@
+package reversi.model.ai;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reversi.model.Cell;
+import reversi.model.Reversi;
+
+class TranspositionTableTest {
+
+  private TranspositionTable table;
+  private TranspositionTable.Entry entry;
+
+  @BeforeEach
+  void setUp() {
+    table = new TranspositionTable(1);
+    entry = new TranspositionTable.Entry();
+  }
+
+  /** Return a key that falls into the same bucket as the given key, but differs from it. */
+  private long sameBucket(long key) {
+    // the bucket only depends on the lower bits of both halves of the key
+    return key + ((long) table.getCapacity() << 32);
+  }
+
+  @Test
+  void testProbe_returnsStoredEntry() {
+    table.store(0x1234_5678_9ABC_DEF0L, 5, -12.5, TranspositionTable.LOWER_BOUND, 63);
+
+    Assertions.assertTrue(table.probe(0x1234_5678_9ABC_DEF0L, entry));
+    Assertions.assertEquals(5, entry.getDepth());
+    Assertions.assertEquals(-12.5, entry.getValue());
+    Assertions.assertEquals(TranspositionTable.LOWER_BOUND, entry.getBound());
+    Assertions.assertEquals(63, entry.getMove());
+  }
+
+  @Test
+  void testProbe_missesUnknownKey() {
+    table.store(42L, 1, 1.0, TranspositionTable.EXACT, TranspositionTable.NO_MOVE);
+
+    Assertions.assertFalse(table.probe(43L, entry));
+    Assertions.assertFalse(table.probe(0L, entry));
+    Assertions.assertEquals(2, table.getProbes());
+    Assertions.assertEquals(0, table.getHits());
+  }
+
+  @Test
+  void testStore_keepsDeeperEntryOfSameSearch() {
+    long deep = 42L;
+    long shallow = sameBucket(deep);
+    table.store(deep, 6, 1.0, TranspositionTable.EXACT, 1);
+    table.store(shallow, 2, 2.0, TranspositionTable.EXACT, 2);
+
+    Assertions.assertTrue(table.probe(deep, entry));
+    Assertions.assertEquals(6, entry.getDepth());
+    Assertions.assertTrue(table.probe(shallow, entry));
+    Assertions.assertEquals(2, entry.getDepth());
+  }
+
+  @Test
+  void testStore_replacesEntryOfPreviousSearch() {
+    long deep = 42L;
+    long other = sameBucket(deep);
+    long newest = sameBucket(other);
+    table.store(deep, 6, 1.0, TranspositionTable.EXACT, 1);
+    table.newSearch();
+    table.store(other, 2, 2.0, TranspositionTable.EXACT, 2);
+    table.store(newest, 1, 3.0, TranspositionTable.EXACT, 3);
+
+    Assertions.assertFalse(table.probe(deep, entry));
+    Assertions.assertTrue(table.probe(other, entry));
+    Assertions.assertTrue(table.probe(newest, entry));
+  }
+
+  @Test
+  void testStore_updatesSamePosition() {
+    table.store(42L, 6, 1.0, TranspositionTable.LOWER_BOUND, 1);
+    table.store(42L, 2, 2.0, TranspositionTable.UPPER_BOUND, 2);
+
+    Assertions.assertTrue(table.probe(42L, entry));
+    Assertions.assertEquals(2, entry.getDepth());
+    Assertions.assertEquals(TranspositionTable.UPPER_BOUND, entry.getBound());
+  }
+
+  @Test
+  void testClear_removesEntriesAndStatistics() {
+    table.store(42L, 1, 1.0, TranspositionTable.EXACT, 1);
+    table.probe(42L, entry);
+    table.recordCutoff();
+    Assertions.assertEquals(1.0, table.getHitRate());
+    Assertions.assertEquals(1.0, table.getCutoffRate());
+
+    table.clear();
+    Assertions.assertEquals(0, table.getProbes());
+    Assertions.assertEquals(0, table.getStores());
+    Assertions.assertFalse(table.probe(42L, entry));
+  }
+
+  @Test
+  void testMinimax_usesTable() {
+    // the ai always plays white, which moves second
+    Reversi reversi = new Reversi();
+    reversi.move(Cell.of(3, 3));
+    MinimaxAlgorithm minimax = new MinimaxAlgorithm(1);
+    minimax.determineCell(reversi.getState());
+
+    Assertions.assertTrue(minimax.getTranspositionTable().getStores() > 0);
+  }
+}